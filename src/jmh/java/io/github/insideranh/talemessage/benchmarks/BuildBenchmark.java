@@ -0,0 +1,54 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.BuildMode;
+import io.github.insideranh.talemessage.CompiledMessage;
+import io.github.insideranh.talemessage.MessageBuilder;
+import io.github.insideranh.talemessage.MiniMessageParser;
+import io.github.insideranh.talemessage.TagToken;
+import io.github.insideranh.talemessage.TaleMessage;
+import io.github.insideranh.talemessage.TokenTable;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Message construction from an already parsed tree, i.e. the cost paid per send by compiled templates.
+ */
+@State(Scope.Benchmark)
+public class BuildBenchmark {
+
+    @Param({"chat", "motd", "nested", "gradient", "legacy", "plain"})
+    public String corpus;
+
+    private TagToken root;
+    private TokenTable table;
+    private CompiledMessage compiled;
+
+    @Setup
+    public void setup() {
+        String input = Corpus.get(corpus);
+        root = MiniMessageParser.parse(input);
+        table = MiniMessageParser.parseTable(input);
+        compiled = TaleMessage.compile(input);
+    }
+
+    @Benchmark
+    public Message buildTree() {
+        return MessageBuilder.build(root);
+    }
+
+    @Benchmark
+    public Message buildTable() {
+        return MessageBuilder.build(table, BuildMode.TREE);
+    }
+
+    @Benchmark
+    public Message buildFlat() {
+        return MessageBuilder.build(table, BuildMode.FLAT);
+    }
+
+    @Benchmark
+    public Message buildCompiled() {
+        return compiled.build();
+    }
+
+}
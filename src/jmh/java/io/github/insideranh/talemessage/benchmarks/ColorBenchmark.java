@@ -0,0 +1,46 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import io.github.insideranh.talemessage.ColorRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Color;
+
+/**
+ * Color lookups for the three tag forms, plus interpolation as used by gradients.
+ */
+@State(Scope.Benchmark)
+public class ColorBenchmark {
+
+    @Param({"gold", "#FF5555", "255,85,85"})
+    public String color;
+
+    private Color from;
+    private Color to;
+
+    @Setup
+    public void setup() {
+        from = ColorRegistry.getColor("red");
+        to = ColorRegistry.getColor("blue");
+    }
+
+    @Benchmark
+    public Color getColor() {
+        return ColorRegistry.getColor(color);
+    }
+
+    @Benchmark
+    public int getColorArgb() {
+        return ColorRegistry.getColorArgb(color);
+    }
+
+    @Benchmark
+    public int interpolateArgb() {
+        return ColorRegistry.interpolate(0xFFFF5555, 0xFF5555FF, 0.37f);
+    }
+
+    @Benchmark
+    public Color interpolate() {
+        return ColorRegistry.interpolate(from, to, 0.37f);
+    }
+
+}
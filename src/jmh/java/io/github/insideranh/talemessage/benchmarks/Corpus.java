@@ -0,0 +1,81 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+
+/**
+ * Realistic inputs shared by all benchmarks, selected by name through {@code @Param}.
+ */
+public final class Corpus {
+
+    public static final String CHAT = "<dark_gray>[</dark_gray><gold>VIP</gold><dark_gray>]</dark_gray> <white>Steve</white><gray>: anyone up for the dungeon?</gray>";
+
+    public static final String MOTD = buildMotd();
+
+    public static final String NESTED = buildNested(24);
+
+    public static final String GRADIENT = "<gradient:red:gold:yellow:green:aqua:blue:light_purple><bold>"
+            + "=== Welcome to the Hytale Adventure Server - Season 3 ===</bold></gradient>";
+
+    public static final String LEGACY = "&8[&6&lVIP&8] &fSteve&7: &aanyone &cup &efor &bthe &ddungeon&r? &7(&nclick&7)";
+
+    public static final String PLAIN = "Server restarting in 5 minutes, please finish what you are doing.";
+
+    public static final String TEMPLATE = "<gold>Welcome back, {player}!</gold> <gray>Rank:</gray> <aqua>{rank}</aqua> "
+            + "<gray>Coins:</gray> <yellow>{coins}</yellow> <gray>Kills:</gray> <red>{kills}</red> "
+            + "<gray>Deaths:</gray> <red>{deaths}</red> <gray>Playtime:</gray> <green>{playtime}</green> "
+            + "<gray>Guild:</gray> <light_purple>{guild}</light_purple> <gray>World:</gray> <white>{world}</white>";
+
+    public static final Placeholder[] PLACEHOLDERS = {
+            new Placeholder("{player}", "Steve"),
+            new Placeholder("{rank}", "Knight"),
+            new Placeholder("{coins}", "12,345"),
+            new Placeholder("{kills}", "321"),
+            new Placeholder("{deaths}", "45"),
+            new Placeholder("{playtime}", "12h 34m"),
+            new Placeholder("{guild}", "Orbis"),
+            new Placeholder("{world}", "Zone 1"),
+    };
+
+    private Corpus() {
+    }
+
+    public static String get(String name) {
+        return switch (name) {
+            case "chat" -> CHAT;
+            case "motd" -> MOTD;
+            case "nested" -> NESTED;
+            case "gradient" -> GRADIENT;
+            case "legacy" -> LEGACY;
+            case "plain" -> PLAIN;
+            case "template" -> TEMPLATE;
+            default -> throw new IllegalArgumentException("Unknown corpus: " + name);
+        };
+    }
+
+    private static String buildMotd() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<gradient:gold:yellow>═══════════════════════════════</gradient>\n");
+        for (int i = 1; i <= 20; i++) {
+            sb.append("<gray>").append(i).append(".</gray> <white>Rule number ").append(i)
+                    .append(": <bold>be respectful</bold> to other players, <italic>no griefing</italic>, ")
+                    .append("and read <click:https://example.com/rules/").append(i).append("><aqua><u>the full rules</u></aqua></click>.")
+                    .append("</white>\n");
+        }
+        sb.append("<gradient:gold:yellow>═══════════════════════════════</gradient>");
+        return sb.toString();
+    }
+
+    private static String buildNested(int depth) {
+        String[] tags = {"red", "bold", "italic", "gold", "underline", "#55FFFF", "mono", "128,64,200"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            String tag = tags[i % tags.length];
+            sb.append('<').append(tag).append(">level ").append(i).append(' ');
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            sb.append("</").append(tags[i % tags.length]).append('>');
+        }
+        return sb.toString();
+    }
+
+}
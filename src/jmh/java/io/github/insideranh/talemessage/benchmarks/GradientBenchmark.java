@@ -0,0 +1,45 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.CompiledMessage;
+import io.github.insideranh.talemessage.TaleMessage;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Gradient rendering for titles of increasing length and stop count.
+ */
+@State(Scope.Benchmark)
+public class GradientBenchmark {
+
+    @Param({"16", "60", "240"})
+    public int length;
+
+    @Param({"2", "7"})
+    public int stops;
+
+    private CompiledMessage compiled;
+
+    @Setup
+    public void setup() {
+        String[] colors = {"red", "gold", "yellow", "green", "aqua", "blue", "light_purple"};
+        StringBuilder tag = new StringBuilder("<gradient");
+        for (int i = 0; i < stops; i++) {
+            tag.append(':').append(colors[i % colors.length]);
+        }
+        tag.append('>');
+
+        StringBuilder text = new StringBuilder(length);
+        String words = "Welcome to the Hytale Adventure Server ";
+        while (text.length() < length) {
+            text.append(words.charAt(text.length() % words.length()));
+        }
+
+        compiled = TaleMessage.compile(tag + text.toString() + "</gradient>");
+    }
+
+    @Benchmark
+    public Message buildGradient() {
+        return compiled.build();
+    }
+
+}
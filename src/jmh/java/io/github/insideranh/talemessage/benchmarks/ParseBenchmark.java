@@ -0,0 +1,59 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.MiniMessageParser;
+import io.github.insideranh.talemessage.StreamingParser;
+import io.github.insideranh.talemessage.TagToken;
+import io.github.insideranh.talemessage.TagVisitor;
+import io.github.insideranh.talemessage.TaleMessage;
+import io.github.insideranh.talemessage.TokenTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lexing into a tree, a token table or visitor events alone, and the full {@link TaleMessage#parse(String)} path.
+ */
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"chat", "motd", "nested", "gradient", "legacy", "plain"})
+    public String corpus;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        input = Corpus.get(corpus);
+    }
+
+    @Benchmark
+    public TagToken parseTree() {
+        return MiniMessageParser.parse(input);
+    }
+
+    @Benchmark
+    public TokenTable parseTable() {
+        return MiniMessageParser.parseTable(input);
+    }
+
+    @Benchmark
+    public void parseStream(Blackhole blackhole) {
+        StreamingParser.parse(input, new TagVisitor() {
+            @Override
+            public void onText(CharSequence text) {
+                blackhole.consume(text.length());
+            }
+
+            @Override
+            public void onOpen(TagToken.Type type, String tag, String[] args) {
+                blackhole.consume(tag);
+            }
+        });
+    }
+
+    @Benchmark
+    public Message parseAndBuild() {
+        return TaleMessage.parse(input);
+    }
+
+}
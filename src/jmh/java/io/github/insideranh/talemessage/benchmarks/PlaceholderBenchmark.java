@@ -0,0 +1,98 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.CompiledMessage;
+import io.github.insideranh.talemessage.TaleMessage;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import io.github.insideranh.talemessage.utils.LanguageUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Placeholder substitution alone and the template paths that combine it with parsing and building.
+ */
+@State(Scope.Benchmark)
+public class PlaceholderBenchmark {
+
+    private String template;
+    private Placeholder[] placeholders;
+    private CompiledMessage compiled;
+    private List<Placeholder[]> audience;
+    private CompiledMessage hud;
+    private long coins;
+    private double health;
+    private long remainingSeconds;
+
+    @Setup
+    public void setup() {
+        template = Corpus.TEMPLATE;
+        placeholders = Corpus.PLACEHOLDERS;
+        compiled = TaleMessage.compile(template);
+
+        audience = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Placeholder[] values = placeholders.clone();
+            values[0] = new Placeholder("{player}", "Player" + i);
+            audience.add(values);
+        }
+
+        hud = TaleMessage.compile("<gold>{coins} coins</gold> <red>{health} HP</red> <gray>Next round in {time}");
+        coins = 1_234_567;
+        health = 17.25;
+        remainingSeconds = 125;
+    }
+
+    @Benchmark
+    public String replace() {
+        return LanguageUtils.replacePlaceholders(template, placeholders);
+    }
+
+    @Benchmark
+    public String replaceNoMatch() {
+        return LanguageUtils.replacePlaceholders(Corpus.PLAIN, placeholders);
+    }
+
+    @Benchmark
+    public Message parseWithPlaceholders() {
+        return TaleMessage.parse(template, placeholders);
+    }
+
+    @Benchmark
+    public Message buildCompiledTemplate() {
+        return compiled.build(placeholders);
+    }
+
+    @Benchmark
+    public List<Message> broadcastPerRecipient() {
+        List<Message> messages = new ArrayList<>(audience.size());
+        for (Placeholder[] values : audience) {
+            messages.add(TaleMessage.parse(template, values));
+        }
+        return messages;
+    }
+
+    @Benchmark
+    public List<Message> broadcastForEach() {
+        return compiled.buildForEach(audience);
+    }
+
+    @Benchmark
+    public Message hudFormattedStrings() {
+        return hud.build(
+                new Placeholder("{coins}", String.format("%,d", coins)),
+                new Placeholder("{health}", String.format("%.1f", health)),
+                new Placeholder("{time}", String.format("%d:%02d", remainingSeconds / 60, remainingSeconds % 60)));
+    }
+
+    @Benchmark
+    public Message hudTypedPlaceholders() {
+        return hud.build(
+                Placeholder.grouped("{coins}", coins),
+                Placeholder.decimal("{health}", health, 1),
+                Placeholder.clock("{time}", Duration.ofSeconds(remainingSeconds)));
+    }
+
+}
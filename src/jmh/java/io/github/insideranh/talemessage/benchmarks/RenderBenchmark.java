@@ -0,0 +1,57 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import io.github.insideranh.talemessage.CompiledMessage;
+import io.github.insideranh.talemessage.TaleMessage;
+import io.github.insideranh.talemessage.render.Renderers;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Rendering a compiled template to non-Message outputs, reusing the output buffer between calls.
+ */
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    @Param({"chat", "motd", "nested", "gradient", "legacy", "plain"})
+    public String corpus;
+
+    private CompiledMessage compiled;
+    private final StringBuilder out = new StringBuilder(4096);
+    private final ByteBuffer bytes = ByteBuffer.allocate(1 << 16);
+
+    @Setup
+    public void setup() {
+        compiled = TaleMessage.compile(Corpus.get(corpus));
+    }
+
+    @Benchmark
+    public int renderPlain() throws IOException {
+        out.setLength(0);
+        Renderers.render(compiled, Renderers.PLAIN, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public int renderAnsi() throws IOException {
+        out.setLength(0);
+        Renderers.render(compiled, Renderers.ANSI_TRUECOLOR, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public int renderJson() throws IOException {
+        out.setLength(0);
+        Renderers.render(compiled, Renderers.JSON, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public int renderJsonUtf8() {
+        bytes.clear();
+        Renderers.render(compiled, Renderers.JSON, bytes);
+        return bytes.position();
+    }
+
+}
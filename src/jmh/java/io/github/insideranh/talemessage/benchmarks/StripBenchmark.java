@@ -0,0 +1,27 @@
+package io.github.insideranh.talemessage.benchmarks;
+
+import io.github.insideranh.talemessage.TaleMessage;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * {@link TaleMessage#strip(String)}, including plain text and junk full of unclosed tags.
+ */
+@State(Scope.Benchmark)
+public class StripBenchmark {
+
+    @Param({"chat", "motd", "legacy", "plain", "junk"})
+    public String corpus;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        input = corpus.equals("junk") ? "<".repeat(2000) + " hello" : Corpus.get(corpus);
+    }
+
+    @Benchmark
+    public String strip() {
+        return TaleMessage.strip(input);
+    }
+
+}
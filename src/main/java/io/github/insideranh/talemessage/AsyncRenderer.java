@@ -0,0 +1,306 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Builds Messages off the calling thread, e.g. to keep book pages, long gradients or
+ * leaderboards out of the world tick.
+ *
+ * <p>Work runs on the render executor, virtual threads unless configured otherwise. At most
+ * {@code maxPending} renders are queued or running at a time; what happens to a render
+ * submitted beyond that is decided by the {@link OverflowPolicy}. Each future is completed on
+ * the delivery executor, typically the world the result is sent from, so callbacks attached
+ * with {@code thenAccept} can touch game state.</p>
+ *
+ * <pre>{@code
+ * AsyncRenderer renderer = AsyncRenderer.builder()
+ *         .maxPending(256)
+ *         .overflow(AsyncRenderer.OverflowPolicy.FALLBACK)
+ *         .build();
+ *
+ * renderer.render(leaderboardTemplate, world, new Placeholder("{top}", top))
+ *         .thenAccept(player::sendMessage);
+ * }</pre>
+ */
+public final class AsyncRenderer implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_PENDING = 1024;
+
+    /**
+     * What to do with a render submitted while {@code maxPending} renders are already queued or running.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Render on the calling thread. Nothing is lost, and callers that submit too much are
+         * slowed down to the pace of the render threads. This is the default.
+         */
+        CALLER_RUNS,
+        /**
+         * Complete at once with the text without its markup, eager placeholders filled in as
+         * plain text. Lazy placeholders keep their key, so no resolver runs on the calling
+         * thread. Costs about as much as {@link TaleMessage#strip(String)}. Renders of a {@link Supplier} have no
+         * text to fall back to and are rejected.
+         */
+        FALLBACK,
+        /**
+         * Complete at once, exceptionally, with a {@link RejectedExecutionException}.
+         */
+        REJECT
+    }
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Executor delivery;
+    private final OverflowPolicy overflow;
+    private final int maxPending;
+    private final Semaphore permits;
+    private final LongAdder overflows = new LongAdder();
+
+    private AsyncRenderer(Builder builder) {
+        if (builder.executor == null) {
+            this.ownedExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("TaleMessage render-", 0).factory());
+            this.executor = ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.executor = builder.executor;
+        }
+        this.delivery = builder.delivery;
+        this.overflow = builder.overflow;
+        this.maxPending = builder.maxPending;
+        this.permits = new Semaphore(builder.maxPending);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parse {@code input} like {@link TaleMessage#parse(String, Placeholder...)}, delivering on
+     * the default delivery executor.
+     */
+    public CompletableFuture<Message> render(String input, Placeholder... placeholders) {
+        return render(input, delivery, placeholders);
+    }
+
+    /**
+     * Parse {@code input} like {@link TaleMessage#parse(String, Placeholder...)}.
+     *
+     * @param delivery where the future is completed, or {@code null} for the render thread
+     */
+    public CompletableFuture<Message> render(String input, Executor delivery, Placeholder... placeholders) {
+        return submit(() -> TaleMessage.parse(input, placeholders),
+                () -> fallback(input, placeholders), delivery);
+    }
+
+    /**
+     * Build {@code template} like {@link CompiledMessage#build(Placeholder...)}, delivering on
+     * the default delivery executor.
+     */
+    public CompletableFuture<Message> render(CompiledMessage template, Placeholder... placeholders) {
+        return render(template, delivery, placeholders);
+    }
+
+    /**
+     * Build {@code template} like {@link CompiledMessage#build(Placeholder...)}.
+     *
+     * @param delivery where the future is completed, or {@code null} for the render thread
+     */
+    public CompletableFuture<Message> render(CompiledMessage template, Executor delivery, Placeholder... placeholders) {
+        Objects.requireNonNull(template, "template");
+        return submit(() -> template.build(placeholders),
+                () -> fallback(template.getSource(), placeholders), delivery);
+    }
+
+    /**
+     * Run {@code work}, e.g. building a leaderboard from several templates, delivering on the
+     * default delivery executor.
+     */
+    public CompletableFuture<Message> render(Supplier<Message> work) {
+        return render(work, delivery);
+    }
+
+    /**
+     * Run {@code work}, e.g. building a leaderboard from several templates. An exception
+     * thrown by {@code work} completes the future exceptionally.
+     *
+     * @param delivery where the future is completed, or {@code null} for the render thread
+     */
+    public CompletableFuture<Message> render(Supplier<Message> work, Executor delivery) {
+        Objects.requireNonNull(work, "work");
+        return submit(work, null, delivery);
+    }
+
+    private CompletableFuture<Message> submit(Supplier<Message> work, Supplier<Message> fallback, Executor delivery) {
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        if (!permits.tryAcquire()) {
+            overflow(work, fallback, delivery, future);
+            return future;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    run(work, delivery, future);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor shut down or saturated on its own terms
+            permits.release();
+            overflow(work, fallback, delivery, future);
+        }
+        return future;
+    }
+
+    private void overflow(Supplier<Message> work, Supplier<Message> fallback, Executor delivery, CompletableFuture<Message> future) {
+        overflows.increment();
+        switch (overflow) {
+            case CALLER_RUNS -> run(work, delivery, future);
+            case FALLBACK -> {
+                if (fallback != null) {
+                    run(fallback, delivery, future);
+                } else {
+                    reject(delivery, future);
+                }
+            }
+            case REJECT -> reject(delivery, future);
+        }
+    }
+
+    private void reject(Executor delivery, CompletableFuture<Message> future) {
+        complete(delivery, future, null,
+                new RejectedExecutionException("More than " + maxPending + " renders pending"));
+    }
+
+    private static void run(Supplier<Message> work, Executor delivery, CompletableFuture<Message> future) {
+        Message message;
+        try {
+            message = work.get();
+        } catch (Throwable t) {
+            complete(delivery, future, null, t);
+            return;
+        }
+        complete(delivery, future, message, null);
+    }
+
+    private static void complete(Executor delivery, CompletableFuture<Message> future, Message message, Throwable failure) {
+        Runnable completion = failure == null
+                ? () -> future.complete(message)
+                : () -> future.completeExceptionally(failure);
+        if (delivery == null) {
+            completion.run();
+            return;
+        }
+
+        try {
+            delivery.execute(completion);
+        } catch (RejectedExecutionException e) {
+            // The delivery executor is gone, e.g. the world was unloaded
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static Message fallback(String input, Placeholder[] placeholders) {
+        if (input == null || input.isEmpty()) {
+            return Message.empty();
+        }
+        // Strip the template, not the values: markup inside a value is shown as typed
+        return TaleMessage.fallback(TaleMessage.strip(input), placeholders);
+    }
+
+    /**
+     * @return the renders queued or running right now
+     */
+    public int getPending() {
+        return maxPending - permits.availablePermits();
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflow;
+    }
+
+    /**
+     * @return how many renders were submitted while {@code maxPending} were already pending
+     */
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    /**
+     * Shut down the render executor if this renderer created it. Renders already submitted
+     * still complete; later ones are handled by the overflow policy.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    public static final class Builder {
+
+        private Executor executor;
+        private Executor delivery;
+        private OverflowPolicy overflow = OverflowPolicy.CALLER_RUNS;
+        private int maxPending = DEFAULT_MAX_PENDING;
+
+        private Builder() {
+        }
+
+        /**
+         * @param executor where renders run; {@code null} (the default) starts a virtual thread
+         *                 per render, owned and shut down by {@link AsyncRenderer#close()}
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param delivery where futures are completed unless a render names its own executor;
+         *                 {@code null} (the default) completes them on the render thread
+         */
+        public Builder delivery(Executor delivery) {
+            this.delivery = delivery;
+            return this;
+        }
+
+        public Builder overflow(OverflowPolicy overflow) {
+            this.overflow = Objects.requireNonNull(overflow, "overflow");
+            return this;
+        }
+
+        /**
+         * @param maxPending how many renders may be queued or running at a time
+         */
+        public Builder maxPending(int maxPending) {
+            if (maxPending < 1) {
+                throw new IllegalArgumentException("maxPending must be at least 1: " + maxPending);
+            }
+            this.maxPending = maxPending;
+            return this;
+        }
+
+        public AsyncRenderer build() {
+            return new AsyncRenderer(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.insideranh.talemessage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for building a Message from a token table.
+ */
+@Name("talemessage.Build")
+@Label("TaleMessage Build")
+@Category("TaleMessage")
+@Description("Message built from a parsed template")
+@Threshold("1 ms")
+final class BuildEvent extends jdk.jfr.Event {
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Placeholder Count")
+    int placeholderCount;
+
+    @Label("Build Mode")
+    String mode;
+
+}
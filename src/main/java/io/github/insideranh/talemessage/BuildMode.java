@@ -0,0 +1,23 @@
+package io.github.insideranh.talemessage;
+
+/**
+ * Shape of the Message produced by {@link MessageBuilder}.
+ *
+ * <p>Both modes render the same text with the same formatting; they only differ in
+ * how many Message nodes are created and sent.</p>
+ */
+public enum BuildMode {
+
+    /**
+     * One Message per tag, nested like the markup. This is the default.
+     */
+    TREE,
+
+    /**
+     * A single level of maximal style runs: adjacent text with identical formatting is
+     * merged, so {@code <red><bold>a</bold>b</red>} becomes two runs and
+     * {@code <red>a</red><red>b</red>} a single Message.
+     */
+    FLAT
+
+}
@@ -3,57 +3,104 @@ package io.github.insideranh.talemessage;
 import java.awt.Color;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Named colors and hex/RGB color parsing.
+ *
+ * <p>Colors are handled as packed {@code 0xAARRGGBB} ints. {@link Color} objects are only
+ * created by {@link #toColor(int)}, at the point where a Message needs one, and are reused
+ * for colors seen recently. The {@code Color}-returning methods are kept for compatibility.</p>
+ */
 public class ColorRegistry {
 
-    private static final Map<String, Color> COLORS = new HashMap<>();
+    /**
+     * Packed value meaning "no color". A parsed fully transparent black ({@code 0x00000000})
+     * is stored as {@code 0x00000001} instead, which looks the same since alpha is zero.
+     */
+    public static final int NO_COLOR = 0;
+
+    private static final int LITERAL_CACHE_SIZE = 1024;
+    private static final int COLOR_CACHE_SIZE = 256;
+
+    private static final Map<String, Integer> COLORS = new HashMap<>();
+    private static final Map<String, Integer> LITERALS = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<Color> COLOR_CACHE = new AtomicReferenceArray<>(COLOR_CACHE_SIZE);
 
     static {
-        COLORS.put("black", new Color(0, 0, 0));
-        COLORS.put("dark_blue", new Color(0, 0, 170));
-        COLORS.put("dark_green", new Color(0, 170, 0));
-        COLORS.put("dark_aqua", new Color(0, 170, 170));
-        COLORS.put("dark_red", new Color(170, 0, 0));
-        COLORS.put("dark_purple", new Color(170, 0, 170));
-        COLORS.put("gold", new Color(255, 170, 0));
-        COLORS.put("gray", new Color(170, 170, 170));
-        COLORS.put("dark_gray", new Color(85, 85, 85));
-        COLORS.put("blue", new Color(85, 85, 255));
-        COLORS.put("green", new Color(85, 255, 85));
-        COLORS.put("aqua", new Color(85, 255, 255));
-        COLORS.put("red", new Color(255, 85, 85));
-        COLORS.put("light_purple", new Color(255, 85, 255));
-        COLORS.put("yellow", new Color(255, 255, 85));
-        COLORS.put("white", new Color(255, 255, 255));
-
-        COLORS.put("orange", new Color(255, 165, 0));
-        COLORS.put("pink", new Color(255, 192, 203));
-        COLORS.put("purple", new Color(128, 0, 128));
-        COLORS.put("cyan", new Color(0, 255, 255));
-        COLORS.put("magenta", new Color(255, 0, 255));
-        COLORS.put("lime", new Color(0, 255, 0));
-        COLORS.put("brown", new Color(139, 69, 19));
+        COLORS.put("black", rgb(0, 0, 0));
+        COLORS.put("dark_blue", rgb(0, 0, 170));
+        COLORS.put("dark_green", rgb(0, 170, 0));
+        COLORS.put("dark_aqua", rgb(0, 170, 170));
+        COLORS.put("dark_red", rgb(170, 0, 0));
+        COLORS.put("dark_purple", rgb(170, 0, 170));
+        COLORS.put("gold", rgb(255, 170, 0));
+        COLORS.put("gray", rgb(170, 170, 170));
+        COLORS.put("dark_gray", rgb(85, 85, 85));
+        COLORS.put("blue", rgb(85, 85, 255));
+        COLORS.put("green", rgb(85, 255, 85));
+        COLORS.put("aqua", rgb(85, 255, 255));
+        COLORS.put("red", rgb(255, 85, 85));
+        COLORS.put("light_purple", rgb(255, 85, 255));
+        COLORS.put("yellow", rgb(255, 255, 85));
+        COLORS.put("white", rgb(255, 255, 255));
+
+        COLORS.put("orange", rgb(255, 165, 0));
+        COLORS.put("pink", rgb(255, 192, 203));
+        COLORS.put("purple", rgb(128, 0, 128));
+        COLORS.put("cyan", rgb(0, 255, 255));
+        COLORS.put("magenta", rgb(255, 0, 255));
+        COLORS.put("lime", rgb(0, 255, 0));
+        COLORS.put("brown", rgb(139, 69, 19));
+    }
+
+    static Set<String> namedColors() {
+        return COLORS.keySet();
     }
 
     public static Color getColor(String colorString) {
+        int argb = getColorArgb(colorString);
+        return argb == NO_COLOR ? null : toColor(argb);
+    }
+
+    /**
+     * Resolve a named, hex or RGB color.
+     *
+     * @param colorString the color as written in a tag
+     * @return the packed {@code 0xAARRGGBB} color, or {@link #NO_COLOR} if invalid
+     */
+    public static int getColorArgb(String colorString) {
         if (colorString == null || colorString.isEmpty()) {
-            return null;
+            return NO_COLOR;
         }
 
-        String normalized = colorString.toLowerCase().trim();
+        Integer named = COLORS.get(colorString);
+        if (named != null) {
+            return named;
+        }
 
-        if (COLORS.containsKey(normalized)) {
-            return COLORS.get(normalized);
+        Integer literal = LITERALS.get(colorString);
+        if (literal != null) {
+            return literal;
         }
 
-        if (normalized.contains(",")) {
-            Color rgb = parseRGB(normalized);
-            if (rgb != null) {
-                return rgb;
-            }
+        String normalized = colorString.toLowerCase().trim();
+        named = COLORS.get(normalized);
+        if (named != null) {
+            return named;
         }
 
-        return parseHex(normalized);
+        int argb = parseLiteralArgb(normalized, 0, normalized.length());
+        if (argb != NO_COLOR) {
+            // Literals are rarely more than a few dozen distinct values; start over if they are not
+            if (LITERALS.size() >= LITERAL_CACHE_SIZE) {
+                LITERALS.clear();
+            }
+            LITERALS.put(colorString, argb);
+        }
+        return argb;
     }
 
     /**
@@ -72,79 +119,242 @@ public class ColorRegistry {
      * @return the Color object, or null if invalid
      */
     public static Color parseRGB(String rgb) {
+        int argb = parseRGBArgb(rgb);
+        return argb == NO_COLOR ? null : toColor(argb);
+    }
+
+    /**
+     * Same as {@link #parseRGB(String)}, returning a packed {@code 0xAARRGGBB} color.
+     *
+     * @return the packed color, or {@link #NO_COLOR} if invalid
+     */
+    public static int parseRGBArgb(String rgb) {
         if (rgb == null || rgb.isEmpty()) {
-            return null;
+            return NO_COLOR;
         }
 
-        try {
-            String[] parts = rgb.split(",");
+        return parseRGBArgb(rgb, 0, rgb.length());
+    }
 
-            if (parts.length != 3 && parts.length != 4) {
-                return null;
-            }
+    /**
+     * Same as {@link #parseRGBArgb(String)} on {@code rgb[start, end)}.
+     */
+    static int parseRGBArgb(CharSequence rgb, int start, int end) {
+        // Trailing commas are ignored, as String.split used to drop the empty parts after them
+        while (end > start && rgb.charAt(end - 1) == ',') {
+            end--;
+        }
 
-            int r = Integer.parseInt(parts[0].trim());
-            int g = Integer.parseInt(parts[1].trim());
-            int b = Integer.parseInt(parts[2].trim());
+        int r = 0, g = 0, b = 0, a = 255;
+        int count = 0;
+        int componentStart = start;
 
-            if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
-                return null;
+        for (int i = start; i <= end; i++) {
+            if (i < end && rgb.charAt(i) != ',') {
+                continue;
             }
 
-            if (parts.length == 4) {
-                int a = Integer.parseInt(parts[3].trim());
-                if (a < 0 || a > 255) {
-                    return null;
+            int value = parseComponent(rgb, componentStart, i);
+            if (value < 0) {
+                return NO_COLOR;
+            }
+            switch (count++) {
+                case 0 -> r = value;
+                case 1 -> g = value;
+                case 2 -> b = value;
+                case 3 -> a = value;
+                default -> {
+                    return NO_COLOR;
                 }
-                return new Color(r, g, b, a);
             }
+            componentStart = i + 1;
+        }
 
-            return new Color(r, g, b);
-        } catch (NumberFormatException e) {
-            return null;
+        if (count != 3 && count != 4) {
+            return NO_COLOR;
         }
+
+        return pack(a, r, g, b);
     }
 
     public static Color parseHex(String hex) {
+        int argb = parseHexArgb(hex);
+        return argb == NO_COLOR ? null : toColor(argb);
+    }
+
+    /**
+     * Parse a hex color in format "#RRGGBB", "RRGGBB", "#RRGGBBAA" or "RRGGBBAA".
+     *
+     * @return the packed {@code 0xAARRGGBB} color, or {@link #NO_COLOR} if invalid
+     */
+    public static int parseHexArgb(String hex) {
         if (hex == null || hex.isEmpty()) {
-            return null;
+            return NO_COLOR;
         }
 
-        if (hex.startsWith("#")) {
-            hex = hex.substring(1);
-        }
+        return parseHexArgb(hex, 0, hex.length());
+    }
 
-        if (hex.length() != 6 && hex.length() != 8) {
-            return null;
+    /**
+     * Same as {@link #parseHexArgb(String)} on {@code hex[start, end)}.
+     */
+    static int parseHexArgb(CharSequence hex, int start, int end) {
+        if (start < end && hex.charAt(start) == '#') {
+            start++;
+        }
+        int length = end - start;
+        if (length != 6 && length != 8) {
+            return NO_COLOR;
         }
 
-        try {
-            int rgb = Integer.parseInt(hex.substring(0, 6), 16);
-            int r = (rgb >> 16) & 0xFF;
-            int g = (rgb >> 8) & 0xFF;
-            int b = rgb & 0xFF;
+        int rgb = 0;
+        for (int i = 0; i < 6; i++) {
+            int digit = Character.digit(hex.charAt(start + i), 16);
+            if (digit < 0) {
+                return NO_COLOR;
+            }
+            rgb = (rgb << 4) | digit;
+        }
 
-            if (hex.length() == 8) {
-                int a = Integer.parseInt(hex.substring(6, 8), 16);
-                return new Color(r, g, b, a);
+        int a = 255;
+        if (length == 8) {
+            int high = Character.digit(hex.charAt(start + 6), 16);
+            int low = Character.digit(hex.charAt(start + 7), 16);
+            if (high < 0 || low < 0) {
+                return NO_COLOR;
             }
+            a = (high << 4) | low;
+        }
 
-            return new Color(r, g, b);
-        } catch (NumberFormatException e) {
-            return null;
+        return pack(a, (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
+
+    /**
+     * Parse a hex or RGB color written in {@code input[start, end)}, ignoring surrounding
+     * whitespace. This is what {@link #getColorArgb(String)} does for strings that are
+     * not color names, without creating a substring.
+     *
+     * @return the packed color, or {@link #NO_COLOR} if invalid
+     */
+    static int parseLiteralArgb(CharSequence input, int start, int end) {
+        while (start < end && input.charAt(start) <= ' ') start++;
+        while (end > start && input.charAt(end - 1) <= ' ') end--;
+        if (start == end) {
+            return NO_COLOR;
         }
+
+        int argb = NO_COLOR;
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == ',') {
+                argb = parseRGBArgb(input, start, end);
+                break;
+            }
+        }
+        if (argb == NO_COLOR) {
+            argb = parseHexArgb(input, start, end);
+        }
+        return argb;
     }
 
     public static Color interpolate(Color color1, Color color2, float factor) {
         if (factor <= 0) return color1;
         if (factor >= 1) return color2;
 
-        int r = (int) (color1.getRed() + factor * (color2.getRed() - color1.getRed()));
-        int g = (int) (color1.getGreen() + factor * (color2.getGreen() - color1.getGreen()));
-        int b = (int) (color1.getBlue() + factor * (color2.getBlue() - color1.getBlue()));
-        int a = (int) (color1.getAlpha() + factor * (color2.getAlpha() - color1.getAlpha()));
+        return toColor(interpolate(color1.getRGB(), color2.getRGB(), factor));
+    }
 
-        return new Color(r, g, b, a);
+    /**
+     * Interpolate between two packed {@code 0xAARRGGBB} colors.
+     */
+    public static int interpolate(int color1, int color2, float factor) {
+        if (factor <= 0) return color1;
+        if (factor >= 1) return color2;
+
+        int r = (int) (red(color1) + factor * (red(color2) - red(color1)));
+        int g = (int) (green(color1) + factor * (green(color2) - green(color1)));
+        int b = (int) (blue(color1) + factor * (blue(color2) - blue(color1)));
+        int a = (int) (alpha(color1) + factor * (alpha(color2) - alpha(color1)));
+
+        return pack(a, r, g, b);
+    }
+
+    /**
+     * Convert a packed {@code 0xAARRGGBB} color into a {@link Color}, reusing a recently
+     * created instance for the same value when possible.
+     *
+     * @return the Color, or null for {@link #NO_COLOR}
+     */
+    public static Color toColor(int argb) {
+        if (argb == NO_COLOR) {
+            return null;
+        }
+
+        int index = (argb ^ (argb >>> 12) ^ (argb >>> 24)) & (COLOR_CACHE_SIZE - 1);
+        Color color = COLOR_CACHE.get(index);
+        if (color != null && color.getRGB() == argb) {
+            return color;
+        }
+
+        color = new Color(argb, true);
+        COLOR_CACHE.set(index, color);
+        return color;
+    }
+
+    public static int alpha(int argb) {
+        return (argb >>> 24) & 0xFF;
+    }
+
+    public static int red(int argb) {
+        return (argb >> 16) & 0xFF;
+    }
+
+    public static int green(int argb) {
+        return (argb >> 8) & 0xFF;
+    }
+
+    public static int blue(int argb) {
+        return argb & 0xFF;
+    }
+
+    private static int rgb(int r, int g, int b) {
+        return pack(255, r, g, b);
+    }
+
+    private static int pack(int a, int r, int g, int b) {
+        int argb = (a << 24) | (r << 16) | (g << 8) | b;
+        return argb == NO_COLOR ? 1 : argb;
+    }
+
+    /**
+     * Parse one RGB component the way {@code Integer.parseInt(part.trim())} did: a sign and any
+     * Unicode digits are accepted, {@code -0} included.
+     *
+     * @return the value, or -1 if it is not a number from 0 to 255
+     */
+    private static int parseComponent(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        boolean negative = false;
+        if (start < end && (s.charAt(start) == '+' || s.charAt(start) == '-')) {
+            negative = s.charAt(start) == '-';
+            start++;
+        }
+        if (start == end) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 10 + digit;
+            if (value > 255) {
+                return -1;
+            }
+        }
+        return negative && value != 0 ? -1 : value;
     }
 
-}
\ No newline at end of file
+}
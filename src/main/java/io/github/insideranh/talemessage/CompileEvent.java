@@ -0,0 +1,32 @@
+package io.github.insideranh.talemessage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for looking up the compiled template of a
+ * {@link TaleMessage#parse(String)} call in the parse cache, or compiling it. Cache hits are
+ * far below the threshold; use {@code jfr configure talemessage.Compile#threshold=0ms} to
+ * record every lookup and see the hit ratio.
+ */
+@Name("talemessage.Compile")
+@Label("TaleMessage Compile")
+@Category("TaleMessage")
+@Description("Compiled template looked up in the parse cache, or compiled")
+@Threshold("1 ms")
+final class CompileEvent extends jdk.jfr.Event {
+
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Cache Hit")
+    @Description("False on a miss, and whenever the parse cache is disabled")
+    boolean cacheHit;
+
+    @Label("Plain Text")
+    boolean plainText;
+
+}
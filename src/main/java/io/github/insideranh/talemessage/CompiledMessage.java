@@ -0,0 +1,230 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import io.github.insideranh.talemessage.utils.LanguageUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A MiniMessage string that has already been lexed and turned into a {@link TokenTable}.
+ *
+ * <p>Instances are immutable and safe to share between threads. Every call to
+ * {@link #build()} returns a fresh {@link Message}, so callers are free to modify
+ * the result.</p>
+ *
+ * <p>Placeholders written as {@code {player}}, {@code {{player}}} or {@code %player%} in the
+ * text become slots of the tree, so the template is parsed once no matter how many values
+ * pass through it, and values are always inserted as plain text.</p>
+ *
+ * <pre>{@code
+ * CompiledMessage motd = TaleMessage.compile("<gradient:gold:yellow>Welcome!</gradient>");
+ * player.sendMessage(motd.build());
+ *
+ * CompiledMessage join = TaleMessage.compile("<yellow>{player} joined the game</yellow>");
+ * player.sendMessage(join.build(new Placeholder("{player}", name)));
+ * }</pre>
+ */
+public final class CompiledMessage {
+
+    // All fields a build reads are final, so an instance published through a data race
+    // (e.g. a lazily filled array) is still seen fully constructed
+    private final String source;
+    private final boolean plainText;
+    // Null for plain text
+    private final TokenTable tokens;
+    // Plain text is only parsed if someone asks for the tokens
+    private volatile TokenTable plainTokens;
+
+    CompiledMessage(String source, TokenTable tokens) {
+        this(source, tokens, false);
+    }
+
+    CompiledMessage(String source, TokenTable tokens, boolean plainText) {
+        this.source = source;
+        this.tokens = tokens;
+        this.plainText = plainText;
+    }
+
+    static CompiledMessage compile(String input) {
+        String source = input == null ? "" : input;
+        if (MiniMessageParser.isPlainText(source)) {
+            return new CompiledMessage(source, null, true);
+        }
+        return new CompiledMessage(source, MiniMessageParser.parseTable(source), false);
+    }
+
+    /**
+     * Build a new Hytale Message from this template.
+     *
+     * @return a Message object with all formatting applied
+     */
+    public Message build() {
+        if (source.isEmpty()) {
+            return Message.empty();
+        }
+        if (plainText) {
+            return Message.raw(source);
+        }
+
+        return MessageBuilder.build(tokens);
+    }
+
+    /**
+     * Build a new Hytale Message from this template, filling its placeholder slots.
+     *
+     * <p>If a placeholder key occurs in the source other than as a slot (e.g. {@code {player}}
+     * inside {@code {{player}}}, or a key not written in slot form), or the template uses a
+     * slot inside a tag (e.g. {@code <click:{url}>}), the values are substituted into the
+     * source and the result is parsed, exactly like {@link LanguageUtils#replacePlaceholders}.</p>
+     *
+     * @param placeholders the placeholder values
+     * @return a Message object with all formatting applied
+     */
+    public Message build(Placeholder... placeholders) {
+        if (placeholders == null || placeholders.length == 0) {
+            return build();
+        }
+        if (source.isEmpty()) {
+            return Message.empty();
+        }
+
+        if (!slotFillable(placeholders)) {
+            return MessageBuilder.build(MiniMessageParser.parseTable(LanguageUtils.replacePlaceholders(source, placeholders)));
+        }
+        if (plainText) {
+            // No slots to fill
+            return Message.raw(source);
+        }
+
+        return MessageBuilder.build(tokens, placeholders);
+    }
+
+    /**
+     * Pass the text of this template to {@code consumer} as runs of identically styled text,
+     * without creating a Message. Placeholders are filled like {@link #build(Placeholder...)}.
+     *
+     * @param consumer     receives the runs in document order
+     * @param placeholders the placeholder values
+     */
+    public void forEachRun(RunConsumer consumer, Placeholder... placeholders) {
+        if (source.isEmpty()) {
+            return;
+        }
+
+        boolean hasValues = placeholders != null && placeholders.length > 0;
+        if (hasValues && !slotFillable(placeholders)) {
+            MessageBuilder.forEachRun(MiniMessageParser.parseTable(LanguageUtils.replacePlaceholders(source, placeholders)), consumer);
+            return;
+        }
+        if (plainText) {
+            consumer.accept(source, ColorRegistry.NO_COLOR, 0, null);
+            return;
+        }
+
+        MessageBuilder.forEachRun(tokens, consumer, placeholders);
+    }
+
+    /**
+     * Build one Message per placeholder set, e.g. one per recipient of a broadcast.
+     *
+     * <p>The template is not re-parsed, and the parts of it without placeholder slots are
+     * built once and shared by all results, see {@link MessageBuilder#buildForEach}. The results
+     * are meant to be sent as they are; use {@link #build(Placeholder...)} for a Message you
+     * intend to modify.</p>
+     *
+     * <pre>{@code
+     * CompiledMessage welcome = TaleMessage.compile("<gold>Welcome back, {player}! You have {coins} coins");
+     * List<Message> messages = welcome.buildForEach(players.stream()
+     *         .map(p -> new Placeholder[]{new Placeholder("{player}", p.getName()), new Placeholder("{coins}", coins(p))})
+     *         .toList());
+     * }</pre>
+     *
+     * @param placeholderSets one placeholder array per result
+     * @return the Messages, in the order of {@code placeholderSets}
+     */
+    public List<Message> buildForEach(List<Placeholder[]> placeholderSets) {
+        if (source.isEmpty() || plainText || !slotFillable(placeholderSets)) {
+            List<Message> results = new ArrayList<>(placeholderSets.size());
+            for (Placeholder[] placeholders : placeholderSets) {
+                results.add(build(placeholders));
+            }
+            return results;
+        }
+
+        return MessageBuilder.buildForEach(tokens, placeholderSets);
+    }
+
+    private boolean slotFillable(List<Placeholder[]> placeholderSets) {
+        for (Placeholder[] placeholders : placeholderSets) {
+            if (placeholders != null && !slotFillable(placeholders)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the values can be filled into the slots of the token table: every key
+     * that occurs in the source is one of its {@link TokenTable#slotKeys() slot keys}, and no
+     * slot is inside a tag. Keys that do not occur at all are ignored, as substitution would.
+     */
+    private boolean slotFillable(Placeholder[] placeholders) {
+        if (!plainText && tokens.hasTagSlots()) {
+            return false;
+        }
+
+        Set<String> slots = plainText ? Set.of() : tokens.slotKeys();
+        for (Placeholder placeholder : placeholders) {
+            if (placeholder == null) {
+                continue;
+            }
+            String key = placeholder.getPlaceholder();
+            if (key != null && !key.isEmpty() && !slots.contains(key) && source.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the compact token table of this template
+     */
+    public TokenTable getTokens() {
+        if (tokens != null) {
+            return tokens;
+        }
+
+        TokenTable result = plainTokens;
+        if (result == null) {
+            result = MiniMessageParser.parseTable(source);
+            plainTokens = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the source has no markup and no placeholder slots, so it is built
+     * as a single raw Message without going through the token table
+     */
+    public boolean isPlainText() {
+        return plainText;
+    }
+
+    /**
+     * @return the original MiniMessage string this template was compiled from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledMessage{" +
+                "source='" + source + '\'' +
+                '}';
+    }
+
+}
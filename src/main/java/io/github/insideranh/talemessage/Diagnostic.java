@@ -0,0 +1,126 @@
+package io.github.insideranh.talemessage;
+
+import java.io.Serializable;
+
+/**
+ * A problem found in MiniMessage input, see {@link MiniMessageParser#validate(String)}.
+ *
+ * <p>The parser never fails: markup it cannot use is kept as text or ignored. Diagnostics
+ * say where that happened, so typos such as {@code <bolt>} can be caught before players see them.</p>
+ */
+public final class Diagnostic implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Severity {
+        /**
+         * Probably intended, but possibly a mistake, e.g. a lone {@code <} in {@code "1 < 2"}.
+         */
+        WARNING,
+        /**
+         * Markup that does not do what it says, e.g. an unknown tag or an invalid color.
+         */
+        ERROR
+    }
+
+    public enum Code {
+        /**
+         * A tag-like name that is not a known tag or color, kept as text.
+         */
+        UNKNOWN_TAG(Severity.ERROR),
+        /**
+         * Text in angle brackets that does not look like a tag, kept as text.
+         */
+        NOT_A_TAG(Severity.WARNING),
+        /**
+         * {@code <} with no {@code >} after it, kept as text.
+         */
+        UNCLOSED_BRACKET(Severity.WARNING),
+        /**
+         * {@code <>}, which is ignored.
+         */
+        EMPTY_TAG(Severity.WARNING),
+        /**
+         * A closing tag with no open tag to close.
+         */
+        UNMATCHED_CLOSE(Severity.WARNING),
+        /**
+         * A closing tag whose name is not the innermost open tag; it closes that tag anyway.
+         */
+        MISMATCHED_CLOSE(Severity.WARNING),
+        /**
+         * A gradient color that cannot be resolved and is skipped.
+         */
+        INVALID_COLOR(Severity.ERROR),
+        /**
+         * A gradient with fewer than two valid colors, shown without gradient.
+         */
+        INVALID_GRADIENT(Severity.ERROR),
+        /**
+         * A click tag without URL.
+         */
+        EMPTY_URL(Severity.ERROR),
+        /**
+         * {@code &k} or {@code &m}, which have no effect.
+         */
+        UNSUPPORTED_CODE(Severity.WARNING);
+
+        private final Severity severity;
+
+        Code(Severity severity) {
+            this.severity = severity;
+        }
+
+        public Severity getSeverity() {
+            return severity;
+        }
+    }
+
+    private final Code code;
+    private final int start;
+    private final int end;
+    private final String message;
+
+    public Diagnostic(Code code, int start, int end, String message) {
+        this.code = code;
+        this.start = start;
+        this.end = end;
+        this.message = message;
+    }
+
+    public Code getCode() {
+        return code;
+    }
+
+    public Severity getSeverity() {
+        return code.getSeverity();
+    }
+
+    public boolean isError() {
+        return code.getSeverity() == Severity.ERROR;
+    }
+
+    /**
+     * @return the index in the input where the problem starts
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return the index in the input just after the problem
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return code.getSeverity() + " " + code + " at " + start + ".." + end + ": " + message;
+    }
+
+}
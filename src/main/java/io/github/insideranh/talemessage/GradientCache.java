@@ -0,0 +1,87 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.utils.LruCache;
+
+import java.util.Arrays;
+
+/**
+ * Caches the color of every position of a gradient, keyed by (stops, length),
+ * so a title sent over and over reuses the same colors instead of redoing the
+ * segment math for every character.
+ */
+final class GradientCache {
+
+    private static final int MAX_SIZE = 512;
+    private static final LruCache<Key, int[]> CACHE = new LruCache<>(MAX_SIZE);
+
+    private GradientCache() {
+    }
+
+    /**
+     * @param stops  the gradient stops, at least two
+     * @param length the number of colored positions
+     * @return one packed color per position; shared, must not be modified
+     */
+    static int[] colors(int[] stops, int length) {
+        return CACHE.get(new Key(stops, length), GradientCache::compute);
+    }
+
+    /**
+     * @return true if the colors for these stops and length are cached, without counting a hit or miss
+     */
+    static boolean contains(int[] stops, int length) {
+        return CACHE.getIfPresent(new Key(stops, length)) != null;
+    }
+
+    static long hits() {
+        return CACHE.getHits();
+    }
+
+    static long misses() {
+        return CACHE.getMisses();
+    }
+
+    private static int[] compute(Key key) {
+        int[] stops = key.stops;
+        int length = key.length;
+        int[] colors = new int[length];
+        float segmentSize = 1.0f / (stops.length - 1);
+
+        for (int i = 0; i < length; i++) {
+            float progress = length > 1 ? (float) i / (length - 1) : 0;
+            int segmentIndex = Math.min((int) (progress / segmentSize), stops.length - 2);
+            float segmentProgress = (progress - segmentIndex * segmentSize) / segmentSize;
+
+            colors[i] = ColorRegistry.interpolate(stops[segmentIndex], stops[segmentIndex + 1], segmentProgress);
+        }
+
+        return colors;
+    }
+
+    private static final class Key {
+
+        private final int[] stops;
+        private final int length;
+        private final int hash;
+
+        Key(int[] stops, int length) {
+            this.stops = stops;
+            this.length = length;
+            this.hash = 31 * Arrays.hashCode(stops) + length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return length == key.length && Arrays.equals(stops, key.stops);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.insideranh.talemessage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for coloring the text of one gradient tag.
+ */
+@Name("talemessage.Gradient")
+@Label("TaleMessage Gradient")
+@Category("TaleMessage")
+@Description("Text of a gradient tag split into colored runs")
+@Threshold("1 ms")
+final class GradientEvent extends jdk.jfr.Event {
+
+    @Label("Gradient Length")
+    @Description("Characters that take a gradient color, whitespace excluded")
+    int gradientLength;
+
+    @Label("Stop Count")
+    int stopCount;
+
+    @Label("Cache Hit")
+    @Description("The colors of this gradient and length were already cached")
+    boolean cacheHit;
+
+}
@@ -1,195 +1,577 @@
 package io.github.insideranh.talemessage;
 
 import com.hypixel.hytale.server.core.Message;
-import java.awt.Color;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MessageBuilder {
 
+    private static final Placeholder[] NO_PLACEHOLDERS = new Placeholder[0];
+
+    private static volatile BuildMode defaultMode = BuildMode.TREE;
+
+    /**
+     * Set the mode used by the {@code build} overloads that do not take one.
+     */
+    public static void setDefaultMode(BuildMode mode) {
+        defaultMode = mode == null ? BuildMode.TREE : mode;
+    }
+
+    public static BuildMode getDefaultMode() {
+        return defaultMode;
+    }
+
     public static Message build(TagToken token) {
+        return build(token, NO_PLACEHOLDERS);
+    }
+
+    /**
+     * Build a Message, filling {@link TagToken.Type#PLACEHOLDER} slots from the given placeholders.
+     *
+     * <p>Values are inserted as plain text with the formatting of the surrounding tags,
+     * so markup inside a value is never parsed. Slots without a matching placeholder
+     * are kept as written.</p>
+     */
+    public static Message build(TagToken token, Placeholder... placeholders) {
         if (token == null) {
             return Message.empty();
         }
 
-        return buildRecursive(token, new FormatState());
+        return build(TokenTable.of(token), placeholders);
     }
 
-    private static Message buildRecursive(TagToken token, FormatState state) {
-        Message message = Message.empty();
+    /**
+     * Build a Message from a compact token table, filling placeholder slots like
+     * {@link #build(TagToken, Placeholder...)}.
+     */
+    public static Message build(TokenTable tokens, Placeholder... placeholders) {
+        return build(tokens, defaultMode, placeholders);
+    }
+
+    /**
+     * Build a Message from a compact token table in the given mode.
+     */
+    public static Message build(TokenTable tokens, BuildMode mode, Placeholder... placeholders) {
+        if (tokens == null) {
+            return Message.empty();
+        }
+        placeholders = resolveLazy(tokens, placeholders);
+
+        BuildEvent event = new BuildEvent();
+        TaleMessageMetrics metrics = TaleMessageMetrics.active();
+        if (metrics == null && !event.isEnabled()) {
+            return buildTable(tokens, mode, placeholders);
+        }
+
+        event.begin();
+        long start = System.nanoTime();
+        Message message = buildTable(tokens, mode, placeholders);
+        recordBuild(metrics, event, start, tokens, mode, placeholders);
+        return message;
+    }
 
-        FormatState newState = state.copy();
-        applyTokenFormatting(token, newState);
+    private static void recordBuild(TaleMessageMetrics metrics, BuildEvent event, long start, TokenTable tokens, BuildMode mode, Placeholder[] placeholders) {
+        if (metrics != null) {
+            metrics.recordLatency(TaleMessageMetrics.Stage.BUILD, start);
+            metrics.recordNodes(tokens.size());
+        }
 
-        if (token.getType() == TagToken.Type.TEXT) {
-            if (token.getContent() != null && !token.getContent().isEmpty()) {
-                message = Message.raw(token.getContent());
-                applyFormatting(message, newState);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nodeCount = tokens.size();
+            event.placeholderCount = placeholders.length;
+            event.mode = mode.name();
+            event.commit();
+        }
+    }
+
+    private static Message buildTable(TokenTable tokens, BuildMode mode, Placeholder[] placeholders) {
+        if (mode == BuildMode.FLAT) {
+            MessageRuns messages = new MessageRuns();
+            RunMerger runs = new RunMerger(messages, true);
+            flatten(tokens, TokenTable.ROOT, Style.EMPTY, placeholders, runs);
+            runs.flush();
+            return messages.finish();
+        }
+
+        return buildRecursive(tokens, TokenTable.ROOT, Style.EMPTY, placeholders, null);
+    }
+
+    /**
+     * Walk a token table and pass its text to {@code consumer} as maximal runs of
+     * identically styled text, without creating any Message. This is the same text and
+     * styling {@link BuildMode#FLAT} produces, except that underline is reported as is.
+     */
+    public static void forEachRun(TokenTable tokens, RunConsumer consumer, Placeholder... placeholders) {
+        if (tokens == null) {
+            return;
+        }
+
+        RunMerger runs = new RunMerger(consumer, false);
+        flatten(tokens, TokenTable.ROOT, Style.EMPTY, resolveLazy(tokens, placeholders), runs);
+        runs.flush();
+    }
+
+    /**
+     * Build one Message per placeholder set from the same template.
+     *
+     * <p>Subtrees without placeholder slots are built once and the same instances are
+     * inserted into every result, so only the parts that contain slots cost anything per
+     * set. The results therefore share children: send them as they are, and use
+     * {@link #build(TokenTable, Placeholder...)} for a Message you intend to modify.
+     * In {@link BuildMode#FLAT} runs can span slots, so every set is built separately.</p>
+     *
+     * @param tokens          the template
+     * @param placeholderSets one placeholder array per result
+     * @return the Messages, in the order of {@code placeholderSets}
+     */
+    public static List<Message> buildForEach(TokenTable tokens, List<Placeholder[]> placeholderSets) {
+        List<Message> results = new ArrayList<>(placeholderSets.size());
+        BuildMode mode = defaultMode;
+        SharedParts shared = tokens == null || mode == BuildMode.FLAT ? null : new SharedParts(tokens);
+
+        for (Placeholder[] placeholders : placeholderSets) {
+            if (shared == null) {
+                results.add(build(tokens, mode, placeholders));
+                continue;
             }
 
-            for (TagToken child : token.getChildren()) {
-                message.insert(buildRecursive(child, newState));
+            Placeholder[] values = resolveLazy(tokens, placeholders);
+            BuildEvent event = new BuildEvent();
+            TaleMessageMetrics metrics = TaleMessageMetrics.active();
+            if (metrics == null && !event.isEnabled()) {
+                results.add(buildRecursive(tokens, TokenTable.ROOT, Style.EMPTY, values, shared));
+            } else {
+                event.begin();
+                long start = System.nanoTime();
+                results.add(buildRecursive(tokens, TokenTable.ROOT, Style.EMPTY, values, shared));
+                recordBuild(metrics, event, start, tokens, mode, values);
             }
-        } else if (token.getType() == TagToken.Type.GRADIENT) {
-            message = buildGradient(token, newState);
-        } else if (token.getType() == TagToken.Type.CLICK) {
-            message = buildClickable(token, newState);
-        } else {
-            for (TagToken child : token.getChildren()) {
-                message.insert(buildRecursive(child, newState));
+        }
+        return results;
+    }
+
+    private static Message buildRecursive(TokenTable tokens, int node, Style style, Placeholder[] placeholders, SharedParts shared) {
+        if (shared != null && !shared.hasSlots(node)) {
+            return shared.get(tokens, node, style);
+        }
+
+        Message message = Message.empty();
+
+        Style newStyle = applyTokenFormatting(tokens, node, style);
+
+        TagToken.Type type = tokens.type(node);
+        if (type == TagToken.Type.TEXT) {
+            if (tokens.contentLength(node) > 0) {
+                message = Message.raw(tokens.content(node));
+                applyFormatting(message, newStyle);
             }
+
+            insertChildren(message, tokens, node, newStyle, placeholders, shared);
+        } else if (type == TagToken.Type.PLACEHOLDER) {
+            message = Message.raw(resolve(tokens.content(node), placeholders));
+            applyFormatting(message, newStyle);
+        } else if (type == TagToken.Type.GRADIENT) {
+            message = buildGradient(tokens, node, newStyle, placeholders);
+        } else if (type == TagToken.Type.CLICK) {
+            message = buildClickable(tokens, node, newStyle, placeholders);
+        } else {
+            insertChildren(message, tokens, node, newStyle, placeholders, shared);
         }
 
         return message;
     }
 
-    private static void applyTokenFormatting(TagToken token, FormatState state) {
-        switch (token.getType()) {
-            case COLOR:
-                state.color = ColorRegistry.getColor(token.getContent());
-                break;
-            case BOLD:
-                state.bold = true;
-                break;
-            case ITALIC:
-                state.italic = true;
-                break;
-            case UNDERLINE:
-                state.underline = true;
-                break;
-            case MONOSPACE:
-                state.monospace = true;
-                break;
+    private static void insertChildren(Message message, TokenTable tokens, int node, Style style, Placeholder[] placeholders, SharedParts shared) {
+        int child = tokens.firstChild(node);
+
+        while (child != TokenTable.NONE) {
+            if (!isInlineText(tokens, child)) {
+                message.insert(buildRecursive(tokens, child, style, placeholders, shared));
+                child = tokens.nextSibling(child);
+                continue;
+            }
+
+            // Adjacent text and placeholder leaves share the same formatting: emit them as one run
+            String text;
+            int next = tokens.nextSibling(child);
+            if (next == TokenTable.NONE || !isInlineText(tokens, next)) {
+                text = inlineText(tokens, child, placeholders);
+                child = next;
+            } else {
+                StringBuilder run = new StringBuilder();
+                while (child != TokenTable.NONE && isInlineText(tokens, child)) {
+                    appendInlineText(run, tokens, child, placeholders);
+                    child = tokens.nextSibling(child);
+                }
+                text = run.toString();
+            }
+
+            if (!text.isEmpty()) {
+                Message raw = Message.raw(text);
+                applyFormatting(raw, style);
+                message.insert(raw);
+            }
         }
     }
 
-    private static void applyFormatting(Message message, FormatState state) {
-        if (state.color != null) {
-            message.color(state.color);
+    /**
+     * Walk the tree in document order, writing every piece of text with its effective style.
+     */
+    private static void flatten(TokenTable tokens, int node, Style style, Placeholder[] placeholders, RunConsumer runs) {
+        Style newStyle = applyTokenFormatting(tokens, node, style);
+
+        TagToken.Type type = tokens.type(node);
+        if (type == TagToken.Type.PLACEHOLDER) {
+            emit(runs, resolve(tokens.content(node), placeholders), newStyle, null);
+            return;
         }
-        if (state.bold) {
-            message.bold(true);
+        if (type == TagToken.Type.GRADIENT) {
+            String text = extractText(tokens, node, placeholders);
+            if (!text.isEmpty()) {
+                appendGradient(tokens, node, text, newStyle, runs);
+            }
+            return;
         }
-        if (state.italic) {
-            message.italic(true);
+        if (type == TagToken.Type.CLICK) {
+            String link = tokens.contentLength(node) > 0 ? tokens.content(node) : null;
+            emit(runs, extractText(tokens, node, placeholders), newStyle, link);
+            return;
         }
-        if (state.underline) {
-            message.monospace(true);
+
+        if (type == TagToken.Type.TEXT && tokens.contentLength(node) > 0) {
+            emit(runs, tokens.content(node), newStyle, null);
         }
-        if (state.monospace) {
-            message.monospace(true);
+        for (int child = tokens.firstChild(node); child != TokenTable.NONE; child = tokens.nextSibling(child)) {
+            flatten(tokens, child, newStyle, placeholders, runs);
         }
     }
 
-    private static Message buildGradient(TagToken token, FormatState state) {
-        String text = extractText(token);
-        if (text.isEmpty()) {
-            return Message.empty();
+    private static void emit(RunConsumer runs, String text, Style style, String link) {
+        if (!text.isEmpty()) {
+            runs.accept(text, style.getColor(), style.getFlags(), link);
         }
+    }
 
-        String[] colorArgs = token.getArgs();
-        if (colorArgs.length < 2) {
-            Message msg = Message.raw(text);
-            applyFormatting(msg, state);
-            return msg;
+    private static boolean isInlineText(TokenTable tokens, int node) {
+        TagToken.Type type = tokens.type(node);
+        return type == TagToken.Type.PLACEHOLDER
+                || (type == TagToken.Type.TEXT && tokens.firstChild(node) == TokenTable.NONE);
+    }
+
+    private static String inlineText(TokenTable tokens, int node, Placeholder[] placeholders) {
+        if (tokens.type(node) == TagToken.Type.PLACEHOLDER) {
+            return resolve(tokens.content(node), placeholders);
         }
+        return tokens.content(node);
+    }
 
-        List<Color> colors = new ArrayList<>();
-        for (String colorArg : colorArgs) {
-            Color color = ColorRegistry.getColor(colorArg.trim());
-            if (color != null) {
-                colors.add(color);
-            }
+    private static void appendInlineText(StringBuilder out, TokenTable tokens, int node, Placeholder[] placeholders) {
+        if (tokens.type(node) == TagToken.Type.PLACEHOLDER) {
+            appendResolved(out, tokens.content(node), placeholders);
+        } else {
+            out.append(tokens.content(node));
         }
+    }
 
-        if (colors.size() < 2) {
-            Message msg = Message.raw(text);
-            applyFormatting(msg, state);
-            return msg;
+    /**
+     * Replace the {@link Placeholder#isLazy() lazy} placeholders by their values, resolving only
+     * those whose key is a slot of {@code tokens}, each at most once. Resolution follows
+     * {@link #resolve}: for each key, from the last placeholder back to the first non-null value.
+     *
+     * @return {@code placeholders} itself if none is lazy
+     */
+    private static Placeholder[] resolveLazy(TokenTable tokens, Placeholder[] placeholders) {
+        if (placeholders == null) {
+            return NO_PLACEHOLDERS;
         }
 
-        Message root = Message.empty();
-        int textLength = text.length();
+        boolean lazy = false;
+        for (Placeholder placeholder : placeholders) {
+            if (placeholder != null && placeholder.isLazy()) {
+                lazy = true;
+                break;
+            }
+        }
+        if (!lazy) {
+            return placeholders;
+        }
 
-        for (int i = 0; i < textLength; i++) {
-            char c = text.charAt(i);
-            float progress = textLength > 1 ? (float) i / (textLength - 1) : 0;
+        Set<String> slots = tokens.slotKeys();
+        Set<String> found = new HashSet<>();
+        Placeholder[] resolved = new Placeholder[placeholders.length];
+        for (int i = placeholders.length - 1; i >= 0; i--) {
+            Placeholder placeholder = placeholders[i];
+            if (placeholder == null) {
+                continue;
+            }
 
-            float segmentSize = 1.0f / (colors.size() - 1);
-            int segmentIndex = Math.min((int) (progress / segmentSize), colors.size() - 2);
-            float segmentProgress = (progress - segmentIndex * segmentSize) / segmentSize;
+            String key = placeholder.getPlaceholder();
+            if (!placeholder.isLazy()) {
+                resolved[i] = placeholder;
+                if (placeholder.hasValue()) {
+                    found.add(key);
+                }
+            } else if (slots.contains(key) && !found.contains(key)) {
+                String value = placeholder.getValue();
+                if (value != null) {
+                    resolved[i] = new Placeholder(key, value);
+                    found.add(key);
+                }
+            }
+            // Other lazy placeholders are shadowed or unused and stay null, which resolve() skips
+        }
+        return resolved;
+    }
+
+    private static String resolve(String key, Placeholder[] placeholders) {
+        // Last one wins, like the map used by LanguageUtils
+        for (int i = placeholders.length - 1; i >= 0; i--) {
+            Placeholder placeholder = placeholders[i];
+            if (placeholder != null && key.equals(placeholder.getPlaceholder())) {
+                String value = placeholder.getValue();
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return key;
+    }
 
-            Color interpolated = ColorRegistry.interpolate(
-                colors.get(segmentIndex),
-                colors.get(segmentIndex + 1),
-                segmentProgress
-            );
+    /**
+     * Same as {@link #resolve}, writing the value into {@code out}, so typed placeholders
+     * append their digits without creating a string.
+     */
+    private static void appendResolved(StringBuilder out, String key, Placeholder[] placeholders) {
+        for (int i = placeholders.length - 1; i >= 0; i--) {
+            Placeholder placeholder = placeholders[i];
+            if (placeholder != null && key.equals(placeholder.getPlaceholder()) && placeholder.appendTo(out)) {
+                return;
+            }
+        }
+        out.append(key);
+    }
 
-            Message charMsg = Message.raw(String.valueOf(c));
-            charMsg.color(interpolated);
+    private static Style applyTokenFormatting(TokenTable tokens, int node, Style style) {
+        return switch (tokens.type(node)) {
+            case COLOR -> style.withColor(tokens.color(node));
+            case BOLD -> style.withFlag(Style.BOLD);
+            case ITALIC -> style.withFlag(Style.ITALIC);
+            case UNDERLINE -> style.withFlag(Style.UNDERLINE);
+            case MONOSPACE -> style.withFlag(Style.MONOSPACE);
+            default -> style;
+        };
+    }
 
-            if (state.bold) charMsg.bold(true);
-            if (state.italic) charMsg.italic(true);
-            if (state.monospace) charMsg.monospace(true);
+    private static void applyFormatting(Message message, Style style) {
+        Style rendered = style.rendered();
+        applyFormatting(message, rendered.getColor(), rendered.getFlags());
+    }
 
-            root.insert(charMsg);
+    private static void applyFormatting(Message message, int color, int flags) {
+        if (color != ColorRegistry.NO_COLOR) {
+            message.color(ColorRegistry.toColor(color));
+        }
+        if ((flags & Style.BOLD) != 0) {
+            message.bold(true);
+        }
+        if ((flags & Style.ITALIC) != 0) {
+            message.italic(true);
+        }
+        if ((flags & Style.MONOSPACE) != 0) {
+            message.monospace(true);
         }
-
-        return root;
     }
 
-    private static Message buildClickable(TagToken token, FormatState state) {
-        String text = extractText(token);
+    private static Message buildGradient(TokenTable tokens, int node, Style style, Placeholder[] placeholders) {
+        String text = extractText(tokens, node, placeholders);
         if (text.isEmpty()) {
             return Message.empty();
         }
 
-        String url = token.getContent();
-        if (url == null || url.isEmpty()) {
-            Message msg = Message.raw(text);
-            applyFormatting(msg, state);
-            return msg;
+        MessageRuns messages = new MessageRuns();
+        RunMerger runs = new RunMerger(messages, true);
+        appendGradient(tokens, node, text, style, runs);
+        runs.flush();
+        return messages.finish();
+    }
+
+    private static void appendGradient(TokenTable tokens, int node, String text, Style style, RunConsumer runs) {
+        GradientEvent event = new GradientEvent();
+        event.begin();
+
+        // Whitespace takes no gradient position: it joins the run of the character before it
+        int textLength = text.length();
+        int visible = 0;
+        for (int i = 0; i < textLength; ) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isWhitespace(codePoint)) {
+                visible++;
+            }
+            i += Character.charCount(codePoint);
+        }
+
+        int[] stops = tokens.gradientStops(node);
+        if (stops.length < 2 || visible == 0) {
+            emit(runs, text, style, null);
+            return;
+        }
+
+        TaleMessageMetrics metrics = TaleMessageMetrics.active();
+        if (metrics != null) {
+            metrics.recordGradientCharacters(visible);
+        }
+
+        // Gradient characters keep bold, italic and monospace, but not underline
+        int flags = style.getFlags() & ~Style.UNDERLINE;
+        // Only looked up twice while the event is recorded
+        boolean cacheHit = event.isEnabled() && GradientCache.contains(stops, visible);
+        int[] colors = GradientCache.colors(stops, visible);
+        int runColor = ColorRegistry.NO_COLOR;
+        int runStart = 0;
+        int position = 0;
+
+        for (int i = 0; i < textLength; ) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isWhitespace(codePoint)) {
+                int color = colors[position++];
+                if (runColor == ColorRegistry.NO_COLOR) {
+                    runColor = color;
+                } else if (color != runColor) {
+                    runs.accept(text.substring(runStart, i), runColor, flags, null);
+                    runStart = i;
+                    runColor = color;
+                }
+            }
+            i += Character.charCount(codePoint);
+        }
+
+        runs.accept(runStart == 0 ? text : text.substring(runStart), runColor, flags, null);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.gradientLength = visible;
+            event.stopCount = stops.length;
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+    }
+
+    private static Message buildClickable(TokenTable tokens, int node, Style style, Placeholder[] placeholders) {
+        String text = extractText(tokens, node, placeholders);
+        if (text.isEmpty()) {
+            return Message.empty();
         }
 
         Message message = Message.raw(text);
-        message.link(url);
-        applyFormatting(message, state);
+        if (tokens.contentLength(node) > 0) {
+            message.link(tokens.content(node));
+        }
+        applyFormatting(message, style);
 
         return message;
     }
 
-    private static String extractText(TagToken token) {
+    private static String extractText(TokenTable tokens, int node, Placeholder[] placeholders) {
         StringBuilder sb = new StringBuilder();
-        extractTextRecursive(token, sb);
+        extractTextRecursive(tokens, node, sb, placeholders);
         return sb.toString();
     }
 
-    private static void extractTextRecursive(TagToken token, StringBuilder sb) {
-        if (token.getType() == TagToken.Type.TEXT) {
-            sb.append(token.getContent());
+    private static void extractTextRecursive(TokenTable tokens, int node, StringBuilder sb, Placeholder[] placeholders) {
+        TagToken.Type type = tokens.type(node);
+        if (type == TagToken.Type.TEXT) {
+            sb.append(tokens.content(node));
+        } else if (type == TagToken.Type.PLACEHOLDER) {
+            appendResolved(sb, tokens.content(node), placeholders);
         }
 
-        for (TagToken child : token.getChildren()) {
-            extractTextRecursive(child, sb);
+        for (int child = tokens.firstChild(node); child != TokenTable.NONE; child = tokens.nextSibling(child)) {
+            extractTextRecursive(tokens, child, sb, placeholders);
         }
     }
 
-    private static class FormatState {
-        Color color;
-        boolean bold;
-        boolean italic;
-        boolean underline;
-        boolean monospace;
+    /**
+     * The subtrees of a template that do not depend on placeholder values, built on first use.
+     */
+    private static final class SharedParts {
+
+        private final boolean[] slots;
+        private final Message[] built;
+
+        SharedParts(TokenTable tokens) {
+            int size = tokens.size();
+            slots = new boolean[size];
+            built = new Message[size];
+
+            // Mark every slot and its ancestors; stop at an ancestor another slot already marked
+            for (int node = 0; node < size; node++) {
+                if (tokens.type(node) != TagToken.Type.PLACEHOLDER) {
+                    continue;
+                }
+                for (int n = node; n != TokenTable.NONE && !slots[n]; n = tokens.parent(n)) {
+                    slots[n] = true;
+                }
+            }
+        }
 
-        FormatState copy() {
-            FormatState copy = new FormatState();
-            copy.color = this.color;
-            copy.bold = this.bold;
-            copy.italic = this.italic;
-            copy.underline = this.underline;
-            copy.monospace = this.monospace;
-            return copy;
+        boolean hasSlots(int node) {
+            return slots[node];
         }
+
+        /**
+         * A node's incoming style only depends on its ancestors, so one instance per node is enough.
+         */
+        Message get(TokenTable tokens, int node, Style style) {
+            Message message = built[node];
+            if (message == null) {
+                message = buildRecursive(tokens, node, style, NO_PLACEHOLDERS, null);
+                built[node] = message;
+            }
+            return message;
+        }
+
+    }
+
+    /**
+     * Turns runs into Messages. A single run is returned as is; several runs are wrapped
+     * in one empty Message.
+     */
+    private static final class MessageRuns implements RunConsumer {
+
+        private Message first;
+        private Message container;
+
+        @Override
+        public void accept(String text, int color, int flags, String link) {
+            Message run = Message.raw(text);
+            if (link != null) {
+                run.link(link);
+            }
+            applyFormatting(run, color, flags);
+
+            if (first == null) {
+                first = run;
+                return;
+            }
+            if (container == null) {
+                container = Message.empty();
+                container.insert(first);
+            }
+            container.insert(run);
+        }
+
+        Message finish() {
+            if (container != null) {
+                return container;
+            }
+            return first != null ? first : Message.empty();
+        }
+
     }
 
-}
\ No newline at end of file
+}
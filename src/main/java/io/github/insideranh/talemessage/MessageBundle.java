@@ -0,0 +1,384 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages of one or more language files, looked up by key.
+ *
+ * <p>Files are UTF-8 {@code .properties} files; if several define a key, the last one wins.
+ * Loading only reads the files and indexes the keys: a template is compiled the first
+ * time it is used. Lookups read an immutable snapshot and never lock.</p>
+ *
+ * <p>{@link #reload()} re-reads the files and compares them key by key. Unchanged keys
+ * keep their compiled template, changed ones are recompiled (right away if they were
+ * already in use, otherwise on first use), and the new snapshot replaces the old one in
+ * a single write. {@link #watch(ReloadListener)} does this whenever a file changes.</p>
+ *
+ * <pre>{@code
+ * MessageBundle messages = MessageBundle.load(dataDir.resolve("messages.properties"));
+ * messages.watch(changed -> logger.info("Reloaded " + changed.size() + " messages"));
+ *
+ * player.sendMessage(messages.build("welcome", new Placeholder("{player}", name)));
+ * }</pre>
+ */
+public final class MessageBundle implements Closeable {
+
+    // Events arriving closer together than this are handled as one change
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final List<Path> files;
+    private final boolean strict;
+    private volatile Snapshot snapshot;
+
+    private final Object watchLock = new Object();
+    private WatchService watchService;
+    private Thread watchThread;
+
+    private MessageBundle(List<Path> files, boolean strict) throws IOException {
+        this.files = files;
+        this.strict = strict;
+        this.snapshot = new Snapshot(read(files), Snapshot.EMPTY, strict);
+    }
+
+    /**
+     * Read and index {@code files}.
+     *
+     * @throws IOException if a file cannot be read
+     */
+    public static MessageBundle load(Path... files) throws IOException {
+        return new MessageBundle(paths(files), false);
+    }
+
+    /**
+     * Read {@code files} and compile every template right away with
+     * {@link TaleMessage#compileStrict(String)}, so markup errors fail the load instead of
+     * reaching players. Reloads are checked the same way; a failing reload keeps the
+     * current snapshot.
+     *
+     * @throws IOException            if a file cannot be read
+     * @throws MessageSyntaxException if a template has markup errors
+     */
+    public static MessageBundle loadStrict(Path... files) throws IOException {
+        return new MessageBundle(paths(files), true);
+    }
+
+    private static List<Path> paths(Path[] files) {
+        if (files.length == 0) {
+            throw new IllegalArgumentException("No files given");
+        }
+
+        Path[] absolute = new Path[files.length];
+        for (int i = 0; i < files.length; i++) {
+            absolute[i] = files[i].toAbsolutePath().normalize();
+        }
+        return List.of(absolute);
+    }
+
+    /**
+     * @return the compiled template for {@code key}, or null if there is none
+     */
+    public CompiledMessage get(String key) {
+        Entry entry = snapshot.entries.get(key);
+        return entry == null ? null : entry.compiled();
+    }
+
+    /**
+     * Build the message for {@code key}. A missing key is shown as the key itself, so it
+     * stands out in game instead of failing.
+     */
+    public Message build(String key, Placeholder... placeholders) {
+        Entry entry = snapshot.entries.get(key);
+        if (entry == null) {
+            return Message.raw(key);
+        }
+        return entry.compiled().build(placeholders);
+    }
+
+    /**
+     * @return the template source for {@code key}, or null if there is none
+     */
+    public String getSource(String key) {
+        Entry entry = snapshot.entries.get(key);
+        return entry == null ? null : entry.source;
+    }
+
+    public boolean contains(String key) {
+        return snapshot.entries.containsKey(key);
+    }
+
+    /**
+     * @return the keys of the current snapshot
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(snapshot.entries.keySet());
+    }
+
+    public int size() {
+        return snapshot.entries.size();
+    }
+
+    public List<Path> getFiles() {
+        return files;
+    }
+
+    /**
+     * Re-read the files and publish what changed. Readers see either the old or the new
+     * snapshot, never a mix. If a file cannot be read, or in a strict bundle a changed
+     * template has errors, the current snapshot is kept.
+     *
+     * @return the keys that were added, changed or removed
+     * @throws MessageSyntaxException in a strict bundle, if a changed template has markup errors
+     */
+    public Set<String> reload() throws IOException {
+        // Read under the lock too: a slower, older read must not replace a newer snapshot
+        synchronized (this) {
+            Map<String, String> sources = read(files);
+            Snapshot next = new Snapshot(sources, snapshot, strict);
+            if (!next.changed.isEmpty()) {
+                snapshot = next;
+            }
+            return next.changed;
+        }
+    }
+
+    /**
+     * Watch the files and {@link #reload()} whenever one of them changes, on a daemon
+     * thread. Does nothing if the bundle is already watched.
+     *
+     * @param listener told about each reload that changed something, and about failed reloads
+     */
+    public void watch(ReloadListener listener) throws IOException {
+        Objects.requireNonNull(listener, "listener");
+        synchronized (watchLock) {
+            if (watchService != null) {
+                return;
+            }
+
+            FileSystem fileSystem = files.get(0).getFileSystem();
+            WatchService service = fileSystem.newWatchService();
+            Set<Path> directories = new HashSet<>();
+            try {
+                for (Path file : files) {
+                    Path directory = file.getParent();
+                    if (directories.add(directory)) {
+                        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    }
+                }
+            } catch (IOException e) {
+                service.close();
+                throw e;
+            }
+
+            Thread thread = new Thread(() -> watchLoop(service, listener), "TaleMessage bundle watcher");
+            thread.setDaemon(true);
+            watchService = service;
+            watchThread = thread;
+            thread.start();
+        }
+    }
+
+    private void watchLoop(WatchService service, ReloadListener listener) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean relevant = drain(key);
+
+                // Editors often write a file in several steps; wait until it settles
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+                if (!relevant) {
+                    continue;
+                }
+
+                try {
+                    Set<String> changed = reload();
+                    if (!changed.isEmpty()) {
+                        listener.onReload(changed);
+                    }
+                } catch (IOException e) {
+                    listener.onError(e);
+                } catch (MessageSyntaxException e) {
+                    listener.onError(new IOException(e.getMessage(), e));
+                } catch (RuntimeException e) {
+                    // A broken listener must not stop the watcher
+                    listener.onError(new IOException("Reload failed", e));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * @return true if one of the events concerns one of the bundle files
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path name && files.contains(directory.resolve(name))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Stop watching the files. The bundle stays usable.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (watchLock) {
+            if (watchService == null) {
+                return;
+            }
+            watchService.close();
+            watchThread.interrupt();
+            watchService = null;
+            watchThread = null;
+        }
+    }
+
+    private static Map<String, String> read(List<Path> files) throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        for (Path file : files) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                sources.put(key, properties.getProperty(key));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Receives the outcome of reloads triggered by {@link #watch(ReloadListener)}, on the watcher thread.
+     */
+    @FunctionalInterface
+    public interface ReloadListener {
+
+        /**
+         * @param changed the keys that were added, changed or removed
+         */
+        void onReload(Set<String> changed);
+
+        /**
+         * A reload failed; the previous snapshot is still in use.
+         */
+        default void onError(IOException exception) {
+        }
+
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot();
+
+        private final Map<String, Entry> entries;
+        private final Set<String> changed;
+
+        private Snapshot() {
+            this.entries = Map.of();
+            this.changed = Set.of();
+        }
+
+        /**
+         * Index {@code sources}, reusing the entries of {@code previous} whose source did not change.
+         *
+         * @param strict compile new and changed entries now, with {@link TaleMessage#compileStrict(String)}
+         */
+        private Snapshot(Map<String, String> sources, Snapshot previous, boolean strict) {
+            Map<String, Entry> entries = new HashMap<>((int) (sources.size() / 0.75f) + 1);
+            Set<String> changed = new LinkedHashSet<>();
+
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                String key = source.getKey();
+                Entry old = previous.entries.get(key);
+                if (old != null && old.source.equals(source.getValue())) {
+                    entries.put(key, old);
+                    continue;
+                }
+
+                Entry entry = new Entry(source.getValue());
+                if (strict) {
+                    try {
+                        entry.compiled = TaleMessage.compileStrict(entry.source);
+                    } catch (MessageSyntaxException e) {
+                        throw new MessageSyntaxException(key, e.getInput(), e.getDiagnostics());
+                    }
+                } else if (old != null && old.isCompiled()) {
+                    // In use: compile now, on the reloading thread, rather than on the next send
+                    entry.compiled();
+                }
+                entries.put(key, entry);
+                changed.add(key);
+            }
+            for (String key : previous.entries.keySet()) {
+                if (!sources.containsKey(key)) {
+                    changed.add(key);
+                }
+            }
+
+            this.entries = entries;
+            this.changed = Collections.unmodifiableSet(changed);
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final String source;
+        // Races only compile the same source twice
+        private volatile CompiledMessage compiled;
+
+        private Entry(String source) {
+            this.source = source;
+        }
+
+        private CompiledMessage compiled() {
+            CompiledMessage result = compiled;
+            if (result == null) {
+                result = CompiledMessage.compile(source);
+                compiled = result;
+            }
+            return result;
+        }
+
+        private boolean isCompiled() {
+            return compiled != null;
+        }
+
+    }
+
+}
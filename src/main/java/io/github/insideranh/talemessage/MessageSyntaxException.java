@@ -0,0 +1,64 @@
+package io.github.insideranh.talemessage;
+
+import java.util.List;
+
+/**
+ * Thrown by {@link TaleMessage#compileStrict(String)} when the input has markup errors.
+ */
+public class MessageSyntaxException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+    private final String input;
+    // List.copyOf gives a serializable list, so the diagnostics survive serialization
+    private final List<Diagnostic> diagnostics;
+
+    public MessageSyntaxException(String input, List<Diagnostic> diagnostics) {
+        this(null, input, diagnostics);
+    }
+
+    /**
+     * @param key the key the input was loaded under, or null
+     */
+    public MessageSyntaxException(String key, String input, List<Diagnostic> diagnostics) {
+        super(describe(key, input, diagnostics));
+        this.key = key;
+        this.input = input;
+        this.diagnostics = List.copyOf(diagnostics);
+    }
+
+    private static String describe(String key, String input, List<Diagnostic> diagnostics) {
+        StringBuilder message = new StringBuilder("Invalid message ");
+        if (key != null) {
+            message.append(key).append(' ');
+        }
+        message.append('"').append(input).append('"');
+        for (Diagnostic diagnostic : diagnostics) {
+            message.append("\n  at ").append(diagnostic.getStart()).append(": ").append(diagnostic.getMessage());
+        }
+        return message.toString();
+    }
+
+    /**
+     * @return the key the input was loaded under, or null if it was not loaded by key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the input that failed
+     */
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * @return the problems that made it fail
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+}
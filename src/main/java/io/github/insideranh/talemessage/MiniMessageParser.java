@@ -1,11 +1,24 @@
 package io.github.insideranh.talemessage;
 
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class MiniMessageParser {
 
+    /**
+     * Most braces a slot can be wrapped in. Longer runs of {@code {} are text, which keeps
+     * a line of braces from being rescanned at every position.
+     */
+    static final int MAX_SLOT_DEPTH = 4;
+
     private final String input;
     private int pos;
+    private boolean tagSlots;
+    // Index of the next '>' found so far, or input.length() if there is none left
+    private int nextClose = -1;
+    // Only collected by validate(); null otherwise
+    private List<Diagnostic> diagnostics;
 
     public MiniMessageParser(String input) {
         this.input = input;
@@ -17,170 +30,603 @@ public class MiniMessageParser {
             return new TagToken(TagToken.Type.TEXT, "");
         }
 
-        MiniMessageParser parser = new MiniMessageParser(input);
-        return parser.parseRoot();
+        return parseTable(input).toTagToken();
+    }
+
+    /**
+     * Parse {@code input} and report everything the parser had to keep as text, ignore or
+     * skip, e.g. unknown tags, invalid gradient colors or stray closing tags. Tags with a
+     * placeholder slot inside, such as {@code <click:{url}>}, are not checked.
+     *
+     * @return the problems in input order, empty if there are none
+     */
+    public static List<Diagnostic> validate(String input) {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        parseTable(input, diagnostics);
+        return diagnostics;
+    }
+
+    /**
+     * Parse into a token table and add the problems {@link #validate(String)} reports to
+     * {@code diagnostics}, in one pass.
+     */
+    static TokenTable parseTable(String input, List<Diagnostic> diagnostics) {
+        MiniMessageParser parser = new MiniMessageParser(input == null ? "" : input);
+        parser.diagnostics = diagnostics;
+        return parseTable(parser);
+    }
+
+    /**
+     * Find the distinct placeholder slots of {@code input}, in order of first appearance,
+     * including slots inside tags.
+     *
+     * @return the slots as written, e.g. {@code "{player}"} or {@code "%rank%"}
+     */
+    public static List<String> slotKeys(String input) {
+        List<String> keys = new ArrayList<>();
+        if (input == null) {
+            return keys;
+        }
+
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c == '{' || c == '%') {
+                int end = slotEnd(input, i);
+                if (end != -1) {
+                    String key = input.substring(i, end);
+                    if (!keys.contains(key)) {
+                        keys.add(key);
+                    }
+                    i = end - 1;
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Check whether a whole string is a placeholder slot such as {@code {player}},
+     * {@code {{player}}} or {@code %player%}.
+     */
+    public static boolean isSlotKey(String key) {
+        return key != null && !key.isEmpty() && slotEnd(key, 0) == key.length();
+    }
+
+    /**
+     * Find the end of a placeholder slot starting at {@code start}.
+     *
+     * <p>A slot is a name made of letters, digits, {@code _}, {@code -} or {@code .},
+     * wrapped either in the same number (up to {@link #MAX_SLOT_DEPTH}) of {@code {}/{@code }}
+     * braces or in {@code %}.</p>
+     *
+     * @return the index just after the slot, or -1 if no slot starts there
+     */
+    static int slotEnd(String input, int start) {
+        int length = input.length();
+        char open = input.charAt(start);
+        if (open != '{' && open != '%') {
+            return -1;
+        }
+
+        int depth = 1;
+        int i = start + 1;
+        if (open == '{') {
+            while (i < length && input.charAt(i) == '{') {
+                if (++depth > MAX_SLOT_DEPTH) {
+                    return -1;
+                }
+                i++;
+            }
+        }
+
+        int nameStart = i;
+        while (i < length && isSlotNameChar(input.charAt(i))) {
+            i++;
+        }
+        if (i == nameStart) {
+            return -1;
+        }
+
+        char close = open == '{' ? '}' : '%';
+        for (int d = 0; d < depth; d++, i++) {
+            if (i >= length || input.charAt(i) != close) {
+                return -1;
+            }
+        }
+
+        // "{{name}}}" is not a slot: the braces have to balance
+        if (open == '{' && i < length && input.charAt(i) == '}') {
+            return -1;
+        }
+
+        return i;
     }
 
-    private TagToken parseRoot() {
-        TagToken root = new TagToken(TagToken.Type.TEXT, "");
-        Stack<TagToken> stack = new Stack<>();
-        stack.push(root);
+    /**
+     * Check whether {@code input} parses to plain text: it has no {@code <}, {@code &} or
+     * {@code \\}, which could start markup, and no placeholder slot.
+     *
+     * <p>This is a single cheap scan; inputs that pass it can be sent as one raw Message
+     * without parsing. It is conservative: e.g. {@code "a & b"} fails it although it has no markup.</p>
+     */
+    public static boolean isPlainText(String input) {
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            switch (input.charAt(i)) {
+                case '<', '&', '\\' -> {
+                    return false;
+                }
+                case '{', '%' -> {
+                    if (slotEnd(input, i) != -1) {
+                        return false;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return true;
+    }
+
+    static boolean isSlotNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '-' || c == '.';
+    }
+
+    private static boolean containsSlot(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if ((c == '{' || c == '%') && slotEnd(text, i) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse into the compact {@link TokenTable} representation.
+     */
+    public static TokenTable parseTable(String input) {
+        return parseTable(new MiniMessageParser(input == null ? "" : input));
+    }
 
-        StringBuilder textBuffer = new StringBuilder();
+    private static TokenTable parseTable(MiniMessageParser parser) {
+        ParseEvent event = new ParseEvent();
+        TaleMessageMetrics metrics = TaleMessageMetrics.active();
+        if (metrics == null && !event.isEnabled()) {
+            return parser.parseTable();
+        }
 
-        while (pos < input.length()) {
+        event.begin();
+        long start = System.nanoTime();
+        TokenTable tokens = parser.parseTable();
+        if (metrics != null) {
+            metrics.recordLatency(TaleMessageMetrics.Stage.PARSE, start);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputLength = parser.input.length();
+            event.nodeCount = tokens.size();
+            event.tagSlots = tokens.hasTagSlots();
+            event.commit();
+        }
+        return tokens;
+    }
+
+    TokenTable parseTable() {
+        int length = input.length();
+        TokenTable.Builder tokens = new TokenTable.Builder(input, 1 + length / 8);
+
+        // Pending text is the range [textStart, pos) of the input; it only goes through
+        // textBuffer once an escape sequence breaks it up
+        int textStart = -1;
+        StringBuilder textBuffer = null;
+
+        while (pos < length) {
             char c = input.charAt(pos);
 
-            if (c == '\\' && pos + 1 < input.length() && (input.charAt(pos + 1) == '<' || input.charAt(pos + 1) == '>')) {
+            if (c == '\\' && pos + 1 < length && (input.charAt(pos + 1) == '<' || input.charAt(pos + 1) == '>')) {
+                if (textBuffer == null) {
+                    textBuffer = new StringBuilder();
+                }
+                if (textStart != -1) {
+                    textBuffer.append(input, textStart, pos);
+                    textStart = -1;
+                }
                 textBuffer.append(input.charAt(pos + 1));
                 pos += 2;
                 continue;
             }
             // Handle Minecraft color codes (&a, &b, &l, etc.)
-            if (c == '&' && pos + 1 < input.length()) {
-                char code = input.charAt(pos + 1);
-                TagToken mcToken = createMinecraftColorToken(code);
-                if (mcToken != null) {
-                    if (!textBuffer.isEmpty()) {
-                        stack.peek().addChild(new TagToken(TagToken.Type.TEXT, textBuffer.toString()));
-                        textBuffer.setLength(0);
-                    }
-                    stack.peek().addChild(mcToken);
-                    if (mcToken.getType() != TagToken.Type.TEXT) {
-                        stack.push(mcToken);
+            if (c == '&' && pos + 1 < length) {
+                char code = Character.toLowerCase(input.charAt(pos + 1));
+                TagToken.Type type = minecraftCodeType(code);
+                if (type != null) {
+                    flushText(tokens, textStart, textBuffer);
+                    textStart = -1;
+                    if (type == TagToken.Type.COLOR) {
+                        String name = minecraftColorName(code);
+                        int start = tokens.appendText(name);
+                        tokens.push(tokens.add(type, start, tokens.textLength(), ColorRegistry.getColorArgb(name)));
+                    } else if (type == TagToken.Type.TEXT) {
+                        tokens.add(type, pos, pos, 0);
+                        if (diagnostics != null) {
+                            report(Diagnostic.Code.UNSUPPORTED_CODE, pos, pos + 2, "&" + code + " has no effect");
+                        }
+                    } else {
+                        tokens.push(tokens.add(type, pos, pos, 0));
                     }
                     pos += 2;
                     continue;
                 }
             }
 
-            if (c == '<') {
-                if (!textBuffer.isEmpty()) {
-                    stack.peek().addChild(new TagToken(TagToken.Type.TEXT, textBuffer.toString()));
-                    textBuffer.setLength(0);
+            if (c == '{' || c == '%') {
+                int slotEnd = slotEnd(input, pos);
+                if (slotEnd != -1) {
+                    flushText(tokens, textStart, textBuffer);
+                    textStart = -1;
+                    tokens.add(TagToken.Type.PLACEHOLDER, pos, slotEnd, 0);
+                    pos = slotEnd;
+                    continue;
                 }
+            }
 
-                String tag = parseTag();
-                if (tag != null) {
-                    if (tag.startsWith("/")) {
-                        if (stack.size() > 1) {
-                            stack.pop();
-                        }
-                    } else {
-                        TagToken tagToken = createTagToken(tag);
-                        if (tagToken != null) {
-                            stack.peek().addChild(tagToken);
-                            if (tagToken.getType() != TagToken.Type.TEXT) {
-                                stack.push(tagToken);
-                            }
-                        }
+            // A '<' that is never closed is plain text
+            int tagEnd = c == '<' ? findClose(pos + 1) : -1;
+            if (tagEnd != -1) {
+                flushText(tokens, textStart, textBuffer);
+                textStart = -1;
+
+                int tagStart = pos + 1;
+                pos = tagEnd + 1;
+                boolean slotInTag = containsSlot(input, tagStart, tagEnd);
+                if (slotInTag) {
+                    tagSlots = true;
+                }
+                // The tag is only known once the slot is filled
+                boolean check = diagnostics != null && !slotInTag;
+                if (tagStart < tagEnd && input.charAt(tagStart) == '/') {
+                    if (check) {
+                        checkClose(tokens, tagStart + 1, tagEnd);
                     }
+                    tokens.pop();
+                } else {
+                    addTag(tokens, tagStart, tagEnd, check);
                 }
             } else {
-                textBuffer.append(c);
+                if (c == '<' && diagnostics != null) {
+                    report(Diagnostic.Code.UNCLOSED_BRACKET, pos, pos + 1, "'<' is never closed, use \\< for a literal '<'");
+                }
+                if (textBuffer != null && !textBuffer.isEmpty()) {
+                    textBuffer.append(c);
+                } else if (textStart == -1) {
+                    textStart = pos;
+                }
                 pos++;
             }
         }
 
-        if (!textBuffer.isEmpty()) {
-            stack.peek().addChild(new TagToken(TagToken.Type.TEXT, textBuffer.toString()));
+        flushText(tokens, textStart, textBuffer);
+
+        return tokens.build(tagSlots);
+    }
+
+    /**
+     * Add the pending text, either the range {@code [textStart, pos)} or the escaped
+     * text collected in {@code textBuffer}, as a TEXT node.
+     */
+    private void flushText(TokenTable.Builder tokens, int textStart, StringBuilder textBuffer) {
+        if (textBuffer != null && !textBuffer.isEmpty()) {
+            if (textStart != -1) {
+                textBuffer.append(input, textStart, pos);
+            }
+            int start = tokens.appendText(textBuffer);
+            tokens.add(TagToken.Type.TEXT, start, tokens.textLength(), 0);
+            textBuffer.setLength(0);
+        } else if (textStart != -1 && textStart < pos) {
+            tokens.add(TagToken.Type.TEXT, textStart, pos, 0);
         }
+    }
 
-        return root;
+    /**
+     * Find the first {@code >} at or after {@code from}. Calls must have non-decreasing
+     * {@code from}, so the input is scanned for {@code >} only once in total, however
+     * many {@code <} it has.
+     *
+     * @return its index, or -1 if there is none
+     */
+    private int findClose(int from) {
+        if (nextClose < from) {
+            int index = input.indexOf('>', from);
+            nextClose = index == -1 ? input.length() : index;
+        }
+        return nextClose < input.length() ? nextClose : -1;
     }
 
-    private String parseTag() {
-        if (pos >= input.length() || input.charAt(pos) != '<') {
-            return null;
+    /**
+     * Add the node for the opening tag {@code input[start, end)}. Tags that are not
+     * recognised are kept as literal text.
+     *
+     * @param check report problems with the tag to {@link #diagnostics}
+     */
+    private void addTag(TokenTable.Builder tokens, int start, int end, boolean check) {
+        if (start >= end) {
+            if (check) {
+                report(Diagnostic.Code.EMPTY_TAG, start - 1, end + 1, "Empty tag <> is ignored");
+            }
+            return;
         }
 
-        int start = pos + 1;
+        if (isGradientTag(input, start, end)) {
+            int argsStart = start + 9;
+            int[] stops = gradientStops(argsStart, end, check);
+            if (check && stops.length < 2) {
+                report(Diagnostic.Code.INVALID_GRADIENT, start - 1, end + 1, "Gradient needs at least two valid colors");
+            }
+            tokens.push(tokens.add(TagToken.Type.GRADIENT, argsStart, end, tokens.addStops(stops)));
+            return;
+        }
 
-        do {
-            pos++;
-        } while (pos < input.length() && input.charAt(pos) != '>');
+        if (TagNames.startsWithIgnoreCase(input, start, end, "click:")) {
+            int urlStart = start + 6;
+            int urlEnd = end;
+            while (urlStart < urlEnd && input.charAt(urlStart) <= ' ') urlStart++;
+            while (urlEnd > urlStart && input.charAt(urlEnd - 1) <= ' ') urlEnd--;
+            if (check && urlStart == urlEnd) {
+                report(Diagnostic.Code.EMPTY_URL, start - 1, end + 1, "Click tag has no URL");
+            }
+            tokens.push(tokens.add(TagToken.Type.CLICK, urlStart, urlEnd, 0));
+            return;
+        }
 
-        if (pos >= input.length()) {
-            return null;
+        TagNames.Entry entry = TagNames.lookup(input, start, end);
+        if (entry == null) {
+            entry = TagNames.lookupColor(input, start, end);
+        }
+        if (entry != null) {
+            if (entry.type == TagToken.Type.COLOR) {
+                tokens.push(tokens.add(entry.type, start, end, ColorRegistry.getColorArgb(entry.name)));
+            } else {
+                tokens.push(tokens.add(entry.type, start, start, 0));
+            }
+            return;
         }
 
-        String tag = input.substring(start, pos);
-        pos++;
+        int color = ColorRegistry.parseLiteralArgb(input, start, end);
+        if (color != ColorRegistry.NO_COLOR) {
+            tokens.push(tokens.add(TagToken.Type.COLOR, start, end, color));
+            return;
+        }
 
-        return tag;
+        if (check) {
+            String tag = input.substring(start - 1, end + 1);
+            if (isTagLike(input, start, end)) {
+                report(Diagnostic.Code.UNKNOWN_TAG, start - 1, end + 1, "Unknown tag or color " + tag);
+            } else {
+                report(Diagnostic.Code.NOT_A_TAG, start - 1, end + 1, tag + " is not a tag and is shown as text, escape it as \\<");
+            }
+        }
+        tokens.add(TagToken.Type.TEXT, start - 1, end + 1, 0);
     }
 
-    private TagToken createTagToken(String tag) {
-        if (tag == null || tag.isEmpty()) {
-            return null;
+    /**
+     * @return true if {@code input[start, end)} is written like a tag name or color, e.g.
+     * {@code redd} or {@code #12345G}, as opposed to text such as {@code 3 you}
+     */
+    private static boolean isTagLike(String input, int start, int end) {
+        char first = input.charAt(start);
+        if (!Character.isLetter(first) && first != '#') {
+            return false;
         }
+        for (int i = start + 1; i < end; i++) {
+            char c = input.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != ':' && c != '.' && c != '#' && c != ',') {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        String lowerTag = tag.toLowerCase();
+    /**
+     * Report a closing tag {@code </name>} with {@code input[start, end)} as name that closes
+     * nothing, or whose name is not the innermost open tag.
+     */
+    private void checkClose(TokenTable.Builder tokens, int start, int end) {
+        int open = tokens.openNode();
+        if (open == TokenTable.ROOT) {
+            report(Diagnostic.Code.UNMATCHED_CLOSE, start - 2, end + 1, "Closing tag " + input.substring(start - 2, end + 1) + " has no open tag to close");
+            return;
+        }
+        if (start == end) {
+            // </> closes whatever is open
+            return;
+        }
 
-        if (lowerTag.startsWith("/")) {
-            return new TagToken(TagToken.Type.RESET, lowerTag.substring(1));
+        TagToken.Type openType = tokens.type(open);
+        TagToken.Type type;
+        int color = ColorRegistry.NO_COLOR;
+        if (TagNames.startsWithIgnoreCase(input, start, end, "gradient")
+                && (end - start == 8 || input.charAt(start + 8) == ':' || input.charAt(start + 8) == ' ')) {
+            type = TagToken.Type.GRADIENT;
+        } else if (TagNames.startsWithIgnoreCase(input, start, end, "click")
+                && (end - start == 5 || input.charAt(start + 5) == ':')) {
+            type = TagToken.Type.CLICK;
+        } else {
+            TagNames.Entry entry = TagNames.lookup(input, start, end);
+            if (entry == null) {
+                entry = TagNames.lookupColor(input, start, end);
+            }
+            if (entry != null) {
+                type = entry.type;
+                color = type == TagToken.Type.COLOR ? ColorRegistry.getColorArgb(entry.name) : ColorRegistry.NO_COLOR;
+            } else {
+                color = ColorRegistry.parseLiteralArgb(input, start, end);
+                type = color != ColorRegistry.NO_COLOR ? TagToken.Type.COLOR : null;
+            }
         }
 
-        if (lowerTag.startsWith("gradient:") || lowerTag.startsWith("gradient ")) {
-            String[] parts = tag.substring(9).split(":");
-            return new TagToken(TagToken.Type.GRADIENT, "", parts);
+        if (type != openType || (type == TagToken.Type.COLOR && color != tokens.data(open))) {
+            report(Diagnostic.Code.MISMATCHED_CLOSE, start - 2, end + 1, "Closing tag " + input.substring(start - 2, end + 1)
+                    + " closes the innermost open " + openType.name().toLowerCase() + " tag instead");
         }
+    }
+
+    private void report(Diagnostic.Code code, int start, int end, String message) {
+        diagnostics.add(new Diagnostic(code, start, end, message));
+    }
 
-        if (lowerTag.startsWith("click:")) {
-            String url = tag.substring(6).trim();
-            return new TagToken(TagToken.Type.CLICK, url);
+    static boolean isGradientTag(CharSequence input, int start, int end) {
+        return TagNames.startsWithIgnoreCase(input, start, end, "gradient")
+                && end - start > 8 && (input.charAt(start + 8) == ':' || input.charAt(start + 8) == ' ');
+    }
+
+    /**
+     * @return true if the tag {@code input[start, end)} is markup: a closing tag, {@code <>}
+     * or an opening tag {@link #addTag} recognises. Anything else is kept as literal text.
+     */
+    private static boolean isMarkupTag(String input, int start, int end) {
+        if (start >= end || input.charAt(start) == '/') {
+            return true;
         }
 
-        switch (lowerTag) {
-            case "bold", "b" -> {
-                return new TagToken(TagToken.Type.BOLD, "");
+        return isGradientTag(input, start, end)
+                || TagNames.startsWithIgnoreCase(input, start, end, "click:")
+                || TagNames.lookup(input, start, end) != null
+                || TagNames.lookupColor(input, start, end) != null
+                || ColorRegistry.parseLiteralArgb(input, start, end) != ColorRegistry.NO_COLOR;
+    }
+
+    /**
+     * Remove all markup from {@code input}, leaving the text {@link #parse(String)} would show:
+     * recognised and closing tags, {@code \<}/{@code \>} escapes and {@code &}-codes are removed,
+     * unknown tags and unclosed {@code <} are kept as written.
+     *
+     * <p>Runs in a single pass, and returns {@code input} itself when it has no markup.</p>
+     */
+    public static String strip(String input) {
+        int length = input.length();
+        StringBuilder result = null;
+        // input[copied, i) is text still to be copied to result
+        int copied = 0;
+        int nextClose = -1;
+        int i = 0;
+
+        while (i < length) {
+            char c = input.charAt(i);
+            int skip = 0;
+
+            if (c == '\\' && i + 1 < length && (input.charAt(i + 1) == '<' || input.charAt(i + 1) == '>')) {
+                // Drop the backslash; the escaped char is copied as text
+                skip = 1;
+            } else if (c == '&' && i + 1 < length && minecraftCodeType(Character.toLowerCase(input.charAt(i + 1))) != null) {
+                skip = 2;
+            } else if (c == '<') {
+                if (nextClose < i + 1) {
+                    int index = input.indexOf('>', i + 1);
+                    nextClose = index == -1 ? length : index;
+                }
+                if (nextClose < length) {
+                    if (isMarkupTag(input, i + 1, nextClose)) {
+                        skip = nextClose + 1 - i;
+                    } else {
+                        i = nextClose + 1;
+                        continue;
+                    }
+                }
             }
-            case "italic", "i", "em" -> {
-                return new TagToken(TagToken.Type.ITALIC, "");
+
+            if (skip == 0) {
+                i++;
+                continue;
             }
-            case "underline", "u" -> {
-                return new TagToken(TagToken.Type.UNDERLINE, "");
+
+            if (result == null) {
+                result = new StringBuilder(length);
             }
-            case "monospace", "mono" -> {
-                return new TagToken(TagToken.Type.MONOSPACE, "");
+            result.append(input, copied, i);
+            copied = i + skip;
+            i = c == '\\' ? i + 2 : copied;
+        }
+
+        if (result == null) {
+            return input;
+        }
+        return result.append(input, copied, length).toString();
+    }
+
+    /**
+     * Resolve the valid stops of {@code color1:color2:...} in {@code input[start, end)}.
+     *
+     * @param check report colors that cannot be resolved
+     */
+    private int[] gradientStops(int start, int end, boolean check) {
+        int[] stops = new int[4];
+        int count = 0;
+        int partStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && input.charAt(i) != ':') {
+                continue;
             }
+
+            int color = colorAt(partStart, i);
+            if (check && color == ColorRegistry.NO_COLOR && !input.substring(partStart, i).isBlank()) {
+                report(Diagnostic.Code.INVALID_COLOR, partStart, i, "Invalid gradient color '" + input.substring(partStart, i).trim() + "'");
+            }
+            if (color != ColorRegistry.NO_COLOR) {
+                if (count == stops.length) {
+                    stops = Arrays.copyOf(stops, count * 2);
+                }
+                stops[count++] = color;
+            }
+            partStart = i + 1;
         }
+        return Arrays.copyOf(stops, count);
+    }
 
-        if (ColorRegistry.getColor(tag) != null) {
-            return new TagToken(TagToken.Type.COLOR, tag);
+    private int colorAt(int start, int end) {
+        TagNames.Entry entry = TagNames.lookupColor(input, start, end);
+        if (entry != null) {
+            return ColorRegistry.getColorArgb(entry.name);
         }
+        return start < end ? ColorRegistry.getColorArgb(input.substring(start, end).trim()) : ColorRegistry.NO_COLOR;
+    }
 
-        return new TagToken(TagToken.Type.TEXT, "<" + tag + ">");
+    static TagToken.Type minecraftCodeType(char code) {
+        return switch (code) {
+            case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+                 'a', 'b', 'c', 'd', 'e', 'f' -> TagToken.Type.COLOR;
+            case 'k', 'm' -> TagToken.Type.TEXT;
+            case 'l' -> TagToken.Type.BOLD;
+            case 'n' -> TagToken.Type.UNDERLINE;
+            case 'o' -> TagToken.Type.ITALIC;
+            case 'r' -> TagToken.Type.RESET;
+            default -> null;
+        };
     }
 
-    private TagToken createMinecraftColorToken(char code) {
-        return switch (Character.toLowerCase(code)) {
-            // Colors
-            case '0' -> new TagToken(TagToken.Type.COLOR, "black");
-            case '1' -> new TagToken(TagToken.Type.COLOR, "dark_blue");
-            case '2' -> new TagToken(TagToken.Type.COLOR, "dark_green");
-            case '3' -> new TagToken(TagToken.Type.COLOR, "dark_aqua");
-            case '4' -> new TagToken(TagToken.Type.COLOR, "dark_red");
-            case '5' -> new TagToken(TagToken.Type.COLOR, "dark_purple");
-            case '6' -> new TagToken(TagToken.Type.COLOR, "gold");
-            case '7' -> new TagToken(TagToken.Type.COLOR, "gray");
-            case '8' -> new TagToken(TagToken.Type.COLOR, "dark_gray");
-            case '9' -> new TagToken(TagToken.Type.COLOR, "blue");
-            case 'a' -> new TagToken(TagToken.Type.COLOR, "green");
-            case 'b' -> new TagToken(TagToken.Type.COLOR, "aqua");
-            case 'c' -> new TagToken(TagToken.Type.COLOR, "red");
-            case 'd' -> new TagToken(TagToken.Type.COLOR, "light_purple");
-            case 'e' -> new TagToken(TagToken.Type.COLOR, "yellow");
-            case 'f' -> new TagToken(TagToken.Type.COLOR, "white");
-            // Formatting
-            case 'k' -> new TagToken(TagToken.Type.TEXT, "");
-            case 'l' -> new TagToken(TagToken.Type.BOLD, "");
-            case 'm' -> new TagToken(TagToken.Type.TEXT, "");
-            case 'n' -> new TagToken(TagToken.Type.UNDERLINE, "");
-            case 'o' -> new TagToken(TagToken.Type.ITALIC, "");
-            case 'r' -> new TagToken(TagToken.Type.RESET, "");
+    static String minecraftColorName(char code) {
+        return switch (code) {
+            case '0' -> "black";
+            case '1' -> "dark_blue";
+            case '2' -> "dark_green";
+            case '3' -> "dark_aqua";
+            case '4' -> "dark_red";
+            case '5' -> "dark_purple";
+            case '6' -> "gold";
+            case '7' -> "gray";
+            case '8' -> "dark_gray";
+            case '9' -> "blue";
+            case 'a' -> "green";
+            case 'b' -> "aqua";
+            case 'c' -> "red";
+            case 'd' -> "light_purple";
+            case 'e' -> "yellow";
+            case 'f' -> "white";
             default -> null;
         };
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package io.github.insideranh.talemessage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for {@link MiniMessageParser#parseTable(String)}. Only parses
+ * slower than the threshold are recorded; change it with
+ * {@code jfr configure talemessage.Parse#threshold=0ms} or in a {@code .jfc} file.
+ */
+@Name("talemessage.Parse")
+@Label("TaleMessage Parse")
+@Category("TaleMessage")
+@Description("MiniMessage input parsed into a token table")
+@Threshold("1 ms")
+final class ParseEvent extends jdk.jfr.Event {
+
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Tag Slots")
+    @Description("A placeholder slot inside a tag forces a re-parse on every build")
+    boolean tagSlots;
+
+}
@@ -0,0 +1,59 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+
+import java.util.List;
+
+/**
+ * A built Message together with the problems found in its input, see
+ * {@link TaleMessage#parseWithDiagnostics(String, io.github.insideranh.talemessage.placeholders.Placeholder...)}.
+ *
+ * <p>The Message is always usable: markup the parser could not use is shown as text or
+ * ignored, exactly like {@link TaleMessage#parse(String)} would.</p>
+ */
+public final class ParseResult {
+
+    private final Message message;
+    private final List<Diagnostic> diagnostics;
+
+    ParseResult(Message message, List<Diagnostic> diagnostics) {
+        this.message = message;
+        this.diagnostics = diagnostics;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the problems in input order, empty if there are none
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    public boolean hasDiagnostics() {
+        return !diagnostics.isEmpty();
+    }
+
+    /**
+     * @return true if at least one diagnostic has {@link Diagnostic.Severity#ERROR} severity
+     */
+    public boolean hasErrors() {
+        for (Diagnostic diagnostic : diagnostics) {
+            if (diagnostic.isError()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult{" +
+                "message=" + message +
+                ", diagnostics=" + diagnostics +
+                '}';
+    }
+
+}
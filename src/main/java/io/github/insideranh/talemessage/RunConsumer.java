@@ -0,0 +1,19 @@
+package io.github.insideranh.talemessage;
+
+/**
+ * Receives the text of a message as runs of uniformly styled text, in document order.
+ *
+ * @see MessageBuilder#forEachRun(TokenTable, RunConsumer, io.github.insideranh.talemessage.placeholders.Placeholder...)
+ */
+@FunctionalInterface
+public interface RunConsumer {
+
+    /**
+     * @param text  the text of the run, never empty
+     * @param color the packed color, or {@link ColorRegistry#NO_COLOR}
+     * @param flags the {@link Style} flags of the run
+     * @param link  the click URL, or null
+     */
+    void accept(String text, int color, int flags, String link);
+
+}
@@ -0,0 +1,67 @@
+package io.github.insideranh.talemessage;
+
+import java.util.Objects;
+
+/**
+ * Merges consecutive runs with the same style before passing them on.
+ */
+final class RunMerger implements RunConsumer {
+
+    private final RunConsumer target;
+    private final boolean underlineAsMonospace;
+
+    private boolean pending;
+    private String text;
+    private StringBuilder buffer;
+    private int color;
+    private int flags;
+    private String link;
+
+    /**
+     * @param underlineAsMonospace fold underline into monospace first, the way a Message shows it
+     */
+    RunMerger(RunConsumer target, boolean underlineAsMonospace) {
+        this.target = target;
+        this.underlineAsMonospace = underlineAsMonospace;
+    }
+
+    @Override
+    public void accept(String text, int color, int flags, String link) {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (underlineAsMonospace && (flags & Style.UNDERLINE) != 0) {
+            flags = (flags & ~Style.UNDERLINE) | Style.MONOSPACE;
+        }
+
+        if (pending && color == this.color && flags == this.flags && Objects.equals(link, this.link)) {
+            if (buffer == null) {
+                buffer = new StringBuilder(this.text.length() + text.length() + 16).append(this.text);
+            }
+            buffer.append(text);
+            return;
+        }
+
+        flush();
+        this.pending = true;
+        this.text = text;
+        this.color = color;
+        this.flags = flags;
+        this.link = link;
+    }
+
+    /**
+     * Pass on the run still being merged.
+     */
+    void flush() {
+        if (!pending) {
+            return;
+        }
+
+        pending = false;
+        String run = buffer != null ? buffer.toString() : text;
+        buffer = null;
+        target.accept(run, color, flags, link);
+    }
+
+}
@@ -0,0 +1,356 @@
+package io.github.insideranh.talemessage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Single forward pass over MiniMessage input that reports what it finds to a
+ * {@link TagVisitor} instead of building a tree.
+ *
+ * <p>Input can be given whole ({@link #parse(CharSequence, TagVisitor)}), read from a
+ * {@link Reader}, or pushed in chunks with {@link #feed(CharSequence)} followed by
+ * {@link #end()}. Memory is bounded by the nesting depth and the longest tag: only a tag,
+ * slot, escape or code cut off at the end of a chunk is kept for the next one.</p>
+ *
+ * <p>Events match the tree built by {@link MiniMessageParser}, with one limit: a {@code <}
+ * with no {@code >} in the next {@link #MAX_TAG_LENGTH} characters, and a slot longer than
+ * that, are treated as text.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+public final class StreamingParser {
+
+    /**
+     * The longest tag or slot, in characters, that is waited for across chunks.
+     */
+    public static final int MAX_TAG_LENGTH = 8192;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NEED_MORE = -2;
+    private static final String[] NO_ARGS = new String[0];
+
+    private final TagVisitor visitor;
+    // Unprocessed end of the previous chunk, if it was cut in the middle of something
+    private final StringBuilder pending = new StringBuilder();
+    private final StringBuilder text = new StringBuilder();
+
+    private TagToken.Type[] stack = new TagToken.Type[16];
+    private int depth;
+
+    // Chars after the '<' at the start of pending already known to have no '>'
+    private int searchedClose;
+    private boolean ended;
+
+    public StreamingParser(TagVisitor visitor) {
+        this.visitor = visitor;
+    }
+
+    /**
+     * Parse a whole input.
+     */
+    public static void parse(CharSequence input, TagVisitor visitor) {
+        StreamingParser parser = new StreamingParser(visitor);
+        parser.process(input, 0, input.length(), true);
+        parser.finish();
+    }
+
+    /**
+     * Parse everything {@code reader} returns, one buffer at a time. The reader is not closed.
+     */
+    public static void parse(Reader reader, TagVisitor visitor) throws IOException {
+        StreamingParser parser = new StreamingParser(visitor);
+        char[] buffer = new char[BUFFER_SIZE];
+        CharBuffer chunk = CharBuffer.wrap(buffer);
+
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            chunk.clear().limit(read);
+            parser.feed(chunk);
+        }
+        parser.end();
+    }
+
+    /**
+     * Parse the next part of the input. {@code chunk} is not kept after the call.
+     *
+     * @throws IllegalStateException if {@link #end()} was already called
+     */
+    public void feed(CharSequence chunk) {
+        if (ended) {
+            throw new IllegalStateException("Input already ended");
+        }
+
+        if (pending.isEmpty()) {
+            int consumed = process(chunk, 0, chunk.length(), false);
+            pending.append(chunk, consumed, chunk.length());
+        } else {
+            pending.append(chunk);
+            pending.delete(0, process(pending, 0, pending.length(), false));
+        }
+        flushText();
+    }
+
+    /**
+     * Mark the end of the input: whatever is pending is parsed as final and
+     * {@link TagVisitor#onEnd()} is called. Later calls do nothing.
+     */
+    public void end() {
+        if (ended) {
+            return;
+        }
+
+        process(pending, 0, pending.length(), true);
+        pending.setLength(0);
+        finish();
+    }
+
+    private void finish() {
+        ended = true;
+        flushText();
+        visitor.onEnd();
+    }
+
+    /**
+     * Report everything in {@code input[start, end)} that can be decided without more input.
+     *
+     * @param last true if no input follows
+     * @return the index up to which input was consumed
+     */
+    private int process(CharSequence input, int start, int end, boolean last) {
+        // Like MiniMessageParser.findClose: each '>' is searched for once
+        int nextClose = -1;
+        boolean noClose = false;
+        int i = start;
+
+        while (i < end) {
+            if (text.length() >= BUFFER_SIZE) {
+                flushText();
+            }
+
+            char c = input.charAt(i);
+
+            if (c == '\\' || c == '&') {
+                if (i + 1 == end) {
+                    if (!last) {
+                        break;
+                    }
+                    text.append(c);
+                    i++;
+                    continue;
+                }
+
+                char next = input.charAt(i + 1);
+                if (c == '\\' && (next == '<' || next == '>')) {
+                    text.append(next);
+                    i += 2;
+                    continue;
+                }
+                if (c == '&') {
+                    char code = Character.toLowerCase(next);
+                    TagToken.Type type = MiniMessageParser.minecraftCodeType(code);
+                    if (type != null) {
+                        legacyCode(code, type);
+                        i += 2;
+                        continue;
+                    }
+                }
+            } else if (c == '{' || c == '%') {
+                int slotEnd = slotEnd(input, i, end, last);
+                if (slotEnd == NEED_MORE) {
+                    if (end - i <= MAX_TAG_LENGTH) {
+                        break;
+                    }
+                    slotEnd = -1;
+                }
+                if (slotEnd != -1) {
+                    flushText();
+                    visitor.onPlaceholder(input.subSequence(i, slotEnd).toString());
+                    i = slotEnd;
+                    continue;
+                }
+            } else if (c == '<') {
+                int close = -1;
+                if (nextClose > i) {
+                    close = nextClose;
+                } else if (!noClose) {
+                    int from = i + 1;
+                    if (i == start) {
+                        from += searchedClose;
+                    }
+                    close = indexOf(input, '>', from, end);
+                    noClose = close == -1;
+                    nextClose = close;
+                }
+                searchedClose = 0;
+
+                if (close != -1) {
+                    tag(input, i + 1, close);
+                    i = close + 1;
+                    continue;
+                }
+                if (!last && end - i <= MAX_TAG_LENGTH) {
+                    searchedClose = end - i - 1;
+                    break;
+                }
+                // Never closed: a plain '<'
+            }
+
+            text.append(c);
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * Report the tag {@code input[start, end)}, the same way {@link MiniMessageParser} adds it.
+     */
+    private void tag(CharSequence input, int start, int end) {
+        if (start >= end) {
+            return;
+        }
+
+        if (input.charAt(start) == '/') {
+            // The root is never closed
+            if (depth > 0) {
+                flushText();
+                visitor.onClose(stack[--depth]);
+            }
+            return;
+        }
+
+        if (MiniMessageParser.isGradientTag(input, start, end)) {
+            open(TagToken.Type.GRADIENT, "gradient", TokenTable.split(input, start + 9, end, ':'));
+            return;
+        }
+
+        if (TagNames.startsWithIgnoreCase(input, start, end, "click:")) {
+            int urlStart = start + 6;
+            int urlEnd = end;
+            while (urlStart < urlEnd && input.charAt(urlStart) <= ' ') urlStart++;
+            while (urlEnd > urlStart && input.charAt(urlEnd - 1) <= ' ') urlEnd--;
+            open(TagToken.Type.CLICK, "click", new String[]{input.subSequence(urlStart, urlEnd).toString()});
+            return;
+        }
+
+        TagNames.Entry entry = TagNames.lookup(input, start, end);
+        if (entry == null) {
+            entry = TagNames.lookupColor(input, start, end);
+        }
+        if (entry != null) {
+            open(entry.type, entry.name, NO_ARGS);
+            return;
+        }
+
+        if (ColorRegistry.parseLiteralArgb(input, start, end) != ColorRegistry.NO_COLOR) {
+            open(TagToken.Type.COLOR, input.subSequence(start, end).toString(), NO_ARGS);
+            return;
+        }
+
+        // Not a tag we know: kept as written
+        text.append('<').append(input, start, end).append('>');
+    }
+
+    private void open(TagToken.Type type, String tag, String[] args) {
+        flushText();
+        push(type);
+        visitor.onOpen(type, tag, args);
+    }
+
+    private void legacyCode(char code, TagToken.Type type) {
+        flushText();
+        String tag = switch (type) {
+            case COLOR -> MiniMessageParser.minecraftColorName(code);
+            case BOLD -> "bold";
+            case UNDERLINE -> "underline";
+            case ITALIC -> "italic";
+            case RESET -> "reset";
+            default -> null;
+        };
+
+        if (type != TagToken.Type.TEXT) {
+            push(type);
+        }
+        visitor.onLegacyCode(code, type, tag);
+    }
+
+    private void push(TagToken.Type type) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = type;
+    }
+
+    private void flushText() {
+        if (!text.isEmpty()) {
+            visitor.onText(text);
+            text.setLength(0);
+        }
+    }
+
+    private static int indexOf(CharSequence input, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same as {@link MiniMessageParser#slotEnd}, on a range that may be cut short.
+     *
+     * @return the index just after the slot, -1 if no slot starts there, or
+     * {@link #NEED_MORE} if that depends on input after {@code end}
+     */
+    private static int slotEnd(CharSequence input, int start, int end, boolean last) {
+        int needMore = last ? -1 : NEED_MORE;
+        char open = input.charAt(start);
+
+        int depth = 1;
+        int i = start + 1;
+        if (open == '{') {
+            while (i < end && input.charAt(i) == '{') {
+                if (++depth > MiniMessageParser.MAX_SLOT_DEPTH) {
+                    return -1;
+                }
+                i++;
+            }
+        }
+
+        int nameStart = i;
+        while (i < end && MiniMessageParser.isSlotNameChar(input.charAt(i))) {
+            i++;
+        }
+        if (i == end) {
+            return needMore;
+        }
+        if (i == nameStart) {
+            return -1;
+        }
+
+        char close = open == '{' ? '}' : '%';
+        for (int d = 0; d < depth; d++, i++) {
+            if (i == end) {
+                return needMore;
+            }
+            if (input.charAt(i) != close) {
+                return -1;
+            }
+        }
+
+        if (open == '{') {
+            if (i == end) {
+                return last ? i : NEED_MORE;
+            }
+            if (input.charAt(i) == '}') {
+                return -1;
+            }
+        }
+
+        return i;
+    }
+
+}
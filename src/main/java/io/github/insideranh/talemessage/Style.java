@@ -0,0 +1,214 @@
+package io.github.insideranh.talemessage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable formatting state: a packed color plus a bitmask of decorations.
+ *
+ * <p>Styles are interned, so equal styles are normally the same instance and can be
+ * compared with {@code ==}. Applying a tag ({@link #withFlag(int)}, {@link #withColor(int)})
+ * is a cached transition: walking a tree does not allocate styles once the ones it uses
+ * have been seen.</p>
+ *
+ * <pre>{@code
+ * Style style = Style.EMPTY.withColor(ColorRegistry.getColorArgb("red")).withFlag(Style.BOLD);
+ * style.isBold(); // true
+ * }</pre>
+ */
+public final class Style {
+
+    public static final int BOLD = 1;
+    public static final int ITALIC = 1 << 1;
+    public static final int UNDERLINE = 1 << 2;
+    public static final int MONOSPACE = 1 << 3;
+
+    private static final int FLAG_COUNT = 4;
+    private static final int COLOR_TRANSITIONS = 4;
+    private static final int ALL_FLAGS = (1 << FLAG_COUNT) - 1;
+
+    // Past this many distinct colored styles new ones are still correct, just not interned
+    private static final int MAX_INTERNED = 4096;
+
+    private static final Style[] UNCOLORED = new Style[1 << FLAG_COUNT];
+    private static final Map<Long, Style> INTERNED = new ConcurrentHashMap<>();
+
+    static {
+        for (int flags = 0; flags < UNCOLORED.length; flags++) {
+            UNCOLORED[flags] = new Style(ColorRegistry.NO_COLOR, flags);
+        }
+    }
+
+    /**
+     * No color and no decorations.
+     */
+    public static final Style EMPTY = UNCOLORED[0];
+
+    private final int color;
+    private final int flags;
+
+    // Transition caches; racing threads can only store the same interned instance
+    private final Style[] withFlag = new Style[FLAG_COUNT];
+    private final ColorTransition[] withColor = new ColorTransition[COLOR_TRANSITIONS];
+    private Style rendered;
+
+    private Style(int color, int flags) {
+        this.color = color;
+        this.flags = flags;
+    }
+
+    /**
+     * @param color a packed {@code 0xAARRGGBB} color or {@link ColorRegistry#NO_COLOR}
+     * @param flags any combination of {@link #BOLD}, {@link #ITALIC}, {@link #UNDERLINE} and {@link #MONOSPACE}
+     * @return the interned style
+     */
+    public static Style of(int color, int flags) {
+        flags &= ALL_FLAGS;
+        if (color == ColorRegistry.NO_COLOR) {
+            return UNCOLORED[flags];
+        }
+
+        Long key = ((long) color << 32) | flags;
+        Style style = INTERNED.get(key);
+        if (style != null) {
+            return style;
+        }
+
+        style = new Style(color, flags);
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return style;
+        }
+        Style previous = INTERNED.putIfAbsent(key, style);
+        return previous != null ? previous : style;
+    }
+
+    /**
+     * @param flag a single flag, e.g. {@link #BOLD}
+     * @return this style with {@code flag} set
+     */
+    public Style withFlag(int flag) {
+        if ((flags & flag) == flag) {
+            return this;
+        }
+
+        int index = Integer.numberOfTrailingZeros(flag);
+        if (Integer.bitCount(flag) != 1 || index >= FLAG_COUNT) {
+            return of(color, flags | flag);
+        }
+
+        Style next = withFlag[index];
+        if (next == null) {
+            next = of(color, flags | flag);
+            withFlag[index] = next;
+        }
+        return next;
+    }
+
+    /**
+     * @return this style without the given flags
+     */
+    public Style withoutFlags(int flags) {
+        return (this.flags & flags) == 0 ? this : of(color, this.flags & ~flags);
+    }
+
+    /**
+     * @param color a packed color, or {@link ColorRegistry#NO_COLOR} to clear it
+     * @return this style with its color replaced
+     */
+    public Style withColor(int color) {
+        if (color == this.color) {
+            return this;
+        }
+
+        int index = (color ^ (color >>> 8) ^ (color >>> 16)) & (COLOR_TRANSITIONS - 1);
+        ColorTransition transition = withColor[index];
+        if (transition != null && transition.color == color) {
+            return transition.style;
+        }
+
+        Style next = of(color, flags);
+        withColor[index] = new ColorTransition(color, next);
+        return next;
+    }
+
+    /**
+     * The style a Hytale Message actually shows: Messages have no underline, so
+     * underline is rendered as monospace.
+     */
+    public Style rendered() {
+        Style result = rendered;
+        if (result == null) {
+            result = (flags & UNDERLINE) == 0 ? this : of(color, (flags & ~UNDERLINE) | MONOSPACE);
+            rendered = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the packed color, or {@link ColorRegistry#NO_COLOR}
+     */
+    public int getColor() {
+        return color;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public boolean hasColor() {
+        return color != ColorRegistry.NO_COLOR;
+    }
+
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean isBold() {
+        return (flags & BOLD) != 0;
+    }
+
+    public boolean isItalic() {
+        return (flags & ITALIC) != 0;
+    }
+
+    public boolean isUnderlined() {
+        return (flags & UNDERLINE) != 0;
+    }
+
+    public boolean isMonospace() {
+        return (flags & MONOSPACE) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Style other)) return false;
+        return color == other.color && flags == other.flags;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * color + flags;
+    }
+
+    @Override
+    public String toString() {
+        return "Style{" +
+                "color=" + (hasColor() ? String.format("#%08X", color) : "none") +
+                ", flags=" + flags +
+                '}';
+    }
+
+    private static final class ColorTransition {
+
+        private final int color;
+        private final Style style;
+
+        private ColorTransition(int color, Style style) {
+            this.color = color;
+            this.style = style;
+        }
+
+    }
+
+}
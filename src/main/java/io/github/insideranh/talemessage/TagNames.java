@@ -0,0 +1,119 @@
+package io.github.insideranh.talemessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Case-insensitive lookup of tag names directly on a range of the input,
+ * so recognising {@code <bold>} or {@code <RED>} needs no substring or lowercase copy.
+ *
+ * <p>Names are bucketed by length and compared char by char, first char first.</p>
+ */
+final class TagNames {
+
+    static final class Entry {
+
+        final String name;
+        final TagToken.Type type;
+
+        Entry(String name, TagToken.Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+    }
+
+    private static final Entry[][] BY_LENGTH;
+
+    static {
+        List<Entry> entries = new ArrayList<>();
+        add(entries, TagToken.Type.BOLD, "bold", "b");
+        add(entries, TagToken.Type.ITALIC, "italic", "i", "em");
+        add(entries, TagToken.Type.UNDERLINE, "underline", "u");
+        add(entries, TagToken.Type.MONOSPACE, "monospace", "mono");
+        for (String color : ColorRegistry.namedColors()) {
+            entries.add(new Entry(color, TagToken.Type.COLOR));
+        }
+
+        int maxLength = 0;
+        for (Entry entry : entries) {
+            maxLength = Math.max(maxLength, entry.name.length());
+        }
+
+        List<List<Entry>> buckets = new ArrayList<>();
+        for (int i = 0; i <= maxLength; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (Entry entry : entries) {
+            buckets.get(entry.name.length()).add(entry);
+        }
+
+        BY_LENGTH = new Entry[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            BY_LENGTH[i] = buckets.get(i).toArray(new Entry[0]);
+        }
+    }
+
+    private TagNames() {
+    }
+
+    private static void add(List<Entry> entries, TagToken.Type type, String... names) {
+        for (String name : names) {
+            entries.add(new Entry(name, type));
+        }
+    }
+
+    /**
+     * Find the tag named exactly {@code input[start, end)}, ignoring case.
+     *
+     * @return the entry, or null if it is not a known name
+     */
+    static Entry lookup(CharSequence input, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length >= BY_LENGTH.length) {
+            return null;
+        }
+
+        for (Entry entry : BY_LENGTH[length]) {
+            if (equalsIgnoreCase(input, start, entry.name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find a named color in {@code input[start, end)}, ignoring case and surrounding whitespace
+     * like {@link ColorRegistry#getColorArgb(String)} does.
+     *
+     * @return the entry, or null if it is not a named color
+     */
+    static Entry lookupColor(CharSequence input, int start, int end) {
+        // Same whitespace as String.trim(), which getColorArgb uses
+        while (start < end && input.charAt(start) <= ' ') start++;
+        while (end > start && input.charAt(end - 1) <= ' ') end--;
+
+        Entry entry = lookup(input, start, end);
+        return entry != null && entry.type == TagToken.Type.COLOR ? entry : null;
+    }
+
+    /**
+     * @param lowerPrefix the prefix, already in lower case
+     * @return true if {@code input[start, end)} starts with {@code lowerPrefix}, ignoring case
+     */
+    static boolean startsWithIgnoreCase(CharSequence input, int start, int end, String lowerPrefix) {
+        return end - start >= lowerPrefix.length() && equalsIgnoreCase(input, start, lowerPrefix);
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence input, int start, String lowerName) {
+        for (int i = 0; i < lowerName.length(); i++) {
+            char c = input.charAt(start + i);
+            char expected = lowerName.charAt(i);
+            if (c != expected && Character.toLowerCase(c) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -14,14 +14,21 @@ public class TagToken {
         MONOSPACE,      // <monospace>, <mono>
         GRADIENT,       // <gradient:color1:color2:...>
         CLICK,          // <click:URL>
+        PLACEHOLDER,    // {player}, {{player}}, %player% slots filled at build time
         RESET           // </...> closing tags
     }
 
+    private static final String[] NO_ARGS = new String[0];
+
     private final Type type;
     private final String content;
     private final String[] args;
     private final List<TagToken> children;
 
+    public TagToken(Type type, String content) {
+        this(type, content, NO_ARGS);
+    }
+
     public TagToken(Type type, String content, String... args) {
         this.type = type;
         this.content = content;
@@ -0,0 +1,73 @@
+package io.github.insideranh.talemessage;
+
+/**
+ * Callbacks for {@link StreamingParser}, called in document order.
+ *
+ * <p>Events follow the same rules as {@link MiniMessageParser}: a closing tag closes the
+ * innermost open tag whatever its name, legacy codes stay open until a closing tag, and
+ * tags that are not recognised are reported as text. All methods do nothing by default.</p>
+ *
+ * <pre>{@code
+ * StreamingParser.parse(reader, new TagVisitor() {
+ *     @Override
+ *     public void onText(CharSequence text) {
+ *         out.append(text);
+ *     }
+ * });
+ * }</pre>
+ */
+public interface TagVisitor {
+
+    /**
+     * Plain text, with escapes already resolved. Consecutive calls are possible; the
+     * sequence is only valid during the call, so copy it to keep it.
+     */
+    default void onText(CharSequence text) {
+    }
+
+    /**
+     * A placeholder slot such as {@code {player}} or {@code %player%}. Reported as text by default.
+     *
+     * @param key the slot as written, braces or percent signs included
+     */
+    default void onPlaceholder(String key) {
+        onText(key);
+    }
+
+    /**
+     * An opening tag.
+     *
+     * @param type the node type the tag creates: COLOR, BOLD, ITALIC, UNDERLINE, MONOSPACE, GRADIENT or CLICK
+     * @param tag  the tag name: the lower case name for named tags and colors ({@code "bold"},
+     *             {@code "red"}), the color as written for hex and RGB colors, {@code "gradient"} or {@code "click"}
+     * @param args the gradient colors, the click URL, or an empty array
+     */
+    default void onOpen(TagToken.Type type, String tag, String[] args) {
+    }
+
+    /**
+     * A closing tag that closed the innermost open tag or legacy code.
+     *
+     * @param type the type that was closed
+     */
+    default void onClose(TagToken.Type type) {
+    }
+
+    /**
+     * A legacy {@code &} code. Codes other than {@code &k} and {@code &m} stay open like a tag,
+     * and are closed by the next closing tag.
+     *
+     * @param code the code, in lower case
+     * @param type COLOR, BOLD, UNDERLINE, ITALIC, RESET, or TEXT for codes without effect
+     * @param tag  the equivalent tag name, e.g. {@code "green"} for {@code &a}, or null for TEXT
+     */
+    default void onLegacyCode(char code, TagToken.Type type, String tag) {
+    }
+
+    /**
+     * The end of the input. Tags that are still open are not closed.
+     */
+    default void onEnd() {
+    }
+
+}
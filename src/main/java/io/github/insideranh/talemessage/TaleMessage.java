@@ -2,7 +2,15 @@ package io.github.insideranh.talemessage;
 
 import com.hypixel.hytale.server.core.Message;
 import io.github.insideranh.talemessage.placeholders.Placeholder;
+import io.github.insideranh.talemessage.utils.BatchProcessor;
 import io.github.insideranh.talemessage.utils.LanguageUtils;
+import io.github.insideranh.talemessage.utils.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * TaleMessage - A MiniMessage-style formatting API for Hytale
@@ -26,6 +34,9 @@ import io.github.insideranh.talemessage.utils.LanguageUtils;
  */
 public class TaleMessage {
 
+    private static volatile LruCache<String, CompiledMessage> parseCache;
+    private static volatile AsyncRenderer asyncRenderer;
+
     /**
      * Parse a MiniMessage formatted string into a Hytale Message.
      *
@@ -83,10 +94,10 @@ public class TaleMessage {
         }
 
         try {
-            TagToken root = MiniMessageParser.parse(input);
-            return MessageBuilder.build(root);
+            return compiled(input).build();
         } catch (Exception e) {
             // Fallback to raw text if parsing fails
+            TaleMessageMetrics.recordFallback(e);
             return Message.raw(input);
         }
     }
@@ -148,11 +159,88 @@ public class TaleMessage {
         }
 
         try {
-            TagToken root = MiniMessageParser.parse(LanguageUtils.replacePlaceholders(input, placeholders));
-            return MessageBuilder.build(root);
+            return compiled(input).build(placeholders);
+        } catch (Exception e) {
+            // Fallback to raw text if parsing fails
+            TaleMessageMetrics.recordFallback(e);
+            return fallback(input, placeholders);
+        }
+    }
+
+    /**
+     * Parse every string of a list, like {@link #parse(String, Placeholder...)}.
+     *
+     * <p>Short lists are parsed on the calling thread. Large ones (e.g. a whole language file)
+     * are split into chunks of similar length and parsed on the common fork-join pool too.</p>
+     *
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * List<Message> help = TaleMessage.parseAll(helpLines, new Placeholder("{player}", name));
+     * }</pre>
+     *
+     * @param inputs       the MiniMessage formatted strings
+     * @param placeholders the placeholder values, applied to every string
+     * @return the Messages, in input order
+     */
+    public static List<Message> parseAll(List<String> inputs, Placeholder... placeholders) {
+        return parseAll(inputs, null, placeholders);
+    }
+
+    /**
+     * Same as {@link #parseAll(List, Placeholder...)}, running large lists on {@code executor}.
+     *
+     * @param executor where large lists are parsed, or {@code null} for the common fork-join pool
+     */
+    public static List<Message> parseAll(List<String> inputs, Executor executor, Placeholder... placeholders) {
+        if (inputs == null || inputs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return BatchProcessor.map(inputs, input -> parse(input, placeholders), executor);
+    }
+
+    /**
+     * Parse one template for many placeholder sets, e.g. a personalised broadcast.
+     *
+     * <p>The template is parsed once and its parts without placeholders are built once,
+     * so the cost per recipient grows with the placeholders, not with the message.
+     * See {@link CompiledMessage#buildForEach(List)}.</p>
+     *
+     * <p><b>Do not modify the results.</b> Those parts are the same Message instances in
+     * every result, so a change made to one result shows up in all of them. Send them as
+     * they are, and use {@link #parse(String, Placeholder...)} for a Message you want to
+     * change.</p>
+     *
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * List<Placeholder[]> sets = new ArrayList<>();
+     * for (Player player : online) {
+     *     sets.add(new Placeholder[]{new Placeholder("{player}", player.getName())});
+     * }
+     * List<Message> messages = TaleMessage.parseForEach("<gold>Welcome back, {player}!", sets);
+     * }</pre>
+     *
+     * @param input           the MiniMessage formatted template
+     * @param placeholderSets one placeholder array per result
+     * @return the Messages, in the order of {@code placeholderSets}
+     */
+    public static List<Message> parseForEach(String input, List<Placeholder[]> placeholderSets) {
+        if (placeholderSets == null || placeholderSets.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            return compiled(input == null ? "" : input).buildForEach(placeholderSets);
         } catch (Exception e) {
             // Fallback to raw text if parsing fails
-            return Message.raw(LanguageUtils.replacePlaceholders(input, placeholders));
+            TaleMessageMetrics.recordFallback(e);
+            List<Message> results = new ArrayList<>(placeholderSets.size());
+            for (Placeholder[] placeholders : placeholderSets) {
+                results.add(input == null || input.isEmpty()
+                        ? Message.empty()
+                        : fallback(input, placeholders));
+            }
+            return results;
         }
     }
 
@@ -213,10 +301,10 @@ public class TaleMessage {
         }
 
         try {
-            TagToken root = MiniMessageParser.parse(input);
-            return MessageBuilder.build(root);
+            return compiled(input).build();
         } catch (Exception e) {
             // Fallback to raw text if parsing fails
+            TaleMessageMetrics.recordFallback(e);
             return Message.raw(input);
         }
     }
@@ -278,58 +366,300 @@ public class TaleMessage {
         }
 
         try {
-            TagToken root = MiniMessageParser.parse(LanguageUtils.replacePlaceholders(input, placeholders));
-            return MessageBuilder.build(root);
+            return compiled(input).build(placeholders);
         } catch (Exception e) {
             // Fallback to raw text if parsing fails
-            return Message.raw(LanguageUtils.replacePlaceholders(input, placeholders));
+            TaleMessageMetrics.recordFallback(e);
+            return fallback(input, placeholders);
         }
     }
 
     /**
-     * Strip all MiniMessage tags from a string, leaving only plain text.
+     * Compile a MiniMessage formatted string into a reusable template.
+     *
+     * <p>The string is lexed and turned into a token tree once; every
+     * {@link CompiledMessage#build()} afterwards only builds the Message. Use this for
+     * strings that are sent many times, such as messages loaded from a config file.</p>
      *
      * <p><b>Example:</b></p>
      * <pre>{@code
-     * String plain = TaleMessage.strip("<red>Hello <bold>World</bold></red>");
-     * // Returns: "Hello World"
+     * CompiledMessage welcome = TaleMessage.compile("<green>Welcome to the server!</green>");
+     * Message msg = welcome.build();
      * }</pre>
      *
      * @param input the MiniMessage formatted string
-     * @return the plain text without any formatting tags
+     * @return an immutable, thread-safe compiled template
      */
-    public static String strip(String input) {
+    public static CompiledMessage compile(String input) {
+        return CompiledMessage.compile(input);
+    }
+
+    /**
+     * Compile like {@link #compile(String)}, but fail on markup errors instead of showing
+     * them as text. Use it where messages are loaded, so broken ones are found at startup
+     * rather than by players.
+     *
+     * @param input the MiniMessage formatted string
+     * @return an immutable, thread-safe compiled template
+     * @throws MessageSyntaxException if the input has {@link Diagnostic.Severity#ERROR} diagnostics
+     */
+    public static CompiledMessage compileStrict(String input) {
+        return compileStrict(input, false);
+    }
+
+    /**
+     * Compile like {@link #compileStrict(String)}, optionally failing on warnings too.
+     *
+     * @param failOnWarnings also fail on {@link Diagnostic.Severity#WARNING} diagnostics, e.g. a lone {@code <}
+     * @throws MessageSyntaxException if the input has diagnostics of a failing severity
+     */
+    public static CompiledMessage compileStrict(String input, boolean failOnWarnings) {
+        String source = input == null ? "" : input;
+        if (MiniMessageParser.isPlainText(source)) {
+            return CompiledMessage.compile(source);
+        }
+
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        TokenTable tokens = MiniMessageParser.parseTable(source, diagnostics);
+        if (!diagnostics.isEmpty()) {
+            List<Diagnostic> failures = new ArrayList<>(diagnostics.size());
+            for (Diagnostic diagnostic : diagnostics) {
+                if (failOnWarnings || diagnostic.isError()) {
+                    failures.add(diagnostic);
+                }
+            }
+            if (!failures.isEmpty()) {
+                throw new MessageSyntaxException(source, failures);
+            }
+        }
+        return new CompiledMessage(source, tokens);
+    }
+
+    /**
+     * Parse like {@link #parse(String, Placeholder...)}, and also report what was wrong with
+     * the input. Never throws, not even if a lazy placeholder does, and does not go through
+     * the parse cache.
+     *
+     * <p>Diagnostics are about the input as written. Placeholder values are inserted as text
+     * and not checked, except values of slots inside tags, which are substituted before
+     * parsing like {@link CompiledMessage#build(Placeholder...)} does.</p>
+     *
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * ParseResult result = TaleMessage.parseWithDiagnostics(chatFormat, new Placeholder("{player}", name));
+     * player.sendMessage(result.getMessage());
+     * if (result.hasErrors()) {
+     *     logger.warning("Bad chat format: " + result.getDiagnostics());
+     * }
+     * }</pre>
+     *
+     * @param input        the MiniMessage formatted string
+     * @param placeholders the placeholder values
+     * @return the Message and the diagnostics of {@code input}
+     */
+    public static ParseResult parseWithDiagnostics(String input, Placeholder... placeholders) {
         if (input == null || input.isEmpty()) {
-            return "";
+            return new ParseResult(Message.empty(), List.of());
         }
 
-        StringBuilder result = new StringBuilder();
-        int pos = 0;
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        Message message;
+        try {
+            CompiledMessage compiled = MiniMessageParser.isPlainText(input)
+                    ? CompiledMessage.compile(input)
+                    : new CompiledMessage(input, MiniMessageParser.parseTable(input, diagnostics));
+            message = compiled.build(placeholders);
+        } catch (Exception e) {
+            TaleMessageMetrics.recordFallback(e);
+            message = fallback(input, placeholders);
+        }
+        return new ParseResult(message, diagnostics.isEmpty() ? List.of() : Collections.unmodifiableList(diagnostics));
+    }
 
-        while (pos < input.length()) {
-            char c = input.charAt(pos);
+    /**
+     * Parse like {@link #parse(String, Placeholder...)}, off the calling thread.
+     *
+     * <p>Runs on the renderer set with {@link #setAsyncRenderer(AsyncRenderer)}, by default
+     * one on virtual threads that renders on the calling thread when
+     * {@value AsyncRenderer#DEFAULT_MAX_PENDING} renders are already pending. The future is
+     * completed on the render thread.</p>
+     *
+     * @param input        the MiniMessage formatted string
+     * @param placeholders the placeholder values
+     * @return the Message, once built
+     */
+    public static CompletableFuture<Message> renderAsync(String input, Placeholder... placeholders) {
+        return getAsyncRenderer().render(input, placeholders);
+    }
 
-            // Handle escape sequences
-            if (c == '\\' && pos + 1 < input.length() && (input.charAt(pos + 1) == '<' || input.charAt(pos + 1) == '>')) {
-                result.append(input.charAt(pos + 1));
-                pos += 2;
-                continue;
-            }
+    /**
+     * Same as {@link #renderAsync(String, Placeholder...)}, completing the future on {@code delivery}.
+     *
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * TaleMessage.renderAsync(bookPage, world, new Placeholder("{player}", name))
+     *         .thenAccept(player::sendMessage);
+     * }</pre>
+     *
+     * @param delivery where the future is completed, e.g. the world the result is sent from
+     */
+    public static CompletableFuture<Message> renderAsync(String input, Executor delivery, Placeholder... placeholders) {
+        return getAsyncRenderer().render(input, delivery, placeholders);
+    }
 
-            // Skip tags
-            if (c == '<') {
-                int closePos = input.indexOf('>', pos);
-                if (closePos != -1) {
-                    pos = closePos + 1;
-                    continue;
-                }
+    /**
+     * Replace the renderer behind {@link #renderAsync(String, Placeholder...)}. The previous
+     * renderer is not closed.
+     *
+     * @param renderer the renderer; {@code null} restores the default
+     */
+    public static void setAsyncRenderer(AsyncRenderer renderer) {
+        asyncRenderer = renderer;
+    }
+
+    /**
+     * @return the renderer behind {@link #renderAsync(String, Placeholder...)}
+     */
+    public static AsyncRenderer getAsyncRenderer() {
+        AsyncRenderer renderer = asyncRenderer;
+        return renderer != null ? renderer : DefaultAsyncRenderer.INSTANCE;
+    }
+
+    /**
+     * Enable a size-bounded LRU cache of compiled templates behind {@link #parse(String)}
+     * and {@link #raw(String)}, keyed by the input string.
+     *
+     * <p>Calling this again replaces the current cache and resets its counters.</p>
+     *
+     * @param maxSize the maximum number of distinct strings kept compiled
+     */
+    public static void enableParseCache(int maxSize) {
+        parseCache = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Disable and drop the parse cache. Parsing goes back to compiling on every call.
+     */
+    public static void disableParseCache() {
+        parseCache = null;
+    }
+
+    /**
+     * @return true if {@link #enableParseCache(int)} is in effect
+     */
+    public static boolean isParseCacheEnabled() {
+        return parseCache != null;
+    }
+
+    /**
+     * @return the number of parse cache hits, or 0 if the cache is disabled
+     */
+    public static long getParseCacheHits() {
+        LruCache<String, CompiledMessage> cache = parseCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    /**
+     * @return the number of parse cache misses, or 0 if the cache is disabled
+     */
+    public static long getParseCacheMisses() {
+        LruCache<String, CompiledMessage> cache = parseCache;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    /**
+     * Choose the shape of the Messages built by this class and by {@link CompiledMessage}.
+     *
+     * <p>{@link BuildMode#TREE} (the default) nests one Message per tag.
+     * {@link BuildMode#FLAT} renders the same text as a single level of style runs,
+     * which means fewer Message objects to create and send.</p>
+     *
+     * @param mode the build mode; {@code null} restores the default
+     */
+    public static void setBuildMode(BuildMode mode) {
+        MessageBuilder.setDefaultMode(mode);
+    }
+
+    /**
+     * @return the build mode set with {@link #setBuildMode(BuildMode)}
+     */
+    public static BuildMode getBuildMode() {
+        return MessageBuilder.getDefaultMode();
+    }
+
+    private static CompiledMessage compiled(String input) {
+        LruCache<String, CompiledMessage> cache = parseCache;
+        CompileEvent event = new CompileEvent();
+        if (!event.isEnabled()) {
+            return cache == null ? CompiledMessage.compile(input) : cache.get(input, CompiledMessage::compile);
+        }
+
+        event.begin();
+        CompiledMessage compiled;
+        if (cache == null) {
+            compiled = CompiledMessage.compile(input);
+        } else {
+            event.cacheHit = true;
+            compiled = cache.get(input, key -> {
+                event.cacheHit = false;
+                return CompiledMessage.compile(key);
+            });
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputLength = input.length();
+            event.plainText = compiled.isPlainText();
+            event.commit();
+        }
+        return compiled;
+    }
+
+    /**
+     * The Message used when building {@code input} failed: the input as text, with the values
+     * of eager placeholders. Lazy ones keep their key, since their resolver may be what failed
+     * and must not run twice. Also the text {@link AsyncRenderer} falls back to, where
+     * resolvers must not run on the submitting thread.
+     */
+    static Message fallback(String input, Placeholder[] placeholders) {
+        if (placeholders == null || placeholders.length == 0) {
+            return Message.raw(input);
+        }
+
+        List<Placeholder> eager = new ArrayList<>(placeholders.length);
+        for (Placeholder placeholder : placeholders) {
+            if (placeholder != null && !placeholder.isLazy()) {
+                eager.add(placeholder);
             }
+        }
+        try {
+            return Message.raw(LanguageUtils.replacePlaceholders(input, eager.toArray(new Placeholder[0])));
+        } catch (Exception e) {
+            return Message.raw(input);
+        }
+    }
 
-            result.append(c);
-            pos++;
+    /**
+     * Strip all MiniMessage tags from a string, leaving only plain text.
+     *
+     * <p>Legacy {@code &} codes and escapes are handled like {@link #parse(String)} does, and tags
+     * it does not recognise are kept. The input itself is returned if it has no markup.</p>
+     *
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * String plain = TaleMessage.strip("<red>Hello <bold>World</bold></red>");
+     * // Returns: "Hello World"
+     * }</pre>
+     *
+     * @param input the MiniMessage formatted string
+     * @return the plain text without any formatting tags
+     */
+    public static String strip(String input) {
+        if (input == null || input.isEmpty()) {
+            return "";
         }
 
-        return result.toString();
+        return MiniMessageParser.strip(input);
     }
 
     /**
@@ -390,4 +720,9 @@ public class TaleMessage {
         return parse("<gradient:" + colorList + ">" + text + "</gradient>");
     }
 
-}
\ No newline at end of file
+    // Created on first use, so servers that never render asynchronously start no executor
+    private static final class DefaultAsyncRenderer {
+        private static final AsyncRenderer INSTANCE = AsyncRenderer.builder().build();
+    }
+
+}
@@ -0,0 +1,401 @@
+package io.github.insideranh.talemessage;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional counters and latency histograms for TaleMessage, off by default.
+ *
+ * <p>While disabled, instrumented code only reads one static field and skips the rest: no
+ * clock reads, no counting. While enabled, all counters are {@link LongAdder}s, so threads
+ * recording at the same time do not contend on a shared value.</p>
+ *
+ * <p>Histograms have power-of-two buckets: bucket {@code i} counts values in
+ * {@code [2^(i-1), 2^i)}, bucket 0 counts zeros. Latencies are in nanoseconds.</p>
+ *
+ * <pre>{@code
+ * TaleMessageMetrics metrics = TaleMessageMetrics.enable();
+ * ...
+ * TaleMessageMetrics.Snapshot snapshot = metrics.snapshot();
+ * logger.info("parse p99 " + snapshot.latency(TaleMessageMetrics.Stage.PARSE).percentile(0.99) + " ns, "
+ *         + snapshot.getFallbacks() + " fallbacks");
+ * }</pre>
+ */
+public final class TaleMessageMetrics {
+
+    /**
+     * A timed step of producing a Message.
+     */
+    public enum Stage {
+        /**
+         * Turning MiniMessage input into a token table.
+         */
+        PARSE,
+        /**
+         * Substituting placeholder values into a string before it is parsed.
+         */
+        REPLACE,
+        /**
+         * Building a Message from a token table.
+         */
+        BUILD
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    // Read on every instrumented call; null while disabled
+    private static volatile TaleMessageMetrics active;
+
+    private final Histogram[] latencies = new Histogram[STAGES.length];
+    private final Histogram nodes = new Histogram();
+    private final LongAdder gradientCharacters = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final Map<Class<?>, LongAdder> fallbackTypes = new ConcurrentHashMap<>();
+
+    // The cache counters are kept by the caches themselves, these are their values at reset()
+    private volatile long parseCacheHitsBase;
+    private volatile long parseCacheMissesBase;
+    private volatile long gradientCacheHitsBase;
+    private volatile long gradientCacheMissesBase;
+
+    private TaleMessageMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+        }
+        resetCacheBase();
+    }
+
+    /**
+     * Start recording into a new, empty instance, replacing the current one if any.
+     *
+     * @return the instance now recording
+     */
+    public static TaleMessageMetrics enable() {
+        TaleMessageMetrics metrics = new TaleMessageMetrics();
+        active = metrics;
+        return metrics;
+    }
+
+    /**
+     * Stop recording. Instances keep their values and can still be read.
+     */
+    public static void disable() {
+        active = null;
+    }
+
+    public static boolean isEnabled() {
+        return active != null;
+    }
+
+    /**
+     * @return the instance currently recording, or null if metrics are disabled
+     */
+    public static TaleMessageMetrics get() {
+        return active;
+    }
+
+    /**
+     * Same as {@link #get()}, for instrumented code.
+     */
+    static TaleMessageMetrics active() {
+        return active;
+    }
+
+    /**
+     * Count a parse or build failure that was answered with the raw input.
+     */
+    public static void recordFallback(Throwable cause) {
+        TaleMessageMetrics metrics = active;
+        if (metrics != null) {
+            metrics.fallbacks.increment();
+            metrics.fallbackTypes.computeIfAbsent(cause.getClass(), type -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Record the duration of one call to {@code stage}, measured from {@code startNanos}.
+     */
+    public void recordLatency(Stage stage, long startNanos) {
+        latencies[stage.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    void recordNodes(int count) {
+        nodes.record(count);
+    }
+
+    void recordGradientCharacters(int count) {
+        gradientCharacters.add(count);
+    }
+
+    /**
+     * Set all values back to zero.
+     */
+    public void reset() {
+        for (Histogram histogram : latencies) {
+            histogram.reset();
+        }
+        nodes.reset();
+        gradientCharacters.reset();
+        fallbacks.reset();
+        fallbackTypes.clear();
+        resetCacheBase();
+    }
+
+    private void resetCacheBase() {
+        parseCacheHitsBase = TaleMessage.getParseCacheHits();
+        parseCacheMissesBase = TaleMessage.getParseCacheMisses();
+        gradientCacheHitsBase = GradientCache.hits();
+        gradientCacheMissesBase = GradientCache.misses();
+    }
+
+    /**
+     * Read all values. Counters are read one after the other while others may still be
+     * recording, so values of different counters can be off by the calls in flight.
+     */
+    public Snapshot snapshot() {
+        Map<Stage, Histogram.Snapshot> latencySnapshots = new EnumMap<>(Stage.class);
+        for (Stage stage : STAGES) {
+            latencySnapshots.put(stage, latencies[stage.ordinal()].snapshot());
+        }
+
+        Map<String, Long> types = new HashMap<>();
+        fallbackTypes.forEach((type, count) -> types.put(type.getName(), count.sum()));
+
+        return new Snapshot(latencySnapshots, nodes.snapshot(), gradientCharacters.sum(), fallbacks.sum(), types,
+                Math.max(0, TaleMessage.getParseCacheHits() - parseCacheHitsBase),
+                Math.max(0, TaleMessage.getParseCacheMisses() - parseCacheMissesBase),
+                Math.max(0, GradientCache.hits() - gradientCacheHitsBase),
+                Math.max(0, GradientCache.misses() - gradientCacheMissesBase));
+    }
+
+    /**
+     * Lock-free histogram with power-of-two buckets.
+     */
+    public static final class Histogram {
+
+        static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder sum = new LongAdder();
+
+        public Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @param value a non-negative value; negative values count as zero
+         */
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            buckets[bucket(value)].increment();
+            sum.add(value);
+        }
+
+        static int bucket(long value) {
+            return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+        }
+
+        public void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            sum.reset();
+        }
+
+        public Snapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return new Snapshot(counts, sum.sum());
+        }
+
+        public static final class Snapshot {
+
+            private final long[] buckets;
+            private final long count;
+            private final long sum;
+
+            private Snapshot(long[] buckets, long sum) {
+                this.buckets = buckets;
+                this.sum = sum;
+                long count = 0;
+                for (long bucket : buckets) {
+                    count += bucket;
+                }
+                this.count = count;
+            }
+
+            public long getCount() {
+                return count;
+            }
+
+            public long getSum() {
+                return sum;
+            }
+
+            public double getMean() {
+                return count == 0 ? 0 : (double) sum / count;
+            }
+
+            /**
+             * @return the bucket counts; bucket {@code i} holds values below {@code 2^i}
+             */
+            public long[] getBuckets() {
+                return buckets.clone();
+            }
+
+            /**
+             * @param quantile between 0 and 1, e.g. 0.99
+             * @return the upper bound of the bucket holding that quantile, 0 if empty
+             */
+            public long percentile(double quantile) {
+                if (count == 0) {
+                    return 0;
+                }
+
+                long rank = (long) Math.ceil(Math.max(0, Math.min(1, quantile)) * count);
+                long seen = 0;
+                for (int i = 0; i < buckets.length; i++) {
+                    seen += buckets[i];
+                    if (seen >= Math.max(1, rank)) {
+                        return i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                    }
+                }
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public String toString() {
+                return "Histogram{" +
+                        "count=" + count +
+                        ", mean=" + String.format("%.1f", getMean()) +
+                        ", p50=" + percentile(0.5) +
+                        ", p99=" + percentile(0.99) +
+                        '}';
+            }
+        }
+
+    }
+
+    /**
+     * Values of a {@link TaleMessageMetrics} at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final Map<Stage, Histogram.Snapshot> latencies;
+        private final Histogram.Snapshot nodes;
+        private final long gradientCharacters;
+        private final long fallbacks;
+        private final Map<String, Long> fallbackTypes;
+        private final long parseCacheHits;
+        private final long parseCacheMisses;
+        private final long gradientCacheHits;
+        private final long gradientCacheMisses;
+
+        private Snapshot(Map<Stage, Histogram.Snapshot> latencies, Histogram.Snapshot nodes, long gradientCharacters,
+                         long fallbacks, Map<String, Long> fallbackTypes, long parseCacheHits, long parseCacheMisses,
+                         long gradientCacheHits, long gradientCacheMisses) {
+            this.latencies = latencies;
+            this.nodes = nodes;
+            this.gradientCharacters = gradientCharacters;
+            this.fallbacks = fallbacks;
+            this.fallbackTypes = Collections.unmodifiableMap(fallbackTypes);
+            this.parseCacheHits = parseCacheHits;
+            this.parseCacheMisses = parseCacheMisses;
+            this.gradientCacheHits = gradientCacheHits;
+            this.gradientCacheMisses = gradientCacheMisses;
+        }
+
+        /**
+         * @return the latencies of {@code stage}, in nanoseconds; its count is the number of calls
+         */
+        public Histogram.Snapshot latency(Stage stage) {
+            return latencies.get(stage);
+        }
+
+        /**
+         * @return the number of token nodes of each built message
+         */
+        public Histogram.Snapshot getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return the number of characters colored by gradients
+         */
+        public long getGradientCharacters() {
+            return gradientCharacters;
+        }
+
+        /**
+         * @return the number of calls answered with the raw input after an exception
+         */
+        public long getFallbacks() {
+            return fallbacks;
+        }
+
+        /**
+         * @return the fallback counts by exception class name
+         */
+        public Map<String, Long> getFallbackTypes() {
+            return fallbackTypes;
+        }
+
+        public long getParseCacheHits() {
+            return parseCacheHits;
+        }
+
+        public long getParseCacheMisses() {
+            return parseCacheMisses;
+        }
+
+        /**
+         * @return parse cache hits per lookup, or 0 if there were none
+         */
+        public double getParseCacheHitRatio() {
+            return ratio(parseCacheHits, parseCacheMisses);
+        }
+
+        public long getGradientCacheHits() {
+            return gradientCacheHits;
+        }
+
+        public long getGradientCacheMisses() {
+            return gradientCacheMisses;
+        }
+
+        public double getGradientCacheHitRatio() {
+            return ratio(gradientCacheHits, gradientCacheMisses);
+        }
+
+        private static double ratio(long hits, long misses) {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "TaleMessageMetrics{" +
+                    "parse=" + latencies.get(Stage.PARSE) +
+                    ", replace=" + latencies.get(Stage.REPLACE) +
+                    ", build=" + latencies.get(Stage.BUILD) +
+                    ", nodes=" + nodes +
+                    ", gradientCharacters=" + gradientCharacters +
+                    ", fallbacks=" + fallbacks +
+                    ", parseCacheHitRatio=" + String.format("%.3f", getParseCacheHitRatio()) +
+                    ", gradientCacheHitRatio=" + String.format("%.3f", getGradientCacheHitRatio()) +
+                    '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,345 @@
+package io.github.insideranh.talemessage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A file of precompiled templates, so a server does not parse thousands of localized
+ * strings at startup.
+ *
+ * <p>The archive is written once by an offline step ({@link #write}, or the
+ * {@link io.github.insideranh.talemessage.tools.TemplateArchiveTool} command line) and
+ * memory-mapped when opened. Opening only reads the key index; a template is decoded
+ * from the mapped file the first time it is asked for, and kept from then on.</p>
+ *
+ * <p>The header records the format version and a caller-chosen stamp of the sources,
+ * usually {@link #fingerprint(Map)}. An archive written by another version of the library
+ * or from other sources is stale: {@link #isCurrent} reports it and {@link #load} rebuilds it.</p>
+ *
+ * <pre>{@code
+ * Map<String, String> messages = loadLanguageFile();
+ * TemplateArchive archive = TemplateArchive.load(dataDir.resolve("en_us.tmsg"),
+ *         TemplateArchive.fingerprint(messages), () -> messages);
+ * player.sendMessage(archive.get("welcome").build(new Placeholder("{player}", name)));
+ * }</pre>
+ *
+ * <p>Instances are safe to share between threads.</p>
+ */
+public final class TemplateArchive {
+
+    /**
+     * Version of the binary layout; archives with another version are stale.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x544D5347; // "TMSG"
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 4;
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final byte PLAIN_TEXT = 1;
+
+    private final Path file;
+    private final long sourceStamp;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> index;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final AtomicReferenceArray<CompiledMessage> decoded;
+
+    private TemplateArchive(Path file, long sourceStamp, ByteBuffer buffer, Map<String, Integer> index, int[] offsets, int[] lengths) {
+        this.file = file;
+        this.sourceStamp = sourceStamp;
+        this.buffer = buffer;
+        this.index = index;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.decoded = new AtomicReferenceArray<>(offsets.length);
+    }
+
+    /**
+     * Compile {@code templates} and write them to {@code file}. The file is written next
+     * to the target and moved into place, so readers never see a partial archive.
+     *
+     * @param sourceStamp recorded in the header and checked by {@link #isCurrent}
+     */
+    public static void write(Path file, Map<String, String> templates, long sourceStamp) throws IOException {
+        // Sorted, so the same sources always give the same bytes
+        Map<String, String> sorted = new TreeMap<>(templates);
+
+        ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream dataBytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(dataBytes);
+        int count = sorted.size();
+        int[] keyOffsets = new int[count];
+        int[] keyLengths = new int[count];
+        int[] dataOffsets = new int[count];
+        int[] dataLengths = new int[count];
+
+        int entry = 0;
+        for (Map.Entry<String, String> template : sorted.entrySet()) {
+            byte[] key = template.getKey().getBytes(StandardCharsets.UTF_8);
+            keyOffsets[entry] = keyBytes.size();
+            keyLengths[entry] = key.length;
+            keyBytes.write(key);
+
+            dataOffsets[entry] = data.size();
+            writeTemplate(data, CompiledMessage.compile(template.getValue()));
+            dataLengths[entry] = data.size() - dataOffsets[entry];
+            entry++;
+        }
+
+        long keysStart = HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE;
+        long dataStart = keysStart + keyBytes.size();
+        if (dataStart + dataBytes.size() > Integer.MAX_VALUE) {
+            throw new IOException("Template archive too large: " + (dataStart + dataBytes.size()) + " bytes");
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeShort(TagToken.Type.values().length);
+                out.writeLong(sourceStamp);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeInt((int) keysStart + keyOffsets[i]);
+                    out.writeInt(keyLengths[i]);
+                    out.writeInt((int) dataStart + dataOffsets[i]);
+                    out.writeInt(dataLengths[i]);
+                }
+                keyBytes.writeTo(out);
+                dataBytes.writeTo(out);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeTemplate(DataOutputStream out, CompiledMessage message) throws IOException {
+        if (message.isPlainText()) {
+            byte[] source = message.getSource().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(PLAIN_TEXT);
+            out.writeInt(source.length);
+            out.write(source);
+        } else {
+            out.writeByte(0);
+            message.getTokens().write(out);
+        }
+    }
+
+    /**
+     * Map an archive and read its key index.
+     *
+     * @throws IOException if the file cannot be read, or is not an archive of the current format
+     */
+    public static TemplateArchive open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Template archive too large: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        try {
+            long sourceStamp = readHeader(buffer, file);
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * INDEX_ENTRY_SIZE > buffer.remaining()) {
+                throw new IOException("Corrupt template archive: " + file);
+            }
+
+            Map<String, Integer> index = new HashMap<>((int) (count / 0.75f) + 1);
+            int[] offsets = new int[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                int keyOffset = buffer.getInt();
+                int keyLength = buffer.getInt();
+                offsets[i] = buffer.getInt();
+                lengths[i] = buffer.getInt();
+                if (!inBounds(buffer, keyOffset, keyLength) || !inBounds(buffer, offsets[i], lengths[i])) {
+                    throw new IOException("Corrupt template archive: " + file);
+                }
+
+                byte[] key = new byte[keyLength];
+                buffer.get(keyOffset, key);
+                index.put(new String(key, StandardCharsets.UTF_8), i);
+            }
+            return new TemplateArchive(file, sourceStamp, buffer, index, offsets, lengths);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt template archive: " + file, e);
+        }
+    }
+
+    /**
+     * @return true if {@code file} exists, has the current format and was written with {@code sourceStamp}
+     */
+    public static boolean isCurrent(Path file, long sourceStamp) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) != -1) {
+                // Read the whole header
+            }
+            header.flip();
+            return readHeader(header, file) == sourceStamp;
+        } catch (IOException | BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Open {@code file}, first rebuilding it from {@code templates} if it is missing or stale.
+     *
+     * @param sourceStamp the stamp of the current sources, e.g. {@link #fingerprint(Map)}
+     * @param templates   supplies the sources, only called on a rebuild
+     */
+    public static TemplateArchive load(Path file, long sourceStamp, Supplier<Map<String, String>> templates) throws IOException {
+        if (!isCurrent(file, sourceStamp)) {
+            write(file, templates.get(), sourceStamp);
+        }
+        return open(file);
+    }
+
+    /**
+     * @return the source stamp of the header, after checking the magic number and versions
+     */
+    private static long readHeader(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a template archive: " + file);
+        }
+        int version = buffer.getShort();
+        int typeCount = buffer.getShort();
+        if (version != FORMAT_VERSION || typeCount != TagToken.Type.values().length) {
+            throw new IOException("Stale template archive " + file + ": format " + version + ", expected " + FORMAT_VERSION);
+        }
+        return buffer.getLong();
+    }
+
+    private static boolean inBounds(ByteBuffer buffer, int offset, int length) {
+        return offset >= 0 && length >= 0 && (long) offset + length <= buffer.limit();
+    }
+
+    /**
+     * A stamp that changes whenever a key or template changes, for use as the source stamp.
+     */
+    public static long fingerprint(Map<String, String> templates) {
+        // FNV-1a over the sorted entries
+        long hash = 0xCBF29CE484222325L;
+        for (Map.Entry<String, String> template : new TreeMap<>(templates).entrySet()) {
+            hash = fingerprint(hash, template.getKey());
+            hash = fingerprint(hash, template.getValue());
+        }
+        return hash;
+    }
+
+    private static long fingerprint(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xFFFF) * 0x100000001B3L;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        // Separator, so ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0x10000) * 0x100000001B3L;
+    }
+
+    /**
+     * @return the compiled template for {@code key}, or null if the archive has none
+     * @throws IllegalStateException if the stored template is corrupt
+     */
+    public CompiledMessage get(String key) {
+        Integer entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        CompiledMessage message = decoded.get(entry);
+        if (message == null) {
+            message = decode(entry);
+            if (!decoded.compareAndSet(entry, null, message)) {
+                message = decoded.get(entry);
+            }
+        }
+        return message;
+    }
+
+    private CompiledMessage decode(int entry) {
+        // A view of the entry, so concurrent decodes do not share a position
+        ByteBuffer in = buffer.slice(offsets[entry], lengths[entry]);
+        try {
+            if (in.get() == PLAIN_TEXT) {
+                byte[] source = new byte[in.getInt()];
+                in.get(source);
+                return new CompiledMessage(new String(source, StandardCharsets.UTF_8), null, true);
+            }
+            TokenTable tokens = TokenTable.read(in);
+            return new CompiledMessage(tokens.getSource(), tokens);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalStateException("Corrupt template archive entry in " + file, e);
+        }
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * @return the keys of the archive
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return "TemplateArchive{" +
+                "file=" + file +
+                ", templates=" + offsets.length +
+                '}';
+    }
+
+}
@@ -0,0 +1,551 @@
+package io.github.insideranh.talemessage;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact parse result: the token tree stored as parallel arrays instead of one
+ * {@link TagToken} object (plus child list and args array) per node.
+ *
+ * <p>Nodes are addressed by index, the root is always node {@link #ROOT}, and
+ * children are linked through {@link #firstChild(int)} and {@link #nextSibling(int)}.
+ * Node contents are ranges into the source string; text that does not appear in the
+ * source as is (escaped text, legacy color names) is appended after it. Colors and
+ * gradient stops are resolved once, at parse time.</p>
+ *
+ * <p>Instances are immutable and safe to share between threads. Use
+ * {@link #toTagToken()} for code written against the {@link TagToken} tree.</p>
+ */
+public final class TokenTable {
+
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+
+    private static final TagToken.Type[] TYPES = TagToken.Type.values();
+    private static final int[][] NO_STOPS = new int[0][];
+
+    private final String text;
+    private final int sourceLength;
+    private final int size;
+    private final byte[] types;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] data;
+    private final int[][] stops;
+    private final boolean tagSlots;
+    // Content strings are created on first use and kept, so repeated builds do not substring again.
+    // Races only create equal strings twice.
+    private final String[] contents;
+    // Built on first use, like the contents
+    private volatile Set<String> slotKeys;
+
+    private TokenTable(Builder builder, boolean tagSlots) {
+        int size = builder.size;
+        this.text = builder.extra == null || builder.extra.isEmpty() ? builder.source : builder.source + builder.extra;
+        this.sourceLength = builder.source.length();
+        this.size = size;
+        this.types = Arrays.copyOf(builder.types, size);
+        this.parents = Arrays.copyOf(builder.parents, size);
+        this.firstChildren = Arrays.copyOf(builder.firstChildren, size);
+        this.nextSiblings = Arrays.copyOf(builder.nextSiblings, size);
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.data = Arrays.copyOf(builder.data, size);
+        this.stops = builder.stopCount == 0 ? NO_STOPS : Arrays.copyOf(builder.stops, builder.stopCount);
+        this.tagSlots = tagSlots;
+        this.contents = new String[size];
+    }
+
+    private TokenTable(String text, int sourceLength, byte[] types, int[] parents, int[] firstChildren,
+                       int[] nextSiblings, int[] starts, int[] ends, int[] data, int[][] stops, boolean tagSlots) {
+        this.text = text;
+        this.sourceLength = sourceLength;
+        this.size = types.length;
+        this.types = types;
+        this.parents = parents;
+        this.firstChildren = firstChildren;
+        this.nextSiblings = nextSiblings;
+        this.starts = starts;
+        this.ends = ends;
+        this.data = data;
+        this.stops = stops;
+        this.tagSlots = tagSlots;
+        this.contents = new String[size];
+    }
+
+    /**
+     * @return the number of nodes, including the root
+     */
+    public int size() {
+        return size;
+    }
+
+    public TagToken.Type type(int node) {
+        return TYPES[types[node]];
+    }
+
+    /**
+     * @return the parent of {@code node}, or {@link #NONE} for the root
+     */
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @return the first child of {@code node}, or {@link #NONE}
+     */
+    public int firstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /**
+     * @return the next sibling of {@code node}, or {@link #NONE}
+     */
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * The node content: text for TEXT, the key for PLACEHOLDER, the URL for CLICK,
+     * the color as written for COLOR and the raw {@code color1:color2:...} list for GRADIENT.
+     */
+    public String content(int node) {
+        String content = contents[node];
+        if (content == null) {
+            content = text.substring(starts[node], ends[node]);
+            contents[node] = content;
+        }
+        return content;
+    }
+
+    public int contentLength(int node) {
+        return ends[node] - starts[node];
+    }
+
+    /**
+     * @return the packed color of a COLOR node, or {@link ColorRegistry#NO_COLOR} if it is invalid
+     */
+    public int color(int node) {
+        return type(node) == TagToken.Type.COLOR ? data[node] : ColorRegistry.NO_COLOR;
+    }
+
+    /**
+     * @return the valid packed stops of a GRADIENT node; shared, must not be modified
+     */
+    int[] gradientStops(int node) {
+        return stops[data[node]];
+    }
+
+    /**
+     * @return the tag arguments of {@code node}, i.e. the gradient colors
+     */
+    public String[] args(int node) {
+        if (type(node) != TagToken.Type.GRADIENT) {
+            return new String[0];
+        }
+        return split(text, starts[node], ends[node], ':');
+    }
+
+    /**
+     * @return the MiniMessage string this table was parsed from
+     */
+    public String getSource() {
+        return text.length() == sourceLength ? text : text.substring(0, sourceLength);
+    }
+
+    /**
+     * @return true if a placeholder slot was found inside a tag, e.g. {@code <click:{url}>}.
+     * Such slots cannot be filled at build time, so the template has to be re-parsed after substitution.
+     */
+    public boolean hasTagSlots() {
+        return tagSlots;
+    }
+
+    /**
+     * @return the distinct keys of the {@link TagToken.Type#PLACEHOLDER} slots, i.e. the
+     * placeholders a build of this table can use
+     */
+    public Set<String> slotKeys() {
+        Set<String> result = slotKeys;
+        if (result == null) {
+            Set<String> keys = new HashSet<>();
+            for (int node = 0; node < size; node++) {
+                if (TYPES[types[node]] == TagToken.Type.PLACEHOLDER) {
+                    keys.add(content(node));
+                }
+            }
+            result = Set.copyOf(keys);
+            slotKeys = result;
+        }
+        return result;
+    }
+
+    /**
+     * Materialize the equivalent {@link TagToken} tree.
+     */
+    public TagToken toTagToken() {
+        return toTagToken(ROOT);
+    }
+
+    private TagToken toTagToken(int node) {
+        TagToken.Type type = type(node);
+        TagToken token = type == TagToken.Type.GRADIENT
+                ? new TagToken(type, "", args(node))
+                : new TagToken(type, content(node));
+
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            token.addChild(toTagToken(child));
+        }
+        return token;
+    }
+
+    /**
+     * Convert a hand-built or legacy {@link TagToken} tree.
+     */
+    public static TokenTable of(TagToken token) {
+        Builder builder = new Builder("", 16);
+        if (token.getType() == TagToken.Type.TEXT) {
+            builder.setRootText(builder.appendText(token.getContent()));
+            for (TagToken child : token.getChildren()) {
+                addTree(builder, child);
+            }
+        } else {
+            // The root of a table is always a text node; other tokens go below it
+            addTree(builder, token);
+        }
+        return builder.build(false);
+    }
+
+    private static void addTree(Builder builder, TagToken token) {
+        TagToken.Type type = token.getType();
+        int node;
+        if (type == TagToken.Type.GRADIENT) {
+            String[] args = token.getArgs();
+            int start = builder.appendText(String.join(":", args));
+            int[] stops = new int[args.length];
+            int count = 0;
+            for (String arg : args) {
+                int color = ColorRegistry.getColorArgb(arg.trim());
+                if (color != ColorRegistry.NO_COLOR) {
+                    stops[count++] = color;
+                }
+            }
+            node = builder.add(type, start, builder.textLength(), builder.addStops(Arrays.copyOf(stops, count)));
+        } else {
+            int start = builder.appendText(token.getContent());
+            int data = type == TagToken.Type.COLOR ? ColorRegistry.getColorArgb(token.getContent()) : 0;
+            node = builder.add(type, start, builder.textLength(), data);
+        }
+
+        List<TagToken> children = token.getChildren();
+        if (!children.isEmpty()) {
+            builder.push(node);
+            for (TagToken child : children) {
+                addTree(builder, child);
+            }
+            builder.pop();
+        }
+    }
+
+    /**
+     * Write the table in the binary form read by {@link #read(ByteBuffer)}. Parent links are
+     * not written, they follow from the child links.
+     */
+    void write(DataOutput out) throws IOException {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+        out.writeInt(sourceLength);
+        out.writeBoolean(tagSlots);
+
+        out.writeInt(size);
+        out.write(types, 0, size);
+        writeInts(out, firstChildren);
+        writeInts(out, nextSiblings);
+        writeInts(out, starts);
+        writeInts(out, ends);
+        writeInts(out, data);
+
+        out.writeInt(stops.length);
+        for (int[] gradientStops : stops) {
+            out.writeInt(gradientStops.length);
+            writeInts(out, gradientStops);
+        }
+    }
+
+    /**
+     * Read a table written by {@link #write(DataOutput)}, advancing {@code in} past it.
+     *
+     * @throws IllegalArgumentException if the data is not a valid table
+     */
+    static TokenTable read(ByteBuffer in) {
+        byte[] utf8 = new byte[checkedLength(in, 1)];
+        in.get(utf8);
+        String text = new String(utf8, StandardCharsets.UTF_8);
+        int sourceLength = in.getInt();
+        boolean tagSlots = in.get() != 0;
+
+        int size = checkedLength(in, 21);
+        byte[] types = new byte[size];
+        in.get(types);
+        int[] firstChildren = readInts(in, size);
+        int[] nextSiblings = readInts(in, size);
+        int[] starts = readInts(in, size);
+        int[] ends = readInts(in, size);
+        int[] data = readInts(in, size);
+
+        int stopCount = checkedLength(in, 4);
+        int[][] stops = stopCount == 0 ? NO_STOPS : new int[stopCount][];
+        for (int i = 0; i < stopCount; i++) {
+            stops[i] = readInts(in, checkedLength(in, 4));
+        }
+
+        if (size == 0 || sourceLength < 0 || sourceLength > text.length()) {
+            throw new IllegalArgumentException("Invalid token table");
+        }
+        int[] parents = new int[size];
+        parents[ROOT] = NONE;
+        for (int node = 0; node < size; node++) {
+            if (types[node] < 0 || types[node] >= TYPES.length
+                    || starts[node] < 0 || starts[node] > ends[node] || ends[node] > text.length()
+                    || (TYPES[types[node]] == TagToken.Type.GRADIENT && (data[node] < 0 || data[node] >= stopCount))) {
+                throw new IllegalArgumentException("Invalid token table node " + node);
+            }
+            // Children and next siblings always come later in document order, which also rules out cycles
+            if (!isLaterNode(firstChildren[node], node, size) || !isLaterNode(nextSiblings[node], node, size)) {
+                throw new IllegalArgumentException("Invalid token table node " + node);
+            }
+            for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+                parents[child] = node;
+            }
+        }
+
+        return new TokenTable(text, sourceLength, types, parents, firstChildren, nextSiblings, starts, ends, data, stops, tagSlots);
+    }
+
+    private static boolean isLaterNode(int link, int node, int size) {
+        return link == NONE || (link > node && link < size);
+    }
+
+    private static void writeInts(DataOutput out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * 4);
+        return values;
+    }
+
+    /**
+     * Read a count and check that at least {@code count * bytesPerItem} bytes follow, so
+     * corrupt data fails fast instead of allocating a huge array.
+     */
+    private static int checkedLength(ByteBuffer in, int bytesPerItem) {
+        int count = in.getInt();
+        if (count < 0 || (long) count * bytesPerItem > in.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Split {@code input[start, end)} like {@link String#split(String)} with a single
+     * char separator: trailing empty parts are dropped.
+     */
+    static String[] split(CharSequence input, int start, int end, char separator) {
+        String[] parts = new String[4];
+        int count = 0;
+        int partStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || input.charAt(i) == separator) {
+                if (count == parts.length) {
+                    parts = Arrays.copyOf(parts, count * 2);
+                }
+                parts[count++] = input.subSequence(partStart, i).toString();
+                partStart = i + 1;
+            }
+        }
+
+        while (count > 1 && parts[count - 1].isEmpty()) {
+            count--;
+        }
+        if (count == 1 && parts[0].isEmpty() && start < end) {
+            count = 0;
+        }
+        return Arrays.copyOf(parts, count);
+    }
+
+    /**
+     * Appends nodes in document order. Keeps the stack of open nodes as a plain int array.
+     */
+    static final class Builder {
+
+        private final String source;
+        private StringBuilder extra;
+
+        private int size;
+        private byte[] types;
+        private int[] parents;
+        private int[] firstChildren;
+        private int[] lastChildren;
+        private int[] nextSiblings;
+        private int[] starts;
+        private int[] ends;
+        private int[] data;
+
+        private int[][] stops = NO_STOPS;
+        private int stopCount;
+
+        private int[] stack = new int[16];
+        private int depth;
+
+        Builder(String source, int capacity) {
+            this.source = source;
+            capacity = Math.max(capacity, 4);
+            types = new byte[capacity];
+            parents = new int[capacity];
+            firstChildren = new int[capacity];
+            lastChildren = new int[capacity];
+            nextSiblings = new int[capacity];
+            starts = new int[capacity];
+            ends = new int[capacity];
+            data = new int[capacity];
+
+            // Root: an empty text node that is always open
+            size = 1;
+            parents[ROOT] = NONE;
+            firstChildren[ROOT] = NONE;
+            lastChildren[ROOT] = NONE;
+            nextSiblings[ROOT] = NONE;
+            stack[depth++] = ROOT;
+        }
+
+        void setRootText(int start) {
+            starts[ROOT] = start;
+            ends[ROOT] = textLength();
+        }
+
+        /**
+         * Add a node as the last child of the innermost open node.
+         *
+         * @return the new node index
+         */
+        int add(TagToken.Type type, int start, int end, int value) {
+            if (size == types.length) {
+                grow();
+            }
+
+            int node = size++;
+            int parent = stack[depth - 1];
+            types[node] = (byte) type.ordinal();
+            parents[node] = parent;
+            firstChildren[node] = NONE;
+            lastChildren[node] = NONE;
+            nextSiblings[node] = NONE;
+            starts[node] = start;
+            ends[node] = end;
+            data[node] = value;
+
+            if (lastChildren[parent] == NONE) {
+                firstChildren[parent] = node;
+            } else {
+                nextSiblings[lastChildren[parent]] = node;
+            }
+            lastChildren[parent] = node;
+            return node;
+        }
+
+        /**
+         * @return the innermost open node, {@link #ROOT} if none
+         */
+        int openNode() {
+            return stack[depth - 1];
+        }
+
+        TagToken.Type type(int node) {
+            return TYPES[types[node]];
+        }
+
+        int data(int node) {
+            return data[node];
+        }
+
+        void push(int node) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = node;
+        }
+
+        /**
+         * Close the innermost open node; the root is never closed.
+         */
+        void pop() {
+            if (depth > 1) {
+                depth--;
+            }
+        }
+
+        /**
+         * Append text that is not part of the source.
+         *
+         * @return its start offset; it ends at {@link #textLength()}
+         */
+        int appendText(CharSequence text) {
+            int start = textLength();
+            if (text != null && !text.isEmpty()) {
+                if (extra == null) {
+                    extra = new StringBuilder();
+                }
+                extra.append(text);
+            }
+            return start;
+        }
+
+        int textLength() {
+            return source.length() + (extra == null ? 0 : extra.length());
+        }
+
+        /**
+         * @return the index to store as the data of a GRADIENT node
+         */
+        int addStops(int[] gradientStops) {
+            if (stopCount == stops.length) {
+                stops = Arrays.copyOf(stops, Math.max(4, stopCount * 2));
+            }
+            stops[stopCount] = gradientStops;
+            return stopCount++;
+        }
+
+        TokenTable build(boolean tagSlots) {
+            return new TokenTable(this, tagSlots);
+        }
+
+        private void grow() {
+            int capacity = types.length * 2;
+            types = Arrays.copyOf(types, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            lastChildren = Arrays.copyOf(lastChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            data = Arrays.copyOf(data, capacity);
+        }
+
+    }
+
+}
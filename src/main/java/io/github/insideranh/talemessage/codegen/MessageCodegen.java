@@ -0,0 +1,326 @@
+package io.github.insideranh.talemessage.codegen;
+
+import io.github.insideranh.talemessage.Diagnostic;
+import io.github.insideranh.talemessage.MiniMessageParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Build-time generator for message files: checks every template with
+ * {@link MiniMessageParser#validate(String)} and writes a Java class with an int constant
+ * per key and a typed method per template.
+ *
+ * <p>For {@code welcome=<gold>Welcome back, {player}!} the generated class has</p>
+ * <pre>{@code
+ * public static final int WELCOME = 0;
+ * public static Message welcome(String player) { ... }
+ * }</pre>
+ * <p>Templates are kept in a flat array indexed by those constants and compiled once, on first
+ * use, so a send costs neither a key hash nor a parse. IDs are assigned in key order and are
+ * only meant to be used through the constants of the same build.</p>
+ *
+ * <p>Run it from the build with the
+ * {@link io.github.insideranh.talemessage.tools.MessageCodegenTool} command line, e.g. from a
+ * Gradle {@code JavaExec} task. Errors fail the run; warnings are printed, and fail it too with
+ * {@code --strict}.</p>
+ */
+public final class MessageCodegen {
+
+    // Array entries per generated init method, keeping each well below the 64 KB method size limit
+    private static final int INIT_CHUNK = 1000;
+
+    private static final Set<String> RESERVED = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp", "super",
+            "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile", "while",
+            "true", "false", "null", "var", "yield", "record", "sealed", "permits",
+            // Members of the generated class
+            "build", "template", "key", "source");
+
+    private MessageCodegen() {
+    }
+
+    /**
+     * Validate every template.
+     *
+     * @param templates the templates by key
+     * @return the diagnostics of each key that has any, in key order
+     */
+    public static Map<String, List<Diagnostic>> validate(Map<String, String> templates) {
+        Map<String, List<Diagnostic>> problems = new LinkedHashMap<>();
+        for (Map.Entry<String, String> template : new TreeMap<>(templates).entrySet()) {
+            List<Diagnostic> diagnostics = MiniMessageParser.validate(template.getValue());
+            if (!diagnostics.isEmpty()) {
+                problems.put(template.getKey(), diagnostics);
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Generate the source of the message class. Templates are not validated here.
+     *
+     * @param packageName the package of the class, empty for none
+     * @param className   the simple name of the class
+     * @param templates   the templates by key
+     * @param sourceName  the name of the message file, for the class comment
+     * @return the Java source
+     * @throws IllegalArgumentException if two keys map to the same Java name, or two slot names
+     *                                  of a template to the same parameter
+     */
+    public static String generate(String packageName, String className, Map<String, String> templates, String sourceName) {
+        Map<String, String> sorted = new TreeMap<>(templates);
+        List<String> keys = new ArrayList<>(sorted.keySet());
+
+        Map<String, String> constantOwners = new HashMap<>();
+        Map<String, String> methodOwners = new HashMap<>();
+        String[] constants = new String[keys.size()];
+        String[] methods = new String[keys.size()];
+        for (int id = 0; id < keys.size(); id++) {
+            String key = keys.get(id);
+            constants[id] = claim(constantOwners, constantName(key), key);
+            methods[id] = claim(methodOwners, camelCase(key), key);
+        }
+        if (constantOwners.containsKey("COUNT")) {
+            throw new IllegalArgumentException("Key '" + constantOwners.get("COUNT") + "' clashes with the COUNT constant");
+        }
+
+        StringBuilder out = new StringBuilder(4096 + keys.size() * 256);
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import com.hypixel.hytale.server.core.Message;\n");
+        out.append("import io.github.insideranh.talemessage.CompiledMessage;\n");
+        out.append("import io.github.insideranh.talemessage.TaleMessage;\n");
+        out.append("import io.github.insideranh.talemessage.placeholders.Placeholder;\n\n");
+        out.append("/**\n");
+        out.append(" * Messages of ").append(javadoc(sourceName)).append(", generated by TaleMessage MessageCodegen. Do not edit.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(className).append(" {\n\n");
+
+        for (int id = 0; id < keys.size(); id++) {
+            out.append("    public static final int ").append(constants[id]).append(" = ").append(id).append(";\n");
+        }
+        out.append("\n    public static final int COUNT = ").append(keys.size()).append(";\n\n");
+
+        // Internal names start with '$', which constantName and camelCase never produce
+        out.append("    private static final String[] $KEYS = new String[COUNT];\n");
+        out.append("    private static final String[] $SOURCES = new String[COUNT];\n");
+        out.append("    // Compiled on first use; races only compile the same template twice. A build only reads\n");
+        out.append("    // final fields of CompiledMessage, so an entry written by another thread is seen whole\n");
+        out.append("    private static final CompiledMessage[] $TEMPLATES = new CompiledMessage[COUNT];\n\n");
+
+        int chunks = (keys.size() + INIT_CHUNK - 1) / INIT_CHUNK;
+        out.append("    static {\n");
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            out.append("        $init").append(chunk).append("();\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    private ").append(className).append("() {\n    }\n\n");
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            out.append("    private static void $init").append(chunk).append("() {\n");
+            for (int id = chunk * INIT_CHUNK; id < Math.min(keys.size(), (chunk + 1) * INIT_CHUNK); id++) {
+                String key = keys.get(id);
+                out.append("        $KEYS[").append(id).append("] = ").append(literal(key)).append(";\n");
+                out.append("        $SOURCES[").append(id).append("] = ").append(literal(sorted.get(key))).append(";\n");
+            }
+            out.append("    }\n\n");
+        }
+
+        out.append("    public static CompiledMessage template(int id) {\n");
+        out.append("        CompiledMessage template = $TEMPLATES[id];\n");
+        out.append("        if (template == null) {\n");
+        out.append("            template = TaleMessage.compile($SOURCES[id]);\n");
+        out.append("            $TEMPLATES[id] = template;\n");
+        out.append("        }\n");
+        out.append("        return template;\n");
+        out.append("    }\n\n");
+        out.append("    public static Message build(int id, Placeholder... placeholders) {\n");
+        out.append("        return template(id).build(placeholders);\n");
+        out.append("    }\n\n");
+        out.append("    public static String key(int id) {\n");
+        out.append("        return $KEYS[id];\n");
+        out.append("    }\n\n");
+        out.append("    public static String source(int id) {\n");
+        out.append("        return $SOURCES[id];\n");
+        out.append("    }\n");
+
+        for (int id = 0; id < keys.size(); id++) {
+            appendMethod(out, keys.get(id), sorted.get(keys.get(id)), constants[id], methods[id]);
+        }
+
+        out.append("\n}\n");
+        return out.toString();
+    }
+
+    private static void appendMethod(StringBuilder out, String key, String source, String constant, String method) {
+        // Slots with the same name in another form ({player}, {{player}}, %player%) share one parameter
+        Map<String, List<String>> slotsByParameter = new LinkedHashMap<>();
+        Map<String, String> parameterNames = new HashMap<>();
+        for (String slot : MiniMessageParser.slotKeys(source)) {
+            String name = slotName(slot);
+            String parameter = camelCase(name);
+            String owner = parameterNames.putIfAbsent(parameter, name);
+            if (owner != null && !owner.equals(name)) {
+                // {player_name} and {playerName} are different placeholders; one argument would fill both
+                throw new IllegalArgumentException("Key '" + key + "': slots '" + owner + "' and '" + name
+                        + "' both map to parameter " + parameter);
+            }
+            slotsByParameter.computeIfAbsent(parameter, p -> new ArrayList<>()).add(slot);
+        }
+
+        out.append("\n    /**\n");
+        out.append("     * <code>").append(javadoc(key)).append("</code>: <code>").append(javadoc(source)).append("</code>\n");
+        out.append("     */\n");
+        out.append("    public static Message ").append(method).append('(');
+        boolean first = true;
+        for (String parameter : slotsByParameter.keySet()) {
+            if (!first) {
+                out.append(", ");
+            }
+            out.append("String ").append(parameter);
+            first = false;
+        }
+        out.append(") {\n");
+
+        out.append("        return template(").append(constant).append(").build(");
+        first = true;
+        for (Map.Entry<String, List<String>> parameter : slotsByParameter.entrySet()) {
+            for (String slot : parameter.getValue()) {
+                if (!first) {
+                    out.append(", ");
+                }
+                out.append("new Placeholder(").append(literal(slot)).append(", ").append(parameter.getKey()).append(')');
+                first = false;
+            }
+        }
+        out.append(");\n");
+        out.append("    }\n");
+    }
+
+    private static String claim(Map<String, String> owners, String name, String key) {
+        String owner = owners.putIfAbsent(name, key);
+        if (owner != null) {
+            throw new IllegalArgumentException("Keys '" + owner + "' and '" + key + "' both map to " + name);
+        }
+        return name;
+    }
+
+    private static String slotName(String slot) {
+        int start = 0;
+        int end = slot.length();
+        while (start < end && (slot.charAt(start) == '{' || slot.charAt(start) == '%')) start++;
+        while (end > start && (slot.charAt(end - 1) == '}' || slot.charAt(end - 1) == '%')) end--;
+        return slot.substring(start, end);
+    }
+
+    /**
+     * {@code error.no-permission} becomes {@code ERROR_NO_PERMISSION}.
+     */
+    private static String constantName(String key) {
+        StringBuilder name = new StringBuilder(key.length() + 1);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isLetterOrDigit(c) && c < 128) {
+                // camelCase keys get an underscore between words
+                if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(key.charAt(i - 1))) {
+                    name.append('_');
+                }
+                name.append(Character.toUpperCase(c));
+            } else if (!name.isEmpty() && name.charAt(name.length() - 1) != '_') {
+                name.append('_');
+            }
+        }
+        while (!name.isEmpty() && name.charAt(name.length() - 1) == '_') {
+            name.setLength(name.length() - 1);
+        }
+        if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+            name.insert(0, "KEY_");
+        }
+        return name.toString();
+    }
+
+    /**
+     * {@code error.no-permission} becomes {@code errorNoPermission}.
+     */
+    private static String camelCase(String key) {
+        StringBuilder name = new StringBuilder(key.length());
+        boolean upper = false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isLetterOrDigit(c) && c < 128) {
+                name.append(upper ? Character.toUpperCase(c) : name.isEmpty() ? Character.toLowerCase(c) : c);
+                upper = false;
+            } else {
+                upper = !name.isEmpty();
+            }
+        }
+        if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+            name.insert(0, "key");
+        }
+        String result = name.toString();
+        return RESERVED.contains(result) ? result + '_' : result;
+    }
+
+    /**
+     * A Java string literal, ASCII only so it compiles whatever the source encoding.
+     */
+    private static String literal(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c >= 0x20 && c < 0x7F) {
+                        out.append(c);
+                    } else {
+                        out.append(String.format("\\u%04x", (int) c));
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    /**
+     * Text that is safe inside a Javadoc comment: HTML, braces, {@code @}, {@code *} and
+     * backslashes (which could start a unicode escape) are written as entities.
+     */
+    private static String javadoc(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '@', '{', '}', '*', '\\' -> out.append("&#").append((int) c).append(';');
+                case '\n', '\r', '\t' -> out.append(' ');
+                default -> {
+                    if (c >= 0x20 && c < 0x7F) {
+                        out.append(c);
+                    } else {
+                        out.append("&#").append((int) c).append(';');
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.github.insideranh.talemessage.placeholders;
+
+/**
+ * A placeholder that writes its value into the text being built, see {@link Placeholder#number(String, long)}.
+ */
+final class FormattedPlaceholder extends Placeholder {
+
+    private final Format format;
+
+    FormattedPlaceholder(String placeholder, Format format) {
+        super(placeholder);
+        this.format = format;
+    }
+
+    @Override
+    public String getValue() {
+        StringBuilder value = new StringBuilder(24);
+        format.appendTo(value);
+        return value.toString();
+    }
+
+    @Override
+    public boolean hasValue() {
+        return true;
+    }
+
+    @Override
+    public boolean appendTo(StringBuilder out) {
+        format.appendTo(out);
+        return true;
+    }
+
+    @FunctionalInterface
+    interface Format {
+        void appendTo(StringBuilder out);
+    }
+
+}
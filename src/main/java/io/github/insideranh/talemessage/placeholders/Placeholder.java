@@ -1,16 +1,149 @@
 package io.github.insideranh.talemessage.placeholders;
 
+import io.github.insideranh.talemessage.utils.NumberWriter;
 import lombok.Getter;
 
-@Getter
+import java.time.Duration;
+
 public class Placeholder {
 
+    @Getter
     private final String placeholder;
     private final String value;
+    private final PlaceholderResolver resolver;
 
     public Placeholder(String placeholder, String value) {
+        this(placeholder, value, null);
+    }
+
+    /**
+     * For subclasses that produce their value in {@link #getValue()} and {@link #appendTo(StringBuilder)}.
+     */
+    Placeholder(String placeholder) {
+        this(placeholder, null, null);
+    }
+
+    private Placeholder(String placeholder, String value, PlaceholderResolver resolver) {
         this.placeholder = placeholder;
         this.value = value;
+        this.resolver = resolver;
+    }
+
+    /**
+     * A placeholder whose value is computed only if a template contains {@code placeholder},
+     * at most once per build. Meant for values that cost something to produce, such as a
+     * formatted balance or a rank lookup, passed to templates that may not show them.
+     *
+     * <pre>{@code
+     * scoreboard.build(
+     *         Placeholder.lazy("{balance}", () -> economy.format(player)),
+     *         Placeholder.lazy("{rank}", () -> ranks.lookup(player)));
+     * }</pre>
+     */
+    public static Placeholder lazy(String placeholder, PlaceholderResolver resolver) {
+        if (resolver == null) {
+            throw new IllegalArgumentException("resolver is null");
+        }
+        return new Placeholder(placeholder, null, resolver);
+    }
+
+    /**
+     * {@code value} as plain digits, e.g. {@code 1234567}.
+     *
+     * <p>This and the other typed placeholders below write their digits straight into the text
+     * being built, instead of going through {@code String.valueOf}, {@code String.format} or
+     * {@code DecimalFormat} first. The exception is a template that has to be substituted as
+     * a string, see {@link io.github.insideranh.talemessage.CompiledMessage#build(Placeholder...)}.</p>
+     */
+    public static Placeholder number(String placeholder, long value) {
+        return new FormattedPlaceholder(placeholder, out -> out.append(value));
+    }
+
+    /**
+     * {@code value} with a fixed number of decimals, e.g. {@code 12.50}.
+     *
+     * @param decimals between 0 and {@link NumberWriter#MAX_DECIMALS}
+     * @see NumberWriter#appendFixed(StringBuilder, double, int)
+     */
+    public static Placeholder decimal(String placeholder, double value, int decimals) {
+        NumberWriter.checkDecimals(decimals);
+        return new FormattedPlaceholder(placeholder, out -> NumberWriter.appendFixed(out, value, decimals));
+    }
+
+    /**
+     * {@code value} with thousands separated by commas, e.g. {@code 1,234,567}.
+     */
+    public static Placeholder grouped(String placeholder, long value) {
+        return grouped(placeholder, value, ',');
+    }
+
+    /**
+     * {@code value} with thousands separated by {@code separator}, e.g. {@code 1.234.567}.
+     */
+    public static Placeholder grouped(String placeholder, long value, char separator) {
+        return new FormattedPlaceholder(placeholder, out -> NumberWriter.appendGrouped(out, value, separator));
+    }
+
+    /**
+     * {@code value} in short form, e.g. {@code 950}, {@code 1.2k} or {@code 15M}.
+     *
+     * @see NumberWriter#appendCompact(StringBuilder, long)
+     */
+    public static Placeholder compact(String placeholder, long value) {
+        return new FormattedPlaceholder(placeholder, out -> NumberWriter.appendCompact(out, value));
+    }
+
+    /**
+     * {@code duration} as its non-zero units, e.g. {@code 1h 30m} or {@code 45s}.
+     *
+     * @see NumberWriter#appendDuration(StringBuilder, long)
+     */
+    public static Placeholder duration(String placeholder, Duration duration) {
+        long millis = duration.toMillis();
+        return new FormattedPlaceholder(placeholder, out -> NumberWriter.appendDuration(out, millis));
+    }
+
+    /**
+     * {@code duration} as a clock, e.g. {@code 4:05} or {@code 1:02:03}, for countdowns.
+     *
+     * @see NumberWriter#appendClock(StringBuilder, long)
+     */
+    public static Placeholder clock(String placeholder, Duration duration) {
+        long millis = duration.toMillis();
+        return new FormattedPlaceholder(placeholder, out -> NumberWriter.appendClock(out, millis));
+    }
+
+    /**
+     * @return the value; for a {@link #isLazy() lazy} placeholder this calls the resolver every time
+     */
+    public String getValue() {
+        return resolver == null ? value : resolver.resolve();
+    }
+
+    /**
+     * @return true if {@link #getValue()} is not null; typed placeholders answer without
+     * formatting their value, lazy ones have to resolve it
+     */
+    public boolean hasValue() {
+        return getValue() != null;
+    }
+
+    /**
+     * Append the value to {@code out}, the way the message builder inserts it.
+     *
+     * @return false if there is no value, in which case nothing was appended
+     */
+    public boolean appendTo(StringBuilder out) {
+        String value = getValue();
+        if (value == null) {
+            return false;
+        }
+        out.append(value);
+        return true;
+    }
+
+    public boolean isLazy() {
+        return resolver != null;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package io.github.insideranh.talemessage.placeholders;
+
+/**
+ * Computes the value of a placeholder when a template needs it, see
+ * {@link Placeholder#lazy(String, PlaceholderResolver)}.
+ *
+ * <p>A resolver is called at most once per build, and not at all if the template does not
+ * contain its key. It may be called from whatever thread builds the message.</p>
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+
+    /**
+     * @return the value, or null to keep the placeholder as written
+     */
+    String resolve();
+
+}
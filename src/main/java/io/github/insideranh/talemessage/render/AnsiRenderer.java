@@ -0,0 +1,183 @@
+package io.github.insideranh.talemessage.render;
+
+import io.github.insideranh.talemessage.ColorRegistry;
+import io.github.insideranh.talemessage.Style;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Writes text with ANSI escape sequences for terminals and console logs.
+ *
+ * <p>Colors are written either as 24-bit ({@code ESC[38;2;r;g;bm}) or mapped to the nearest
+ * entry of the xterm 256-color palette ({@code ESC[38;5;nm}). Bold, italic and underline map
+ * to their SGR codes; monospace has no terminal equivalent and is ignored. Links are written
+ * as OSC 8 hyperlinks if enabled, otherwise only their text is shown.</p>
+ *
+ * <p>Text and links usually carry player input, so their control characters are never
+ * written as they are: in text, every C0 and C1 control except line feed and tab is
+ * replaced with U+FFFD, and links lose theirs. Nothing a value contains can start an
+ * escape sequence of its own.</p>
+ */
+public final class AnsiRenderer implements Renderer {
+
+    private static final String ESC = "\u001B[";
+    private static final String RESET = "\u001B[0m";
+    private static final String LINK_END = "\u001B]8;;\u001B\\";
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private static final int[] CUBE_LEVELS = {0, 95, 135, 175, 215, 255};
+
+    private final boolean trueColor;
+    private final boolean hyperlinks;
+
+    /**
+     * @param trueColor  write 24-bit colors instead of 256-color palette indexes
+     * @param hyperlinks write links as OSC 8 hyperlinks
+     */
+    public AnsiRenderer(boolean trueColor, boolean hyperlinks) {
+        this.trueColor = trueColor;
+        this.hyperlinks = hyperlinks;
+    }
+
+    @Override
+    public Output open(Appendable out) {
+        return new AnsiOutput(out);
+    }
+
+    /**
+     * Map a packed color to the closest xterm 256-color index, from the 6x6x6 cube or the gray ramp.
+     */
+    public static int toAnsi256(int argb) {
+        int r = ColorRegistry.red(argb);
+        int g = ColorRegistry.green(argb);
+        int b = ColorRegistry.blue(argb);
+
+        int ri = cubeIndex(r);
+        int gi = cubeIndex(g);
+        int bi = cubeIndex(b);
+        int cubeDistance = distance(r, g, b, CUBE_LEVELS[ri], CUBE_LEVELS[gi], CUBE_LEVELS[bi]);
+
+        int average = (r + g + b) / 3;
+        int grayIndex = average > 238 ? 23 : Math.max(0, (average - 3) / 10);
+        int gray = 8 + grayIndex * 10;
+        int grayDistance = distance(r, g, b, gray, gray, gray);
+
+        return grayDistance < cubeDistance ? 232 + grayIndex : 16 + 36 * ri + 6 * gi + bi;
+    }
+
+    /**
+     * Write {@code value} without its control characters.
+     *
+     * @param text keep line feeds and tabs, and write U+FFFD for the other controls instead
+     *             of dropping them
+     */
+    private static void writeSafe(Appendable out, String value, boolean text) throws IOException {
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (!isControl(c) || text && (c == '\n' || c == '\t')) {
+                continue;
+            }
+
+            out.append(value, last, i);
+            if (text) {
+                out.append(REPLACEMENT);
+            }
+            last = i + 1;
+        }
+        out.append(value, last, length);
+    }
+
+    private static boolean isControl(char c) {
+        return c < 0x20 || c >= 0x7F && c <= 0x9F;
+    }
+
+    private static int cubeIndex(int value) {
+        return value < 48 ? 0 : value < 115 ? 1 : (value - 35) / 40;
+    }
+
+    private static int distance(int r1, int g1, int b1, int r2, int g2, int b2) {
+        int dr = r1 - r2;
+        int dg = g1 - g2;
+        int db = b1 - b2;
+        return dr * dr + dg * dg + db * db;
+    }
+
+    private final class AnsiOutput implements Output {
+
+        private final Appendable out;
+
+        private int color = ColorRegistry.NO_COLOR;
+        private int flags;
+        private String link;
+
+        private AnsiOutput(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public void text(String text, int color, int flags, String link) throws IOException {
+            flags &= Style.BOLD | Style.ITALIC | Style.UNDERLINE;
+            if (!hyperlinks) {
+                link = null;
+            }
+
+            if (!Objects.equals(link, this.link)) {
+                if (this.link != null) {
+                    out.append(LINK_END);
+                }
+                if (link != null) {
+                    out.append("\u001B]8;;");
+                    writeSafe(out, link, false);
+                    out.append("\u001B\\");
+                }
+                this.link = link;
+            }
+
+            if (color != this.color || flags != this.flags) {
+                writeStyle(color, flags);
+                this.color = color;
+                this.flags = flags;
+            }
+
+            writeSafe(out, text, true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (link != null) {
+                out.append(LINK_END);
+                link = null;
+            }
+            if (color != ColorRegistry.NO_COLOR || flags != 0) {
+                out.append(RESET);
+                color = ColorRegistry.NO_COLOR;
+                flags = 0;
+            }
+        }
+
+        private void writeStyle(int color, int flags) throws IOException {
+            // Always start from a reset, so attributes of the previous run are not carried over
+            out.append(ESC).append('0');
+            if ((flags & Style.BOLD) != 0) out.append(";1");
+            if ((flags & Style.ITALIC) != 0) out.append(";3");
+            if ((flags & Style.UNDERLINE) != 0) out.append(";4");
+
+            if (color != ColorRegistry.NO_COLOR) {
+                if (trueColor) {
+                    out.append(";38;2;")
+                            .append(Integer.toString(ColorRegistry.red(color))).append(';')
+                            .append(Integer.toString(ColorRegistry.green(color))).append(';')
+                            .append(Integer.toString(ColorRegistry.blue(color)));
+                } else {
+                    out.append(";38;5;").append(Integer.toString(toAnsi256(color)));
+                }
+            }
+            out.append('m');
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.insideranh.talemessage.render;
+
+import io.github.insideranh.talemessage.ColorRegistry;
+import io.github.insideranh.talemessage.Style;
+
+import java.io.IOException;
+
+/**
+ * Writes a message as a JSON array with one object per run, e.g.
+ * {@code [{"text":"Hello ","color":"#FF5555","bold":true},{"text":"world"}]}.
+ *
+ * <p>Only the properties a run has are written: {@code color} ({@code #RRGGBB}, or
+ * {@code #RRGGBBAA} if not opaque), {@code bold}, {@code italic}, {@code underlined},
+ * {@code monospace} and {@code link}.</p>
+ */
+public final class JsonRenderer implements Renderer {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    @Override
+    public Output open(Appendable out) {
+        return new JsonOutput(out);
+    }
+
+    private static void writeString(Appendable out, String value) throws IOException {
+        out.append('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+
+            out.append(value, last, i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append("\\u")
+                        .append(HEX[(c >> 12) & 0xF]).append(HEX[(c >> 8) & 0xF])
+                        .append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+            }
+            last = i + 1;
+        }
+        out.append(value, last, length).append('"');
+    }
+
+    private static void writeColor(Appendable out, int color) throws IOException {
+        out.append("\"#");
+        writeHexByte(out, ColorRegistry.red(color));
+        writeHexByte(out, ColorRegistry.green(color));
+        writeHexByte(out, ColorRegistry.blue(color));
+        if (ColorRegistry.alpha(color) != 255) {
+            writeHexByte(out, ColorRegistry.alpha(color));
+        }
+        out.append('"');
+    }
+
+    private static void writeHexByte(Appendable out, int value) throws IOException {
+        out.append(HEX[value >> 4]).append(HEX[value & 0xF]);
+    }
+
+    private static final class JsonOutput implements Output {
+
+        private final Appendable out;
+        private boolean first = true;
+
+        private JsonOutput(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public void text(String text, int color, int flags, String link) throws IOException {
+            out.append(first ? "[{\"text\":" : ",{\"text\":");
+            first = false;
+            writeString(out, text);
+
+            if (color != ColorRegistry.NO_COLOR) {
+                out.append(",\"color\":");
+                writeColor(out, color);
+            }
+            if ((flags & Style.BOLD) != 0) out.append(",\"bold\":true");
+            if ((flags & Style.ITALIC) != 0) out.append(",\"italic\":true");
+            if ((flags & Style.UNDERLINE) != 0) out.append(",\"underlined\":true");
+            if ((flags & Style.MONOSPACE) != 0) out.append(",\"monospace\":true");
+            if (link != null) {
+                out.append(",\"link\":");
+                writeString(out, link);
+            }
+            out.append('}');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.append(first ? "[]" : "]");
+        }
+
+    }
+
+}
@@ -0,0 +1,13 @@
+package io.github.insideranh.talemessage.render;
+
+/**
+ * Writes the text only, without any formatting.
+ */
+public final class PlainTextRenderer implements Renderer {
+
+    @Override
+    public Output open(Appendable out) {
+        return (text, color, flags, link) -> out.append(text);
+    }
+
+}
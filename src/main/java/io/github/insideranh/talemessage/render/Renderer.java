@@ -0,0 +1,43 @@
+package io.github.insideranh.talemessage.render;
+
+import java.io.IOException;
+
+/**
+ * Turns styled runs of text into some output format, written to an {@link Appendable}.
+ *
+ * <p>A renderer is a stateless factory: {@link #open(Appendable)} starts one message and
+ * returns the {@link Output} that receives its runs, so a single renderer can be shared
+ * between threads. See {@link Renderers} for the built-in ones and the render methods.</p>
+ */
+public interface Renderer {
+
+    /**
+     * Start rendering one message.
+     *
+     * @param out where the rendered message is written
+     * @return the output receiving the runs of this message
+     */
+    Output open(Appendable out);
+
+    /**
+     * Receives the runs of one message, in document order.
+     */
+    interface Output {
+
+        /**
+         * @param text  the text of the run, never empty
+         * @param color the packed color, or {@link io.github.insideranh.talemessage.ColorRegistry#NO_COLOR}
+         * @param flags the {@link io.github.insideranh.talemessage.Style} flags of the run
+         * @param link  the click URL, or null
+         */
+        void text(String text, int color, int flags, String link) throws IOException;
+
+        /**
+         * Called once after the last run.
+         */
+        default void close() throws IOException {
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.github.insideranh.talemessage.render;
+
+import io.github.insideranh.talemessage.CompiledMessage;
+import io.github.insideranh.talemessage.TaleMessage;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Built-in renderers and the methods that run a message through them, for output that is
+ * not a Hytale Message: console logs, web dashboards, exports.
+ *
+ * <p>Messages are walked as styled runs straight from the parsed template, so no Message
+ * is built on the way. A compiled template can be rendered any number of times, into as
+ * many outputs as needed.</p>
+ *
+ * <pre>{@code
+ * logger.info(Renderers.render("<red>Server <bold>restarting</bold>", Renderers.ANSI_256));
+ *
+ * CompiledMessage motd = TaleMessage.compile(motdText);
+ * StringBuilder console = new StringBuilder();
+ * StringBuilder json = new StringBuilder();
+ * Renderers.render(motd, new Placeholder[0], Renderers.ANSI_TRUECOLOR.open(console), Renderers.JSON.open(json));
+ * }</pre>
+ */
+public final class Renderers {
+
+    public static final Renderer PLAIN = new PlainTextRenderer();
+    public static final Renderer ANSI_256 = new AnsiRenderer(false, false);
+    public static final Renderer ANSI_TRUECOLOR = new AnsiRenderer(true, false);
+    public static final Renderer JSON = new JsonRenderer();
+
+    private Renderers() {
+    }
+
+    /**
+     * Render a MiniMessage string into a new string.
+     */
+    public static String render(String input, Renderer renderer, Placeholder... placeholders) {
+        StringBuilder out = new StringBuilder(input == null ? 16 : input.length() + 16);
+        try {
+            render(TaleMessage.compile(input), renderer, out, placeholders);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Render a MiniMessage string into {@code out}.
+     */
+    public static void render(String input, Renderer renderer, Appendable out, Placeholder... placeholders) throws IOException {
+        render(TaleMessage.compile(input), renderer, out, placeholders);
+    }
+
+    /**
+     * Render a compiled template into {@code out}.
+     */
+    public static void render(CompiledMessage message, Renderer renderer, Appendable out, Placeholder... placeholders) throws IOException {
+        render(message, placeholders, renderer.open(out));
+    }
+
+    /**
+     * Render a compiled template into {@code out} as UTF-8, starting at its position.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public static void render(CompiledMessage message, Renderer renderer, ByteBuffer out, Placeholder... placeholders) {
+        Utf8ByteBufferAppendable bytes = new Utf8ByteBufferAppendable(out);
+        try {
+            render(message, placeholders, renderer.open(bytes));
+        } catch (IOException e) {
+            // The buffer appendable does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        bytes.finish();
+    }
+
+    /**
+     * Walk a compiled template once and send its runs to several outputs.
+     *
+     * @param placeholders the placeholder values, may be empty
+     * @param outputs      outputs opened with {@link Renderer#open(Appendable)}; they are closed afterwards
+     */
+    public static void render(CompiledMessage message, Placeholder[] placeholders, Renderer.Output... outputs) throws IOException {
+        try {
+            message.forEachRun((text, color, flags, link) -> {
+                try {
+                    for (Renderer.Output output : outputs) {
+                        output.text(text, color, flags, link);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, placeholders);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        for (Renderer.Output output : outputs) {
+            output.close();
+        }
+    }
+
+}
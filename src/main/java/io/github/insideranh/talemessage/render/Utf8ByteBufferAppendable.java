@@ -0,0 +1,74 @@
+package io.github.insideranh.talemessage.render;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes appended chars as UTF-8 straight into a {@link ByteBuffer}. Unpaired surrogates
+ * are written as {@code ?}, like the JDK encoder does by default.
+ */
+final class Utf8ByteBufferAppendable implements Appendable {
+
+    private final ByteBuffer out;
+    private char highSurrogate;
+
+    Utf8ByteBufferAppendable(ByteBuffer out) {
+        this.out = out;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+        for (int i = start; i < end; i++) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                out.put((byte) (0xF0 | (codePoint >> 18)))
+                        .put((byte) (0x80 | ((codePoint >> 12) & 0x3F)))
+                        .put((byte) (0x80 | ((codePoint >> 6) & 0x3F)))
+                        .put((byte) (0x80 | (codePoint & 0x3F)));
+                return this;
+            }
+            out.put((byte) '?');
+        }
+
+        if (c < 0x80) {
+            out.put((byte) c);
+        } else if (c < 0x800) {
+            out.put((byte) (0xC0 | (c >> 6)))
+                    .put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            out.put((byte) '?');
+        } else {
+            out.put((byte) (0xE0 | (c >> 12)))
+                    .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+                    .put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+
+    /**
+     * Write a trailing unpaired high surrogate, if any.
+     */
+    void finish() {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            out.put((byte) '?');
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package io.github.insideranh.talemessage.tools;
+
+import io.github.insideranh.talemessage.Diagnostic;
+import io.github.insideranh.talemessage.codegen.MessageCodegen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Command line for {@link MessageCodegen}:
+ * {@code MessageCodegenTool [--strict] <package> <class> <output dir> <messages.properties>...}
+ *
+ * <p>Reads UTF-8 properties files (later files override earlier keys), prints every
+ * diagnostic as {@code file: key: message}, and writes {@code <output dir>/<package path>/<class>.java}
+ * if there are no errors. Exits with 1 on errors, 2 on bad arguments.</p>
+ *
+ * <pre>{@code
+ * def generatedMessages = layout.buildDirectory.dir("generated/sources/messages")
+ * tasks.register('generateMessages', JavaExec) {
+ *     classpath = configurations.compileClasspath
+ *     mainClass = 'io.github.insideranh.talemessage.tools.MessageCodegenTool'
+ *     inputs.file('src/main/resources/messages.properties')
+ *     outputs.dir(generatedMessages)
+ *     args '--strict', 'com.example.lang', 'Messages', generatedMessages.get().asFile.path,
+ *          'src/main/resources/messages.properties'
+ * }
+ * sourceSets.main.java.srcDir(generatedMessages)
+ * tasks.named('compileJava') { dependsOn 'generateMessages' }
+ * }</pre>
+ */
+public final class MessageCodegenTool {
+
+    private MessageCodegenTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Run the tool without exiting the JVM.
+     *
+     * @return the exit status: 0 on success, 1 on errors, 2 on bad arguments
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) throws IOException {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        boolean strict = arguments.remove("--strict");
+        if (arguments.size() < 4) {
+            err.println("Usage: MessageCodegenTool [--strict] <package> <class> <output dir> <messages.properties>...");
+            return 2;
+        }
+
+        String packageName = arguments.get(0);
+        String className = arguments.get(1);
+        Path outputDirectory = Path.of(arguments.get(2));
+        List<Path> files = new ArrayList<>();
+        for (String file : arguments.subList(3, arguments.size())) {
+            files.add(Path.of(file));
+        }
+
+        Map<String, String> templates = new HashMap<>();
+        Map<String, Path> origins = new HashMap<>();
+        for (Path file : files) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                templates.put(key, properties.getProperty(key));
+                origins.put(key, file);
+            }
+        }
+
+        int errors = 0;
+        int warnings = 0;
+        for (Map.Entry<String, List<Diagnostic>> problem : MessageCodegen.validate(templates).entrySet()) {
+            String key = problem.getKey();
+            for (Diagnostic diagnostic : problem.getValue()) {
+                boolean error = diagnostic.isError() || strict;
+                if (error) {
+                    errors++;
+                } else {
+                    warnings++;
+                }
+                err.println(origins.get(key) + ": " + key + ": " + (error ? "error" : "warning")
+                        + " at column " + (diagnostic.getStart() + 1) + ": " + diagnostic.getMessage());
+            }
+        }
+        if (errors > 0) {
+            err.println(errors + " error(s), " + warnings + " warning(s); " + className + " was not generated");
+            return 1;
+        }
+
+        String source;
+        try {
+            source = MessageCodegen.generate(packageName, className, templates, files.get(files.size() - 1).getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return 1;
+        }
+
+        Path directory = packageName.isEmpty() ? outputDirectory : outputDirectory.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        Path output = directory.resolve(className + ".java");
+        // Leave the file alone if nothing changed, so the compile task stays up to date
+        if (!Files.exists(output) || !Files.readString(output, StandardCharsets.UTF_8).equals(source)) {
+            Files.writeString(output, source, StandardCharsets.UTF_8);
+        }
+        out.println("Generated " + output + " with " + templates.size() + " messages"
+                + (warnings > 0 ? ", " + warnings + " warning(s)" : ""));
+        return 0;
+    }
+
+}
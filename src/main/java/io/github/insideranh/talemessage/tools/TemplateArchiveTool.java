@@ -0,0 +1,61 @@
+package io.github.insideranh.talemessage.tools;
+
+import io.github.insideranh.talemessage.TemplateArchive;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Offline compile step for {@link TemplateArchive}:
+ * {@code TemplateArchiveTool <input.properties> <output>} compiles every entry of a UTF-8
+ * properties file into an archive stamped with its {@link TemplateArchive#fingerprint(Map)}.
+ */
+public final class TemplateArchiveTool {
+
+    private TemplateArchiveTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Run the tool without exiting the JVM.
+     *
+     * @return the exit status: 0 on success, 1 if the input does not exist, 2 on bad arguments
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) throws IOException {
+        if (args.length != 2) {
+            err.println("Usage: TemplateArchiveTool <input.properties> <output>");
+            return 2;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            err.println("No such file: " + args[0]);
+            return 1;
+        }
+
+        Map<String, String> templates = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            templates.put(key, properties.getProperty(key));
+        }
+        TemplateArchive.write(Path.of(args[1]), templates, TemplateArchive.fingerprint(templates));
+        out.println("Compiled " + templates.size() + " templates to " + args[1]);
+        return 0;
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.github.insideranh.talemessage.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Maps a list of strings, sequentially or in parallel depending on how much text there is.
+ *
+ * <p>Small batches (a few lines of chat, a short help page) are processed on the calling
+ * thread: handing them to a pool costs more than the work and competes with whatever
+ * else the pool is running. Large batches (a whole language file) are split into
+ * contiguous chunks of roughly equal text length; the calling thread processes one chunk
+ * itself and the rest run on the given executor.</p>
+ *
+ * <p>Results are always in input order.</p>
+ */
+public final class BatchProcessor {
+
+    /**
+     * Total characters below which a batch is always processed sequentially.
+     */
+    public static final int PARALLEL_THRESHOLD = 64 * 1024;
+
+    private static final int MIN_CHUNK_LENGTH = 16 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private BatchProcessor() {
+    }
+
+    /**
+     * Apply {@code function} to every element, using the common fork-join pool for large batches.
+     */
+    public static <R> List<R> map(List<String> inputs, Function<String, R> function) {
+        return map(inputs, function, null);
+    }
+
+    /**
+     * Apply {@code function} to every element.
+     *
+     * @param inputs   the strings to process; {@code null} elements are passed through to {@code function}
+     * @param function the per-element work, must be thread-safe
+     * @param executor where large batches run, or {@code null} for the common fork-join pool
+     * @return a new mutable list with the results in input order
+     */
+    public static <R> List<R> map(List<String> inputs, Function<String, R> function, Executor executor) {
+        int size = inputs.size();
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+
+        String[] items = inputs.toArray(new String[0]);
+        int[] ends = new int[size];
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += items[i] == null ? 0 : items[i].length();
+            ends[i] = (int) Math.min(total, Integer.MAX_VALUE);
+        }
+
+        int threads = executor == null ? ForkJoinPool.getCommonPoolParallelism() + 1 : Runtime.getRuntime().availableProcessors();
+        int chunks = (int) Math.min(Math.min(size, total / MIN_CHUNK_LENGTH), (long) threads * CHUNKS_PER_THREAD);
+        if (total < PARALLEL_THRESHOLD || threads <= 1 || chunks <= 1) {
+            List<R> results = new ArrayList<>(size);
+            for (String item : items) {
+                results.add(function.apply(item));
+            }
+            return results;
+        }
+
+        Object[] results = new Object[size];
+        int[] bounds = chunkBounds(ends, chunks);
+        Executor pool = executor == null ? ForkJoinPool.commonPool() : executor;
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[bounds.length - 2];
+        for (int chunk = 1; chunk < bounds.length - 1; chunk++) {
+            int from = bounds[chunk];
+            int to = bounds[chunk + 1];
+            futures[chunk - 1] = CompletableFuture.runAsync(() -> apply(items, results, from, to, function), pool);
+        }
+
+        // The caller does its share instead of just waiting
+        apply(items, results, bounds[0], bounds[1], function);
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) new ArrayList<>(Arrays.asList(results));
+        return list;
+    }
+
+    private static <R> void apply(String[] items, Object[] results, int from, int to, Function<String, R> function) {
+        for (int i = from; i < to; i++) {
+            results[i] = function.apply(items[i]);
+        }
+    }
+
+    /**
+     * Split {@code [0, ends.length)} into at most {@code chunks} contiguous ranges of similar
+     * text length, given the running total of lengths.
+     *
+     * @return the range boundaries, starting with 0 and ending with {@code ends.length}
+     */
+    private static int[] chunkBounds(int[] ends, int chunks) {
+        int size = ends.length;
+        long total = ends[size - 1];
+        int[] bounds = new int[chunks + 1];
+        int count = 1;
+        int index = 0;
+
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            long target = total * chunk / chunks;
+            while (index < size - 1 && ends[index] < target) {
+                index++;
+            }
+            int boundary = index + 1;
+            if (boundary > bounds[count - 1] && boundary < size) {
+                bounds[count++] = boundary;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+}
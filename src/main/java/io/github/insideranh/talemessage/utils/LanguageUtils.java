@@ -1,79 +1,103 @@
 package io.github.insideranh.talemessage.utils;
 
+import io.github.insideranh.talemessage.TaleMessageMetrics;
 import io.github.insideranh.talemessage.placeholders.Placeholder;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
 
 public class LanguageUtils {
 
-    private static final Map<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+    private static final int MATCHER_CACHE_SIZE = 256;
+    private static final LruCache<String, PlaceholderMatcher> MATCHER_CACHE = new LruCache<>(MATCHER_CACHE_SIZE);
 
     public static String replacePlaceholders(final String message, final Placeholder... placeholders) {
         if (message == null || message.isEmpty() || placeholders.length == 0) {
             return message;
         }
 
-        final StringJoiner patternJoiner = new StringJoiner("|");
-        final Map<String, String> valueMap = new HashMap<>(placeholders.length, 1.0f);
+        final String[] values = new String[placeholders.length];
+        final PlaceholderMatcher matcher = matcherFor(placeholders, values);
+        return replace(matcher, message, values, LazyValues.of(placeholders));
+    }
+
+    public static List<String> replacePlaceholders(final List<String> messages, final Placeholder... placeholders) {
+        return replacePlaceholders(messages, null, placeholders);
+    }
+
+    /**
+     * Replace placeholders in every message. Large lists are split across {@code executor}
+     * (or the common fork-join pool if it is {@code null}); small ones are processed on the
+     * calling thread, see {@link BatchProcessor}.
+     */
+    public static List<String> replacePlaceholders(final List<String> messages, final Executor executor, final Placeholder... placeholders) {
+        if (messages == null || messages.isEmpty()) {
+            return messages == null ? Collections.emptyList() : new ArrayList<>(messages);
+        }
+        if (placeholders.length == 0) {
+            return new ArrayList<>(messages);
+        }
+
+        final String[] values = new String[placeholders.length];
+        final PlaceholderMatcher matcher = matcherFor(placeholders, values);
+        final LazyValues lazy = LazyValues.of(placeholders);
 
-        Arrays.stream(placeholders).forEach(p -> {
-            final String placeholder = p.getPlaceholder();
-            valueMap.put(placeholder, p.getValue());
-            patternJoiner.add("(" + Pattern.quote(placeholder) + ")");
-        });
+        return BatchProcessor.map(messages,
+            message -> message == null || message.isEmpty() ? message : replace(matcher, message, values, lazy),
+            executor);
+    }
 
-        final Pattern megaPattern = PATTERN_CACHE.computeIfAbsent(patternJoiner.toString(),
-            Pattern::compile);
+    private static String replace(final PlaceholderMatcher matcher, final String message, final String[] values, final LazyValues lazy) {
+        final ReplaceEvent event = new ReplaceEvent();
+        final TaleMessageMetrics metrics = TaleMessageMetrics.get();
+        if (metrics == null && !event.isEnabled()) {
+            return matcher.replace(message, values, lazy);
+        }
 
-        final Matcher matcher = megaPattern.matcher(message);
-        final StringBuffer result = new StringBuffer();
-        while (matcher.find()) {
-            matcher.appendReplacement(result,
-                Matcher.quoteReplacement(valueMap.get(matcher.group())));
+        event.begin();
+        final long start = System.nanoTime();
+        final String result = matcher.replace(message, values, lazy);
+        if (metrics != null) {
+            metrics.recordLatency(TaleMessageMetrics.Stage.REPLACE, start);
         }
-        matcher.appendTail(result);
-        return result.toString();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputLength = message.length();
+            event.outputLength = result.length();
+            event.placeholderCount = values.length;
+            event.commit();
+        }
+        return result;
     }
 
-    public static List<String> replacePlaceholders(final List<String> messages, final Placeholder... placeholders) {
-        if (messages == null || messages.isEmpty()) {
-            return messages == null ? Collections.emptyList() : new ArrayList<>(messages);
+    /**
+     * Look up (or build) the matcher for the keys of {@code placeholders} and copy their
+     * values into {@code values}, indexed the same way as the matcher's keys. Lazy
+     * placeholders are left null, see {@link LazyValues}.
+     */
+    private static PlaceholderMatcher matcherFor(final Placeholder[] placeholders, final String[] values) {
+        final String[] keys = new String[placeholders.length];
+        int cacheKeyLength = 0;
+        for (int i = 0; i < placeholders.length; i++) {
+            keys[i] = placeholders[i].getPlaceholder();
+            values[i] = placeholders[i].isLazy() ? null : placeholders[i].getValue();
+            cacheKeyLength += keys[i] == null ? 1 : keys[i].length() + 1;
         }
 
-        final StringJoiner patternJoiner = new StringJoiner("|");
-        final Map<String, String> valueMap = Arrays.stream(placeholders)
-            .collect(Collectors.toMap(
-                Placeholder::getPlaceholder,
-                Placeholder::getValue,
-                (a, b) -> b,
-                () -> new HashMap<>(placeholders.length, 1.0f)
-            ));
-
-        Arrays.stream(placeholders)
-            .map(Placeholder::getPlaceholder)
-            .map(Pattern::quote)
-            .map(quoted -> "(" + quoted + ")")
-            .forEach(patternJoiner::add);
-
-        final Pattern megaPattern = PATTERN_CACHE.computeIfAbsent(patternJoiner.toString(), Pattern::compile);
-
-        return messages.stream()
-            .parallel()
-            .map(message -> {
-                final Matcher matcher = megaPattern.matcher(message);
-                final StringBuffer result = new StringBuffer();
-                while (matcher.find()) {
-                    matcher.appendReplacement(result,
-                        Matcher.quoteReplacement(valueMap.get(matcher.group())));
-                }
-                matcher.appendTail(result);
-                return result.toString();
-            })
-            .collect(Collectors.toList());
+        if (keys.length == 1) {
+            return MATCHER_CACHE.get(keys[0] == null ? "" : keys[0], key -> new PlaceholderMatcher(keys));
+        }
+
+        // Keys cannot contain NUL in practice, so it is safe as a separator
+        final StringBuilder cacheKey = new StringBuilder(cacheKeyLength);
+        for (String key : keys) {
+            if (key != null) {
+                cacheKey.append(key);
+            }
+            cacheKey.append('\0');
+        }
+        return MATCHER_CACHE.get(cacheKey.toString(), key -> new PlaceholderMatcher(keys));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package io.github.insideranh.talemessage.utils;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The lazy placeholders of one replace call, indexed like its keys, each resolved on the
+ * first match and at most once, even when a batch shares them between threads.
+ *
+ * <p>A resolver runs without any lock held. A thread that matches a key another thread is
+ * still resolving waits for that value only; keys resolved by other threads never block it.</p>
+ */
+final class LazyValues {
+
+    // Stands for a resolved null, so it can be told apart from a slot without a placeholder
+    private static final Object NO_VALUE = new Object();
+
+    // Per key: a Placeholder not resolved yet, the CompletableFuture of a resolve in
+    // progress, the resolved String, NO_VALUE, or null if the key is not lazy
+    private final AtomicReferenceArray<Object> slots;
+
+    private LazyValues(AtomicReferenceArray<Object> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * @return the lazy placeholders of {@code placeholders}, or null if there are none
+     */
+    static LazyValues of(Placeholder[] placeholders) {
+        AtomicReferenceArray<Object> slots = null;
+        for (int i = 0; i < placeholders.length; i++) {
+            if (placeholders[i] != null && placeholders[i].isLazy()) {
+                if (slots == null) {
+                    slots = new AtomicReferenceArray<>(placeholders.length);
+                }
+                slots.set(i, placeholders[i]);
+            }
+        }
+        return slots == null ? null : new LazyValues(slots);
+    }
+
+    /**
+     * @return the value of the lazy placeholder at {@code index}, resolving it if this is the
+     * first request, or null if it resolved to null or is not lazy
+     */
+    String resolve(int index) {
+        Object slot = slots.get(index);
+        if (slot instanceof Placeholder placeholder) {
+            CompletableFuture<String> resolving = new CompletableFuture<>();
+            if (slots.compareAndSet(index, placeholder, resolving)) {
+                String value;
+                try {
+                    value = placeholder.getValue();
+                } catch (RuntimeException | Error e) {
+                    resolving.completeExceptionally(e);
+                    throw e;
+                }
+                slots.set(index, value == null ? NO_VALUE : value);
+                resolving.complete(value);
+                return value;
+            }
+            slot = slots.get(index);
+        }
+
+        if (slot instanceof CompletableFuture<?> resolving) {
+            try {
+                return (String) resolving.join();
+            } catch (CompletionException e) {
+                // Fail like the thread that ran the resolver
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return slot == NO_VALUE ? null : (String) slot;
+    }
+
+}
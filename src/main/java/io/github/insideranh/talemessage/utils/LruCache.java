@@ -0,0 +1,134 @@
+package io.github.insideranh.talemessage.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe, size-bounded LRU cache with hit/miss counters.
+ *
+ * <p>Keys are spread over independently locked segments by hash, so threads looking up
+ * different keys rarely wait for each other. Each segment holds an equal share of
+ * {@code maxSize} and evicts its own least-recently-used entry once full, which makes the
+ * eviction order approximate across the whole cache.</p>
+ *
+ * <p>Values are computed outside the lock, so two threads missing on the same key may
+ * both compute it; the last one wins.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    // Below this many entries per segment, LRU order would be too coarse to be useful
+    private static final int MIN_SEGMENT_SIZE = 8;
+
+    private final int maxSize;
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+
+        int count = 1;
+        while (count < MAX_SEGMENTS && maxSize / (count * 2) >= MIN_SEGMENT_SIZE) {
+            count *= 2;
+        }
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            // The first segments take the remainder, so the sizes add up to maxSize
+            segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0));
+        }
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        value = loader.apply(key);
+        if (value != null) {
+            synchronized (segment) {
+                segment.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the high bits, like HashMap does
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(Math.min(maxSize, 256), 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,218 @@
+package io.github.insideranh.talemessage.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writes numbers and durations into a {@link StringBuilder} digit by digit, without the
+ * intermediate strings of {@link String#format} or {@link java.text.DecimalFormat}.
+ *
+ * <p>Output does not depend on the locale: the decimal separator is always {@code '.'}.
+ * All methods are stateless and safe to call from any thread.</p>
+ */
+public final class NumberWriter {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    /**
+     * The most decimals {@link #appendFixed} writes.
+     */
+    public static final int MAX_DECIMALS = POWERS_OF_TEN.length - 1;
+
+    private static final String[] COMPACT_SUFFIXES = {"", "k", "M", "B", "T", "Q", "Qi"};
+
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final long SECONDS_PER_HOUR = 60 * SECONDS_PER_MINUTE;
+    private static final long SECONDS_PER_DAY = 24 * SECONDS_PER_HOUR;
+
+    private NumberWriter() {
+    }
+
+    /**
+     * Append {@code value} with exactly {@code decimals} digits after the point, e.g.
+     * {@code 3.14159} with 2 decimals as {@code 3.14}. Rounds half up, from the binary value
+     * of the double. NaN and infinities are written like {@link Double#toString(double)}.
+     *
+     * @param decimals between 0 and {@link #MAX_DECIMALS}
+     */
+    public static StringBuilder appendFixed(StringBuilder out, double value, int decimals) {
+        checkDecimals(decimals);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return out.append(value);
+        }
+
+        double absolute = Math.abs(value);
+        if (absolute >= Long.MAX_VALUE) {
+            // Too large for the integer path; rare enough to pay for BigDecimal
+            return out.append(new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
+
+        // Split before scaling: the fraction of a double is exact, scaling the whole value is not
+        long scale = POWERS_OF_TEN[decimals];
+        long integer = (long) absolute;
+        long fraction = Math.round((absolute - integer) * scale);
+        if (fraction == scale) {
+            integer++;
+            fraction = 0;
+        }
+
+        if ((integer != 0 || fraction != 0) && value < 0) {
+            out.append('-');
+        }
+        out.append(integer);
+        if (decimals > 0) {
+            out.append('.');
+            appendPadded(out, fraction, decimals);
+        }
+        return out;
+    }
+
+    /**
+     * Append {@code value} with {@code separator} between groups of three digits, e.g.
+     * {@code 1234567} with {@code ','} as {@code 1,234,567}.
+     */
+    public static StringBuilder appendGrouped(StringBuilder out, long value, char separator) {
+        // Work on the negative value, so Long.MIN_VALUE needs no special case
+        long negative = value < 0 ? value : -value;
+        if (value < 0) {
+            out.append('-');
+        }
+
+        int digits = 1;
+        long divisor = 1;
+        while (negative / divisor <= -10) {
+            divisor *= 10;
+            digits++;
+        }
+
+        for (int i = digits; i > 0; i--) {
+            out.append((char) ('0' - (negative / divisor) % 10));
+            divisor /= 10;
+            if (i > 1 && (i - 1) % 3 == 0) {
+                out.append(separator);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Append {@code value} in short form with at most one decimal: {@code 999}, {@code 1.2k},
+     * {@code 15M}, {@code 3.4B}, then {@code T}, {@code Q} and {@code Qi}. Rounds half up,
+     * so {@code 999950} is {@code 1M}.
+     */
+    public static StringBuilder appendCompact(StringBuilder out, long value) {
+        if (value < 0) {
+            out.append('-');
+        }
+        // Long.MIN_VALUE has no positive counterpart; one less reads the same
+        long absolute = value == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(value);
+        if (absolute < 1000) {
+            return out.append(absolute);
+        }
+
+        int unit = 1;
+        long unitSize = 1000;
+        while (unit < COMPACT_SUFFIXES.length - 1 && absolute / unitSize >= 1000) {
+            unit++;
+            unitSize *= 1000;
+        }
+
+        long tenths = roundedDivide(absolute, unitSize / 10);
+        if (tenths >= 10_000 && unit < COMPACT_SUFFIXES.length - 1) {
+            // Rounding carried into the next unit, e.g. 999.95k
+            unit++;
+            unitSize *= 1000;
+            tenths = roundedDivide(absolute, unitSize / 10);
+        }
+
+        out.append(tenths / 10);
+        if (tenths % 10 != 0) {
+            out.append('.').append((char) ('0' + tenths % 10));
+        }
+        return out.append(COMPACT_SUFFIXES[unit]);
+    }
+
+    /**
+     * Append a duration as its non-zero units, e.g. {@code 1d 2h 5s} or {@code 3m}. Anything
+     * below a second is dropped; durations shorter than one second are written as {@code 0s}.
+     */
+    public static StringBuilder appendDuration(StringBuilder out, long millis) {
+        long seconds = millis / MILLIS_PER_SECOND;
+        if (seconds == 0) {
+            return out.append("0s");
+        }
+        if (seconds < 0) {
+            out.append('-');
+            seconds = -seconds;
+        }
+
+        int start = out.length();
+        seconds = appendUnit(out, start, seconds, SECONDS_PER_DAY, 'd');
+        seconds = appendUnit(out, start, seconds, SECONDS_PER_HOUR, 'h');
+        seconds = appendUnit(out, start, seconds, SECONDS_PER_MINUTE, 'm');
+        appendUnit(out, start, seconds, 1, 's');
+        return out;
+    }
+
+    /**
+     * Append a duration as a clock, e.g. {@code 4:05} for minutes and seconds or
+     * {@code 1:02:03} once it reaches an hour. Hours are not wrapped into days.
+     */
+    public static StringBuilder appendClock(StringBuilder out, long millis) {
+        long seconds = millis / MILLIS_PER_SECOND;
+        if (seconds < 0) {
+            out.append('-');
+            seconds = -seconds;
+        }
+
+        long hours = seconds / SECONDS_PER_HOUR;
+        long minutes = seconds % SECONDS_PER_HOUR / SECONDS_PER_MINUTE;
+        if (hours > 0) {
+            out.append(hours).append(':');
+            appendPadded(out, minutes, 2);
+        } else {
+            out.append(minutes);
+        }
+        out.append(':');
+        return appendPadded(out, seconds % SECONDS_PER_MINUTE, 2);
+    }
+
+    private static long appendUnit(StringBuilder out, int start, long seconds, long unit, char suffix) {
+        long count = seconds / unit;
+        if (count > 0) {
+            if (out.length() > start) {
+                out.append(' ');
+            }
+            out.append(count).append(suffix);
+        }
+        return seconds % unit;
+    }
+
+    /**
+     * Append a non-negative {@code value} left-padded with zeros to {@code width} digits.
+     */
+    private static StringBuilder appendPadded(StringBuilder out, long value, int width) {
+        for (int i = width - 1; i > 0 && value < POWERS_OF_TEN[i]; i--) {
+            out.append('0');
+        }
+        return out.append(value);
+    }
+
+    private static long roundedDivide(long value, long divisor) {
+        // Written so that it cannot overflow for values close to Long.MAX_VALUE
+        return value / divisor + (value % divisor >= divisor - divisor / 2 ? 1 : 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code decimals} is not between 0 and {@link #MAX_DECIMALS}
+     */
+    public static void checkDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package io.github.insideranh.talemessage.utils;
+
+/**
+ * Trie over a fixed set of placeholder keys, used by {@link LanguageUtils} to replace
+ * every key in a single left-to-right scan.
+ *
+ * <p>At each position the longest key starting there wins. Characters that cannot
+ * start any key are skipped with a bitmap check, so text without placeholders is
+ * scanned once and returned as is.</p>
+ *
+ * <p>Instances are immutable and shared between threads through the matcher cache.</p>
+ */
+final class PlaceholderMatcher {
+
+    private final Node root = new Node();
+    private final long[] asciiStarts = new long[2];
+    private boolean nonAsciiStarts;
+
+    /**
+     * @param keys placeholder keys; {@code null} and empty keys are ignored and
+     *             for duplicated keys the last index is kept
+     */
+    PlaceholderMatcher(String[] keys) {
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            if (key == null || key.isEmpty()) {
+                continue;
+            }
+
+            Node node = root;
+            for (int j = 0; j < key.length(); j++) {
+                node = node.child(key.charAt(j));
+            }
+            node.keyIndex = i;
+
+            char first = key.charAt(0);
+            if (first < 128) {
+                asciiStarts[first >>> 6] |= 1L << first;
+            } else {
+                nonAsciiStarts = true;
+            }
+        }
+    }
+
+    /**
+     * Replace all keys in {@code message} with the value at the same index.
+     *
+     * @param message the text to scan
+     * @param values  replacement values, indexed like the keys; {@code null} keeps the key
+     * @param lazy    the lazy placeholders, resolved on their first match, or null if there
+     *                are none. Calls sharing it resolve each one once
+     * @return {@code message} itself if no key was found, otherwise a new string
+     */
+    String replace(String message, String[] values, LazyValues lazy) {
+        int length = message.length();
+        StringBuilder result = null;
+        int last = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (c < 128 ? (asciiStarts[c >>> 6] & (1L << c)) == 0 : !nonAsciiStarts) {
+                continue;
+            }
+
+            int matchKey = -1;
+            int matchEnd = -1;
+            Node node = root;
+            for (int j = i; j < length; j++) {
+                node = node.find(message.charAt(j));
+                if (node == null) {
+                    break;
+                }
+                if (node.keyIndex >= 0) {
+                    matchKey = node.keyIndex;
+                    matchEnd = j + 1;
+                }
+            }
+
+            if (matchKey < 0) {
+                continue;
+            }
+            String value = values[matchKey];
+            if (value == null && lazy != null) {
+                value = lazy.resolve(matchKey);
+            }
+            if (value == null) {
+                continue;
+            }
+
+            if (result == null) {
+                result = new StringBuilder(length + valuesLength(values));
+            }
+            result.append(message, last, i).append(value);
+            last = matchEnd;
+            i = matchEnd - 1;
+        }
+
+        if (result == null) {
+            return message;
+        }
+
+        return result.append(message, last, length).toString();
+    }
+
+    private static int valuesLength(String[] values) {
+        int total = 0;
+        for (String value : values) {
+            if (value != null) {
+                total += value.length();
+            }
+        }
+        return total;
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        private char[] chars = NO_CHARS;
+        private Node[] nodes = NO_NODES;
+        private int keyIndex = -1;
+
+        Node find(char c) {
+            char[] chars = this.chars;
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return nodes[i];
+                }
+            }
+            return null;
+        }
+
+        Node child(char c) {
+            Node node = find(c);
+            if (node != null) {
+                return node;
+            }
+
+            int size = chars.length;
+            char[] newChars = new char[size + 1];
+            Node[] newNodes = new Node[size + 1];
+            System.arraycopy(chars, 0, newChars, 0, size);
+            System.arraycopy(nodes, 0, newNodes, 0, size);
+            newChars[size] = c;
+            newNodes[size] = node = new Node();
+            chars = newChars;
+            nodes = newNodes;
+            return node;
+        }
+
+    }
+
+}
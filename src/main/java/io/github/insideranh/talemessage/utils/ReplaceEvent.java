@@ -0,0 +1,28 @@
+package io.github.insideranh.talemessage.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for {@link LanguageUtils#replacePlaceholders(String, io.github.insideranh.talemessage.placeholders.Placeholder...)}.
+ */
+@Name("talemessage.Replace")
+@Label("TaleMessage Replace Placeholders")
+@Category("TaleMessage")
+@Description("Placeholder values substituted into a string")
+@Threshold("1 ms")
+final class ReplaceEvent extends jdk.jfr.Event {
+
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Output Length")
+    int outputLength;
+
+    @Label("Placeholder Count")
+    int placeholderCount;
+
+}
@@ -0,0 +1,96 @@
+package com.hypixel.hytale.server.core;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for the Hytale server Message, which is compileOnly in the main build, shared by
+ * the tests and the benchmarks.
+ *
+ * <p>It records what the builder sets, so tests can compare the built tree, see {@code Messages}.
+ * It keeps the same shape (text, style fields and a child list) so that allocation numbers
+ * reported by the GC profiler stay close to what the real class would produce.</p>
+ */
+public class Message {
+
+    private String rawText;
+    private Color color;
+    private boolean bold;
+    private boolean italic;
+    private boolean monospace;
+    private String link;
+    private List<Message> children;
+
+    public static Message empty() {
+        return new Message();
+    }
+
+    public static Message raw(String text) {
+        Message message = new Message();
+        message.rawText = text;
+        return message;
+    }
+
+    public Message insert(Message child) {
+        if (children == null) {
+            children = new ArrayList<>();
+        }
+        children.add(child);
+        return this;
+    }
+
+    public Message color(Color color) {
+        this.color = color;
+        return this;
+    }
+
+    public Message bold(boolean bold) {
+        this.bold = bold;
+        return this;
+    }
+
+    public Message italic(boolean italic) {
+        this.italic = italic;
+        return this;
+    }
+
+    public Message monospace(boolean monospace) {
+        this.monospace = monospace;
+        return this;
+    }
+
+    public Message link(String link) {
+        this.link = link;
+        return this;
+    }
+
+    public String getRawText() {
+        return rawText;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+
+    public boolean isItalic() {
+        return italic;
+    }
+
+    public boolean isMonospace() {
+        return monospace;
+    }
+
+    public String getLink() {
+        return link;
+    }
+
+    public List<Message> getChildren() {
+        return children == null ? List.of() : children;
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncRendererTest {
+
+    private static final Executor REJECTING = command -> {
+        throw new RejectedExecutionException("shut down");
+    };
+
+    @Test
+    void rendersOnTheRenderThreads() throws Exception {
+        try (AsyncRenderer renderer = AsyncRenderer.builder().build()) {
+            Message message = renderer.render("<red>Hi {player}", new Placeholder("{player}", "Bob"))
+                    .get(10, TimeUnit.SECONDS);
+
+            assertEquals("Hi Bob", Messages.text(message));
+        }
+    }
+
+    @Test
+    void rejectedExecutionReleasesThePermit() throws Exception {
+        for (AsyncRenderer.OverflowPolicy policy : AsyncRenderer.OverflowPolicy.values()) {
+            AsyncRenderer renderer = AsyncRenderer.builder().executor(REJECTING).maxPending(1).overflow(policy).build();
+
+            for (int i = 0; i < 3; i++) {
+                CompletableFuture<Message> future = renderer.render("<red>Hi");
+                assertTrue(future.isDone(), policy.name());
+                assertEquals(0, renderer.getPending(), policy.name());
+                if (policy == AsyncRenderer.OverflowPolicy.REJECT) {
+                    assertRejected(future);
+                } else {
+                    assertEquals("Hi", Messages.text(future.get()));
+                }
+            }
+            assertEquals(3, renderer.getOverflows(), policy.name());
+        }
+    }
+
+    @Test
+    void callerRunsWhenFull() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        AsyncRenderer renderer = AsyncRenderer.builder().executor(queued::add).maxPending(1).build();
+
+        CompletableFuture<Message> first = renderer.render("<red>first");
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> second = renderer.render(() -> Message.raw(Thread.currentThread().getName()))
+                .thenApply(message -> Thread.currentThread());
+
+        assertSame(caller, second.get());
+        assertEquals(1, renderer.getOverflows());
+        assertEquals(1, renderer.getPending());
+
+        queued.forEach(Runnable::run);
+        assertEquals("first", Messages.text(first.get()));
+        assertEquals(0, renderer.getPending());
+    }
+
+    @Test
+    void fallbackShowsTheTextWithoutResolvingLazyValues() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        AsyncRenderer renderer = AsyncRenderer.builder().executor(queued::add).maxPending(1)
+                .overflow(AsyncRenderer.OverflowPolicy.FALLBACK).build();
+        renderer.render("<red>busy");
+
+        AtomicInteger resolves = new AtomicInteger();
+        Placeholder[] values = {
+                new Placeholder("{player}", "<b>Bob</b>"),
+                Placeholder.lazy("{rank}", () -> {
+                    resolves.incrementAndGet();
+                    return "VIP";
+                })
+        };
+        String template = "<red>{player} is <bold>{rank}</bold>";
+
+        // The template loses its markup, the value is shown as typed
+        assertEquals("<b>Bob</b> is {rank}", Messages.text(renderer.render(template, values).get()));
+        assertEquals("<b>Bob</b> is {rank}", Messages.text(renderer.render(TaleMessage.compile(template), values).get()));
+        assertEquals(0, resolves.get());
+
+        // A Supplier has no text to fall back to
+        assertRejected(renderer.render(() -> Message.raw("work")));
+        assertEquals(3, renderer.getOverflows());
+    }
+
+    @Test
+    void rejectWhenFull() {
+        List<Runnable> queued = new ArrayList<>();
+        AsyncRenderer renderer = AsyncRenderer.builder().executor(queued::add).maxPending(2)
+                .overflow(AsyncRenderer.OverflowPolicy.REJECT).build();
+
+        renderer.render("<red>a");
+        renderer.render("<red>b");
+        assertRejected(renderer.render("<red>c"));
+        assertEquals(1, renderer.getOverflows());
+        assertEquals(2, renderer.getPending());
+
+        queued.forEach(Runnable::run);
+        assertEquals(0, renderer.getPending());
+    }
+
+    @Test
+    void rejectingDeliveryStillCompletes() {
+        AsyncRenderer renderer = AsyncRenderer.builder().executor(Runnable::run).delivery(REJECTING).build();
+
+        assertRejected(renderer.render("<red>Hi"));
+        assertRejected(renderer.render(() -> {
+            throw new IllegalStateException("broken");
+        }));
+        assertEquals(0, renderer.getPending());
+    }
+
+    @Test
+    void failingWorkCompletesExceptionally() {
+        AsyncRenderer renderer = AsyncRenderer.builder().executor(Runnable::run).build();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> renderer.render(() -> {
+            throw new IllegalStateException("broken");
+        }).get());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private static void assertRejected(CompletableFuture<Message> future) {
+        assertTrue(future.isDone());
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+}
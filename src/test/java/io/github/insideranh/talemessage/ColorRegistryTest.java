@@ -0,0 +1,94 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.awt.Color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ColorRegistryTest {
+
+    @Test
+    void namedColors() {
+        assertEquals(0xFFFF5555, ColorRegistry.getColorArgb("red"));
+        assertEquals(0xFFFF5555, ColorRegistry.getColorArgb(" RED "));
+        assertEquals(0xFF8B4513, ColorRegistry.getColorArgb("brown"));
+        assertEquals(ColorRegistry.NO_COLOR, ColorRegistry.getColorArgb("redd"));
+        assertEquals(ColorRegistry.NO_COLOR, ColorRegistry.getColorArgb(""));
+        assertEquals(ColorRegistry.NO_COLOR, ColorRegistry.getColorArgb(null));
+    }
+
+    @Test
+    void hexColors() {
+        assertEquals(0xFFFF8800, ColorRegistry.parseHexArgb("#FF8800"));
+        assertEquals(0xFFFF8800, ColorRegistry.parseHexArgb("ff8800"));
+        assertEquals(0x80FF8800, ColorRegistry.parseHexArgb("#FF880080"));
+        assertEquals(0xFFFF8800, ColorRegistry.getColorArgb(" #ff8800 "));
+        assertEquals(ColorRegistry.NO_COLOR, ColorRegistry.parseHexArgb("#FF880"));
+        assertEquals(ColorRegistry.NO_COLOR, ColorRegistry.parseHexArgb("#GG8800"));
+        assertNull(ColorRegistry.parseHex("#12"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "255,85,85", "255, 85, 85", " 255 , 85 , 85 ", "255,85,85,128", "007,8,9", "\t1,2,3\t",
+            // String.split dropped trailing empty parts
+            "255,0,0,", "255,0,0,,", "255,0,0,128,", "255,0,0 ,",
+            // Integer.parseInt takes a sign and any Unicode digits
+            "+255,+0,-0", "٣,2,3",
+            // Invalid
+            ",,,", "255,,0,0", "255,0", "255,0,0,0,0", "256,0,0", "-1,0,0", "1a,0,0", "255,0,0, ", ",255,0,0", "1,2"
+    })
+    void rgbParsesLikeSplitAndParseInt(String rgb) {
+        Color expected = splitAndParseInt(rgb);
+        Color color = ColorRegistry.parseRGB(rgb);
+        assertEquals(expected == null ? null : expected.getRGB(), color == null ? null : color.getRGB());
+    }
+
+    @Test
+    void transparentBlackIsNotNoColor() {
+        assertEquals(1, ColorRegistry.parseRGBArgb("0,0,0,0"));
+        assertEquals(0, ColorRegistry.toColor(ColorRegistry.parseRGBArgb("0,0,0,0")).getAlpha());
+    }
+
+    @Test
+    void interpolates() {
+        assertEquals(0xFF7F7F00, ColorRegistry.interpolate(0xFFFF0000, 0xFF00FF00, 0.5f));
+        assertEquals(0xFFFF0000, ColorRegistry.interpolate(0xFFFF0000, 0xFF00FF00, 0));
+        assertEquals(0xFF00FF00, ColorRegistry.interpolate(0xFFFF0000, 0xFF00FF00, 1));
+    }
+
+    @Test
+    void reusesColorInstances() {
+        assertSame(ColorRegistry.toColor(0xFF123456), ColorRegistry.toColor(0xFF123456));
+        assertNull(ColorRegistry.toColor(ColorRegistry.NO_COLOR));
+    }
+
+    /**
+     * How colors were parsed before packed colors: split on commas and Integer.parseInt.
+     */
+    private static Color splitAndParseInt(String rgb) {
+        try {
+            String[] parts = rgb.split(",");
+            if (parts.length != 3 && parts.length != 4) {
+                return null;
+            }
+
+            int r = Integer.parseInt(parts[0].trim());
+            int g = Integer.parseInt(parts[1].trim());
+            int b = Integer.parseInt(parts[2].trim());
+            int a = parts.length == 4 ? Integer.parseInt(parts[3].trim()) : 255;
+            if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255 || a < 0 || a > 255) {
+                return null;
+            }
+            return new Color(r, g, b, a);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
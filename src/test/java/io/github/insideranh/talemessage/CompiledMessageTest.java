@@ -0,0 +1,56 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import io.github.insideranh.talemessage.utils.LanguageUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompiledMessageTest {
+
+    @Test
+    void fillsSlots() {
+        CompiledMessage join = TaleMessage.compile("<yellow>{player} joined with %count% friends");
+        assertEquals("{{{\"Bob joined with 3 friends\" #FFFF55}}}",
+                Messages.describe(join.build(new Placeholder("{player}", "Bob"), new Placeholder("%count%", "3"))));
+    }
+
+    @Test
+    void insertsValuesAsPlainText() {
+        CompiledMessage join = TaleMessage.compile("<yellow>{player} joined");
+        assertEquals("<red>Bob joined", Messages.text(join.build(new Placeholder("{player}", "<red>Bob"))));
+    }
+
+    @Test
+    void keepsSlotsWithoutValue() {
+        assertEquals("Hi {player}", Messages.text(TaleMessage.compile("<gray>Hi {player}").build(new Placeholder("{other}", "x"))));
+    }
+
+    @Test
+    void substitutesKeyInsideLongerSlot() {
+        // {player} is a slot key, but the template only has a {{player}} slot: behave like substitution
+        Placeholder player = new Placeholder("{player}", "Bob");
+        assertEquals("{Bob}", LanguageUtils.replacePlaceholders("{{player}}", player));
+        assertEquals("{Bob}", Messages.text(TaleMessage.parse("<red>{{player}}</red>", player)));
+        assertEquals("{Bob}", Messages.text(TaleMessage.compile("<red>{{player}}</red>").buildForEach(List.<Placeholder[]>of(new Placeholder[]{player})).get(0)));
+
+        StringBuilder runs = new StringBuilder();
+        TaleMessage.compile("<red>{{player}}</red>").forEachRun((text, color, flags, link) -> runs.append(text), player);
+        assertEquals("{Bob}", runs.toString());
+    }
+
+    @Test
+    void substitutesKeysNotInSlotForm() {
+        assertEquals("Hello Bob", Messages.text(TaleMessage.compile("<green>Hello PLAYER").build(new Placeholder("PLAYER", "Bob"))));
+        assertEquals("Hello Bob", Messages.text(TaleMessage.compile("Hello PLAYER").build(new Placeholder("PLAYER", "Bob"))));
+    }
+
+    @Test
+    void substitutesSlotsInsideTags() {
+        assertEquals("{{\"go\" link=https://example.com}}",
+                Messages.describe(TaleMessage.compile("<click:{url}>go</click>").build(new Placeholder("{url}", "https://example.com"))));
+    }
+
+}
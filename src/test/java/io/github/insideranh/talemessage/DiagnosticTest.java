@@ -0,0 +1,101 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class DiagnosticTest {
+
+    static Stream<Arguments> diagnostics() {
+        return Stream.of(
+                // input, expected diagnostics as "CODE start..end"
+                arguments("<redd>x", List.of("UNKNOWN_TAG 0..6")),
+                arguments("1 < 2 > 0", List.of("NOT_A_TAG 2..7")),
+                arguments("a < b", List.of("UNCLOSED_BRACKET 2..3")),
+                arguments("<>x", List.of("EMPTY_TAG 0..2")),
+                arguments("a</red>", List.of("UNMATCHED_CLOSE 1..7")),
+                arguments("<red><bold>x</red>", List.of("MISMATCHED_CLOSE 12..18")),
+                arguments("<gradient:red:nope:blue>x</gradient>", List.of("INVALID_COLOR 14..18")),
+                arguments("<gradient:nope>x</gradient>", List.of("INVALID_COLOR 10..14", "INVALID_GRADIENT 0..15")),
+                arguments("<click:>x</click>", List.of("EMPTY_URL 0..8")),
+                arguments("&ka&mb", List.of("UNSUPPORTED_CODE 0..2", "UNSUPPORTED_CODE 3..5")),
+                arguments("<gold>fine {player}</gold> &zx", List.of()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("diagnostics")
+    void codesAndRanges(String input, List<String> expected) {
+        assertEquals(expected, summary(MiniMessageParser.validate(input)));
+        assertEquals(expected, summary(TaleMessage.parseWithDiagnostics(input).getDiagnostics()));
+    }
+
+    @Test
+    void parseWithDiagnosticsBuildsLikeParse() {
+        ParseResult result = TaleMessage.parseWithDiagnostics("<redd>x <gold>y");
+        assertTrue(result.hasErrors());
+        assertEquals(Messages.describe(TaleMessage.parse("<redd>x <gold>y")), Messages.describe(result.getMessage()));
+
+        ParseResult warnings = TaleMessage.parseWithDiagnostics("a < b");
+        assertTrue(warnings.hasDiagnostics());
+        assertFalse(warnings.hasErrors());
+    }
+
+    @Test
+    void severities() {
+        assertEquals(Diagnostic.Severity.ERROR, Diagnostic.Code.UNKNOWN_TAG.getSeverity());
+        assertEquals(Diagnostic.Severity.WARNING, Diagnostic.Code.UNCLOSED_BRACKET.getSeverity());
+    }
+
+    @Test
+    void compileStrictFailsOnErrorsOnly() {
+        MessageSyntaxException e = assertThrows(MessageSyntaxException.class, () -> TaleMessage.compileStrict("<redd>x"));
+        assertEquals("<redd>x", e.getInput());
+        assertEquals(List.of("UNKNOWN_TAG 0..6"), summary(e.getDiagnostics()));
+
+        assertEquals("a < b", TaleMessage.compileStrict("a < b").getSource());
+        assertThrows(MessageSyntaxException.class, () -> TaleMessage.compileStrict("a < b", true));
+    }
+
+    @Test
+    void syntaxExceptionKeepsDiagnosticsWhenSerialized() throws IOException, ClassNotFoundException {
+        MessageSyntaxException e = new MessageSyntaxException("error.bad", "<redd>x",
+                MiniMessageParser.validate("<redd>x"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(e);
+        }
+        MessageSyntaxException read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (MessageSyntaxException) in.readObject();
+        }
+
+        assertEquals(e.getMessage(), read.getMessage());
+        assertEquals("error.bad", read.getKey());
+        assertEquals("<redd>x", read.getInput());
+        assertEquals(List.of("UNKNOWN_TAG 0..6"), summary(read.getDiagnostics()));
+        assertEquals(e.getDiagnostics().get(0).toString(), read.getDiagnostics().get(0).toString());
+    }
+
+    private static List<String> summary(List<Diagnostic> diagnostics) {
+        return diagnostics.stream()
+                .map(diagnostic -> diagnostic.getCode() + " " + diagnostic.getStart() + ".." + diagnostic.getEnd())
+                .toList();
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void disableParseCache() {
+        TaleMessage.disableParseCache();
+    }
+
+    @Test
+    void compileEventReportsCacheHits() throws IOException {
+        TaleMessage.enableParseCache(16);
+        String input = "<red>Cached " + System.nanoTime();
+
+        List<RecordedEvent> events = record("talemessage.Compile", () -> {
+            TaleMessage.parse(input);
+            TaleMessage.parse(input);
+            TaleMessage.disableParseCache();
+            TaleMessage.parse(input);
+        });
+
+        assertEquals(List.of(false, true, false), field(events, "cacheHit", input.length()));
+        assertFalse(events.get(0).getBoolean("plainText"));
+    }
+
+    @Test
+    void parseAndBuildEvents() throws IOException {
+        String input = "<gold>{player} <click:{url}>go</click> " + System.nanoTime();
+
+        List<RecordedEvent> parses = record("talemessage.Parse", () -> TaleMessage.parse(input));
+        List<Object> tagSlots = field(parses, "tagSlots", input.length());
+        assertEquals(List.of(true), tagSlots);
+
+        List<RecordedEvent> builds = record("talemessage.Build",
+                () -> TaleMessage.compile("<gold>{player}").build(new Placeholder("{player}", "Bob")));
+        assertFalse(builds.isEmpty());
+        assertTrue(builds.stream().anyMatch(event -> event.getInt("placeholderCount") == 1));
+    }
+
+    /**
+     * Record every event named {@code name} while {@code work} runs, whatever its duration.
+     */
+    private List<RecordedEvent> record(String name, Runnable work) throws IOException {
+        Path file = directory.resolve(name + ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals(name)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return {@code field} of the events about an input of {@code inputLength} chars, in the order they were recorded
+     */
+    private static List<Object> field(List<RecordedEvent> events, String field, int inputLength) {
+        List<Object> values = new ArrayList<>();
+        events.stream()
+                .filter(event -> event.getInt("inputLength") == inputLength)
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .forEach(event -> values.add(event.getValue(field)));
+        return values;
+    }
+
+}
@@ -0,0 +1,43 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientCacheTest {
+
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+    private static final int BLUE = 0xFF0000FF;
+
+    @Test
+    void interpolatesBetweenStops() {
+        assertArrayEquals(new int[]{RED, 0xFF7F7F00, GREEN, 0xFF007F7F, BLUE},
+                GradientCache.colors(new int[]{RED, GREEN, BLUE}, 5));
+        assertArrayEquals(new int[]{RED}, GradientCache.colors(new int[]{RED, BLUE}, 1));
+    }
+
+    @Test
+    void reusesColorsOfEqualGradients() {
+        int[] stops = {0xFF123456, 0xFF654321};
+        int length = 37;
+        assertFalse(GradientCache.contains(stops, length));
+
+        int[] colors = GradientCache.colors(stops, length);
+        assertTrue(GradientCache.contains(stops.clone(), length));
+        assertSame(colors, GradientCache.colors(stops.clone(), length));
+        assertFalse(GradientCache.contains(stops, length + 1));
+    }
+
+    @Test
+    void coalescesRunsOfOneColor() {
+        assertEquals("{{\"abcd\" #FF5555}}", Messages.describe(TaleMessage.parse("<gradient:red:red>abcd</gradient>")));
+        assertEquals("{{{\"abc\" #000000} {\"de\" #010101} {\"fg\" #020202} {\"h\" #030303}}}",
+                Messages.describe(TaleMessage.parse("<gradient:#000000:#030303>abcdefgh</gradient>")));
+    }
+
+}
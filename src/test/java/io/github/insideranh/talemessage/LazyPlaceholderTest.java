@@ -0,0 +1,76 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyPlaceholderTest {
+
+    @Test
+    void resolvesOnlyUsedKeysOnce() {
+        AtomicInteger used = new AtomicInteger();
+        AtomicInteger unused = new AtomicInteger();
+        Message message = TaleMessage.parse("<gold>{rank} and {rank}",
+                Placeholder.lazy("{rank}", () -> {
+                    used.incrementAndGet();
+                    return "VIP";
+                }),
+                Placeholder.lazy("{balance}", () -> {
+                    unused.incrementAndGet();
+                    return "100";
+                }));
+
+        assertEquals("VIP and VIP", Messages.text(message));
+        assertEquals(1, used.get());
+        assertEquals(0, unused.get());
+    }
+
+    @Test
+    void throwingResolverFallsBackToRawText() {
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder rank = Placeholder.lazy("{rank}", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("rank service down");
+        });
+        Placeholder player = new Placeholder("{player}", "Bob");
+
+        assertEquals("<red>Bob is {rank}", Messages.text(TaleMessage.parse("<red>{player} is {rank}", player, rank)));
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        assertEquals("<red>Bob is {rank}", Messages.text(TaleMessage.raw("<red>{player} is {rank}", player, rank)));
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        List<Message> messages = TaleMessage.parseForEach("<red>{player} is {rank}",
+                List.<Placeholder[]>of(new Placeholder[]{player, rank}));
+        assertEquals("<red>Bob is {rank}", Messages.text(messages.get(0)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void throwingResolverKeepsDiagnostics() {
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder rank = Placeholder.lazy("{rank}", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("rank service down");
+        });
+
+        ParseResult result = TaleMessage.parseWithDiagnostics("<redd>{rank}", rank);
+        assertEquals("<redd>{rank}", Messages.text(result.getMessage()));
+        assertTrue(result.hasErrors());
+        assertEquals(Diagnostic.Code.UNKNOWN_TAG, result.getDiagnostics().get(0).getCode());
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        assertEquals("plain {rank}", Messages.text(TaleMessage.parseWithDiagnostics("plain {rank}", rank).getMessage()));
+        assertEquals(1, calls.get());
+    }
+
+}
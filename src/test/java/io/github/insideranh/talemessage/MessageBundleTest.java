@@ -0,0 +1,131 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageBundleTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void lastFileWins() throws IOException {
+        Path base = write("base.properties", "a=<red>base\nb=only base\ngreet=Hi {player}\n");
+        Path override = write("override.properties", "a=<green>override\n");
+
+        MessageBundle bundle = MessageBundle.load(base, override);
+        assertEquals("<green>override", bundle.getSource("a"));
+        assertEquals("only base", bundle.getSource("b"));
+        assertEquals(Set.of("a", "b", "greet"), bundle.keys());
+        assertEquals("Hi Bob", Messages.text(bundle.build("greet", new Placeholder("{player}", "Bob"))));
+        assertEquals("missing", Messages.text(bundle.build("missing")));
+    }
+
+    @Test
+    void reloadReportsAddedChangedAndRemovedKeys() throws IOException {
+        Path file = write("messages.properties", "same=<gold>Same\nchanged=Old\nremoved=Gone soon\n");
+        MessageBundle bundle = MessageBundle.load(file);
+
+        write("messages.properties", "same=<gold>Same\nchanged=New\nadded=Hello\n");
+        assertEquals(Set.of("changed", "removed", "added"), bundle.reload());
+        assertEquals("New", bundle.getSource("changed"));
+        assertEquals("Hello", bundle.getSource("added"));
+        assertFalse(bundle.contains("removed"));
+        assertNull(bundle.get("removed"));
+
+        assertEquals(Set.of(), bundle.reload());
+    }
+
+    @Test
+    void reloadKeepsUnchangedTemplatesAndRecompilesChangedOnes() throws IOException {
+        Path file = write("messages.properties", "same=<gold>Same\nchanged=<red>Old\n");
+        MessageBundle bundle = MessageBundle.load(file);
+        CompiledMessage same = bundle.get("same");
+        CompiledMessage changed = bundle.get("changed");
+
+        write("messages.properties", "same=<gold>Same\nchanged=<red>New\n");
+        bundle.reload();
+        assertSame(same, bundle.get("same"));
+        assertNotSame(changed, bundle.get("changed"));
+        assertEquals("New", Messages.text(bundle.build("changed")));
+    }
+
+    @Test
+    void strictLoadRejectsBrokenTemplates() throws IOException {
+        Path file = write("messages.properties", "ok=<red>Fine\nbroken=<redd>Oops\n");
+
+        MessageSyntaxException e = assertThrows(MessageSyntaxException.class, () -> MessageBundle.loadStrict(file));
+        assertTrue(e.getMessage().contains("broken"), e.getMessage());
+    }
+
+    @Test
+    void strictReloadKeepsTheOldSnapshot() throws IOException {
+        Path file = write("messages.properties", "ok=<red>Fine\nother=Text\n");
+        MessageBundle bundle = MessageBundle.loadStrict(file);
+        CompiledMessage ok = bundle.get("ok");
+
+        write("messages.properties", "ok=<redd>Fine\nother=Changed\nadded=New\n");
+        assertThrows(MessageSyntaxException.class, bundle::reload);
+        assertSame(ok, bundle.get("ok"));
+        assertEquals("Text", bundle.getSource("other"));
+        assertFalse(bundle.contains("added"));
+    }
+
+    @Test
+    void failedReadKeepsTheOldSnapshot() throws IOException {
+        Path file = write("messages.properties", "a=Text\n");
+        MessageBundle bundle = MessageBundle.load(file);
+
+        Files.delete(file);
+        assertThrows(IOException.class, bundle::reload);
+        assertEquals("Text", bundle.getSource("a"));
+    }
+
+    @Test
+    void watchDebouncesQuickWrites() throws Exception {
+        Path file = write("messages.properties", "a=0\n");
+        List<Set<String>> reloads = new CopyOnWriteArrayList<>();
+        CountDownLatch reloaded = new CountDownLatch(1);
+
+        try (MessageBundle bundle = MessageBundle.load(file)) {
+            bundle.watch(changed -> {
+                reloads.add(changed);
+                reloaded.countDown();
+            });
+
+            // Well within the debounce window of each other
+            for (int i = 1; i <= 5; i++) {
+                write("messages.properties", "a=" + i + "\nb=" + i + "\n");
+            }
+
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS), "No reload");
+            // Give a second, wrongly split reload the time to arrive
+            Thread.sleep(500);
+            assertEquals(List.of(Set.of("a", "b")), reloads);
+            assertEquals("5", bundle.getSource("a"));
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+
+/**
+ * Compact text form of a built Message tree, for golden comparisons.
+ *
+ * <p>Each node is written as {@code {"text" #RRGGBB B I M link=url children...}}, leaving out
+ * what is not set. Colors are written without alpha.</p>
+ */
+final class Messages {
+
+    private Messages() {
+    }
+
+    static String describe(Message message) {
+        StringBuilder out = new StringBuilder();
+        describe(message, out);
+        return out.toString();
+    }
+
+    /**
+     * @return the text of the tree, without formatting
+     */
+    static String text(Message message) {
+        StringBuilder out = new StringBuilder();
+        text(message, out);
+        return out.toString();
+    }
+
+    private static void describe(Message message, StringBuilder out) {
+        out.append('{');
+        int start = out.length();
+        if (message.getRawText() != null) {
+            out.append('"').append(message.getRawText()).append('"');
+        }
+        if (message.getColor() != null) {
+            separate(out, start).append(String.format("#%06X", message.getColor().getRGB() & 0xFFFFFF));
+        }
+        if (message.isBold()) {
+            separate(out, start).append('B');
+        }
+        if (message.isItalic()) {
+            separate(out, start).append('I');
+        }
+        if (message.isMonospace()) {
+            separate(out, start).append('M');
+        }
+        if (message.getLink() != null) {
+            separate(out, start).append("link=").append(message.getLink());
+        }
+        for (Message child : message.getChildren()) {
+            separate(out, start);
+            describe(child, out);
+        }
+        out.append('}');
+    }
+
+    private static StringBuilder separate(StringBuilder out, int start) {
+        return out.length() > start ? out.append(' ') : out;
+    }
+
+    private static void text(Message message, StringBuilder out) {
+        if (message.getRawText() != null) {
+            out.append(message.getRawText());
+        }
+        for (Message child : message.getChildren()) {
+            text(child, out);
+        }
+    }
+
+}
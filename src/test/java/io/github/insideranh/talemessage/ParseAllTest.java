@@ -0,0 +1,94 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import io.github.insideranh.talemessage.utils.BatchProcessor;
+import io.github.insideranh.talemessage.utils.LanguageUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseAllTest {
+
+    private static final Placeholder[] VALUES = {new Placeholder("{player}", "Bob"), new Placeholder("{n}", "7")};
+
+    @Test
+    void smallListsInOrder() {
+        List<String> inputs = List.of("<red>{player}", "plain", "", "&aGreen {n}");
+        List<Message> messages = TaleMessage.parseAll(inputs, VALUES);
+
+        assertEquals(inputs.size(), messages.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(Messages.describe(TaleMessage.parse(inputs.get(i), VALUES)), Messages.describe(messages.get(i)));
+        }
+        assertTrue(TaleMessage.parseAll(null).isEmpty());
+    }
+
+    @Test
+    void largeListsRunOnTheExecutorInOrder() {
+        List<String> inputs = largeList();
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Message> messages = TaleMessage.parseAll(inputs, command -> {
+                tasks.incrementAndGet();
+                pool.execute(command);
+            }, VALUES);
+
+            // A single processor parses on the calling thread
+            assertEquals(Runtime.getRuntime().availableProcessors() > 1, tasks.get() > 0);
+            assertEquals(inputs.size(), messages.size());
+            for (int i = 0; i < inputs.size(); i += 97) {
+                assertEquals(Messages.describe(TaleMessage.parse(inputs.get(i), VALUES)), Messages.describe(messages.get(i)), "line " + i);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void bulkReplaceMatchesSingleReplace() {
+        List<String> inputs = largeList();
+        List<String> replaced = LanguageUtils.replacePlaceholders(inputs, VALUES);
+
+        assertEquals(inputs.size(), replaced.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(LanguageUtils.replacePlaceholders(inputs.get(i), VALUES), replaced.get(i));
+        }
+    }
+
+    @Test
+    void failuresReachTheCaller() {
+        List<String> inputs = largeList();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> BatchProcessor.map(inputs, input -> {
+            if (input.startsWith("Line 4000 ")) {
+                throw new IllegalStateException("broken");
+            }
+            return input;
+        }));
+        assertEquals("broken", e.getMessage());
+    }
+
+    /**
+     * Well above {@link BatchProcessor#PARALLEL_THRESHOLD} characters.
+     */
+    private static List<String> largeList() {
+        List<String> inputs = new ArrayList<>();
+        int length = 0;
+        for (int i = 0; length < 4 * BatchProcessor.PARALLEL_THRESHOLD; i++) {
+            String line = "Line " + i + " <gold>{player}</gold> has <bold>{n}</bold> points &a" + i;
+            inputs.add(line);
+            length += line.length();
+        }
+        return inputs;
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseCacheTest {
+
+    @AfterEach
+    void disableParseCache() {
+        TaleMessage.disableParseCache();
+    }
+
+    @Test
+    void cachesCompiledTemplates() {
+        TaleMessage.enableParseCache(16);
+        assertTrue(TaleMessage.isParseCacheEnabled());
+
+        String input = "<red>Hi {player}";
+        Placeholder bob = new Placeholder("{player}", "Bob");
+        assertEquals("Hi Bob", Messages.text(TaleMessage.parse(input, bob)));
+        assertEquals("Hi Alice", Messages.text(TaleMessage.parse(input, new Placeholder("{player}", "Alice"))));
+        assertEquals("Hi {player}", Messages.text(TaleMessage.parse(input)));
+
+        assertEquals(1, TaleMessage.getParseCacheMisses());
+        assertEquals(2, TaleMessage.getParseCacheHits());
+        // A built Message is never shared between calls
+        assertNotSame(TaleMessage.parse(input, bob), TaleMessage.parse(input, bob));
+    }
+
+    @Test
+    void cachedAndUncachedResultsMatch() {
+        String[] inputs = {"plain", "<red>a <bold>b</bold>", "&aGreen {x}", "<gradient:red:blue>ab</gradient>", ""};
+        Placeholder x = new Placeholder("{x}", "X");
+        String[] uncached = new String[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            uncached[i] = Messages.describe(TaleMessage.parse(inputs[i], x));
+        }
+
+        TaleMessage.enableParseCache(2);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < inputs.length; i++) {
+                assertEquals(uncached[i], Messages.describe(TaleMessage.parse(inputs[i], x)), inputs[i]);
+            }
+        }
+    }
+
+    @Test
+    void enablingAgainResetsAndDisablingDrops() {
+        TaleMessage.enableParseCache(16);
+        TaleMessage.parse("<red>a");
+        TaleMessage.parse("<red>a");
+
+        TaleMessage.enableParseCache(16);
+        assertEquals(0, TaleMessage.getParseCacheHits());
+        assertEquals(0, TaleMessage.getParseCacheMisses());
+
+        TaleMessage.disableParseCache();
+        assertFalse(TaleMessage.isParseCacheEnabled());
+        TaleMessage.parse("<red>a");
+        assertEquals(0, TaleMessage.getParseCacheMisses());
+    }
+
+}
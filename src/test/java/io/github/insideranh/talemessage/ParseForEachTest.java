@@ -0,0 +1,93 @@
+package io.github.insideranh.talemessage;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Checks that building one template for many placeholder sets gives what parsing it once per
+ * set gives, whether the shared parts are used or not.
+ */
+class ParseForEachTest {
+
+    private static final List<String> TEMPLATES = List.of(
+            "Plain {player}",
+            "<gold>Welcome back, {player}! You have <bold>{coins}</bold> coins",
+            "<red>Static <bold>part</bold></red> and {player} <gradient:red:blue>fade {player}</gradient>",
+            "&aLegacy {player} &lbold {coins}",
+            "<click:https://example.com>{player}</click> <i>no slots</i>",
+            // Not fillable as slots: substitution before parsing
+            "<red>{{player}}</red> has %coins%",
+            "<click:{url}>{player}</click>",
+            "<{color}>{player}",
+            "Hello PLAYER");
+
+    static Stream<Arguments> cases() {
+        Stream.Builder<Arguments> cases = Stream.builder();
+        for (String template : TEMPLATES) {
+            for (BuildMode mode : BuildMode.values()) {
+                cases.add(arguments(template, mode));
+            }
+        }
+        return cases.build();
+    }
+
+    @AfterEach
+    void resetBuildMode() {
+        TaleMessage.setBuildMode(BuildMode.TREE);
+    }
+
+    @ParameterizedTest
+    @MethodSource("cases")
+    void sameAsParsingEachSet(String template, BuildMode mode) {
+        TaleMessage.setBuildMode(mode);
+        List<Placeholder[]> sets = new ArrayList<>();
+        String[] names = {"Bob", "Alice", "<red>Eve", ""};
+        for (int i = 0; i < names.length; i++) {
+            sets.add(new Placeholder[]{
+                    new Placeholder("{player}", names[i]),
+                    new Placeholder("{coins}", String.valueOf(i * 100)),
+                    new Placeholder("%coins%", String.valueOf(i)),
+                    new Placeholder("{url}", "https://example.com/" + i),
+                    new Placeholder("{color}", i % 2 == 0 ? "red" : "#55FF55"),
+                    new Placeholder("PLAYER", names[i])
+            });
+        }
+        // Sets that miss values, or have none
+        sets.add(new Placeholder[]{new Placeholder("{player}", "Zed")});
+        sets.add(new Placeholder[0]);
+
+        List<Message> results = TaleMessage.parseForEach(template, sets);
+        assertEquals(sets.size(), results.size());
+        for (int i = 0; i < sets.size(); i++) {
+            assertEquals(Messages.describe(TaleMessage.parse(template, sets.get(i))), Messages.describe(results.get(i)),
+                    "set " + i);
+        }
+    }
+
+    @Test
+    void sharesPartsWithoutSlots() {
+        TaleMessage.setBuildMode(BuildMode.TREE);
+        List<Message> results = TaleMessage.parseForEach("<i>static</i> {player}", List.of(
+                new Placeholder[]{new Placeholder("{player}", "Bob")},
+                new Placeholder[]{new Placeholder("{player}", "Alice")}));
+
+        Message first = results.get(0).getChildren().get(0);
+        assertSame(first, results.get(1).getChildren().get(0));
+        assertEquals("static Bob", Messages.text(results.get(0)));
+        assertEquals("static Alice", Messages.text(results.get(1)));
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Parses inputs and compares the built Message trees, in both build modes, with known output.
+ */
+class ParserGoldenTest {
+
+    static Stream<Arguments> golden() {
+        return Stream.of(
+                // input, TREE, FLAT
+                arguments("Hello",
+                        "{\"Hello\"}",
+                        "{\"Hello\"}"),
+                arguments("<red>Hello</red> world",
+                        "{{{\"Hello\" #FF5555}} {\" world\"}}",
+                        "{{\"Hello\" #FF5555} {\" world\"}}"),
+                arguments("<red><bold>a</bold>b</red>",
+                        "{{{{\"a\" #FF5555 B}} {\"b\" #FF5555}}}",
+                        "{{\"a\" #FF5555 B} {\"b\" #FF5555}}"),
+                arguments("<red>a</red><red>b</red>",
+                        "{{{\"a\" #FF5555}} {{\"b\" #FF5555}}}",
+                        "{\"ab\" #FF5555}"),
+                arguments("<RED>upper",
+                        "{{{\"upper\" #FF5555}}}",
+                        "{\"upper\" #FF5555}"),
+                arguments("<#55FF55>hex</#55FF55>",
+                        "{{{\"hex\" #55FF55}}}",
+                        "{\"hex\" #55FF55}"),
+                arguments("<italic><mono>code",
+                        "{{{{\"code\" I M}}}}",
+                        "{\"code\" I M}"),
+                arguments("<b>x</b><i>y</i>",
+                        "{{{\"x\" B}} {{\"y\" I}}}",
+                        "{{\"x\" B} {\"y\" I}}"),
+                arguments("<red>a</blue>b",
+                        "{{{\"a\" #FF5555}} {\"b\"}}",
+                        "{{\"a\" #FF5555} {\"b\"}}"),
+                arguments("<>x",
+                        "{{\"x\"}}",
+                        "{\"x\"}"),
+
+                // Legacy codes
+                arguments("&aGreen &l&bBold aqua &rReset",
+                        "{{{\"Green \" #55FF55} {{{\"Bold aqua \" #55FFFF B} {{\"Reset\" #55FFFF B}}}}}}",
+                        "{{\"Green \" #55FF55} {\"Bold aqua Reset\" #55FFFF B}}"),
+                arguments("&&a not legacy",
+                        "{{\"&\"} {{\" not legacy\" #55FF55}}}",
+                        "{{\"&\"} {\" not legacy\" #55FF55}}"),
+                arguments("&#FF8800Hex",
+                        "{{\"&#FF8800Hex\"}}",
+                        "{\"&#FF8800Hex\"}"),
+
+                // Escapes
+                arguments("\\<red> literal",
+                        "{{\"<red> literal\"}}",
+                        "{\"<red> literal\"}"),
+                arguments("<gold>a \\> b",
+                        "{{{\"a > b\" #FFAA00}}}",
+                        "{\"a > b\" #FFAA00}"),
+                arguments("a \\\\ b",
+                        "{{\"a \\\\ b\"}}",
+                        "{\"a \\\\ b\"}"),
+
+                // Gradients, one color per character
+                arguments("<gradient:red:blue>abcd</gradient>",
+                        "{{{\"a\" #FF5555} {\"b\" #C6558D} {\"c\" #8D55C6} {\"d\" #5555FF}}}",
+                        "{{\"a\" #FF5555} {\"b\" #C6558D} {\"c\" #8D55C6} {\"d\" #5555FF}}"),
+                arguments("<gradient:#FF0000:#00FF00:#0000FF>abcde</gradient>",
+                        "{{{\"a\" #FF0000} {\"b\" #7F7F00} {\"c\" #00FF00} {\"d\" #007F7F} {\"e\" #0000FF}}}",
+                        "{{\"a\" #FF0000} {\"b\" #7F7F00} {\"c\" #00FF00} {\"d\" #007F7F} {\"e\" #0000FF}}"),
+
+                // Click
+                arguments("<click:https://example.com>go <gold>now</gold></click> after",
+                        "{{\"go now\" link=https://example.com} {\" after\"}}",
+                        "{{\"go now\" link=https://example.com} {\" after\"}}"),
+
+                // Kept as text
+                arguments("<red>unclosed < bracket",
+                        "{{{\"unclosed < bracket\" #FF5555}}}",
+                        "{\"unclosed < bracket\" #FF5555}"),
+                arguments("<unknown>kept",
+                        "{{\"<unknown>kept\"}}",
+                        "{\"<unknown>kept\"}"),
+                arguments("<rgb:255,0,0>rgb",
+                        "{{\"<rgb:255,0,0>rgb\"}}",
+                        "{\"<rgb:255,0,0>rgb\"}"));
+    }
+
+    @AfterEach
+    void resetBuildMode() {
+        TaleMessage.setBuildMode(BuildMode.TREE);
+    }
+
+    @ParameterizedTest
+    @MethodSource("golden")
+    void tree(String input, String tree, String flat) {
+        TaleMessage.setBuildMode(BuildMode.TREE);
+        assertEquals(tree, Messages.describe(TaleMessage.parse(input)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("golden")
+    void flat(String input, String tree, String flat) {
+        TaleMessage.setBuildMode(BuildMode.FLAT);
+        assertEquals(flat, Messages.describe(TaleMessage.parse(input)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("golden")
+    void tableMatchesTreeParser(String input, String tree, String flat) {
+        assertEquals(Messages.describe(MessageBuilder.build(MiniMessageParser.parse(input))),
+                Messages.describe(MessageBuilder.build(MiniMessageParser.parseTable(input))));
+    }
+
+    @Test
+    void modesRenderSameText() {
+        String input = "<gradient:red:blue>ab</gradient> &lbold <click:https://example.com><gold>x</gold></click>";
+        TaleMessage.setBuildMode(BuildMode.TREE);
+        String tree = Messages.text(TaleMessage.parse(input));
+        TaleMessage.setBuildMode(BuildMode.FLAT);
+        assertEquals(tree, Messages.text(TaleMessage.parse(input)));
+    }
+
+}
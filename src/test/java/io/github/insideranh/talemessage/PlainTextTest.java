@@ -0,0 +1,54 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlainTextTest {
+
+    @Test
+    void detectsPlainText() {
+        assertTrue(MiniMessageParser.isPlainText("Just some text, 100% sure {not a slot}"));
+        assertTrue(MiniMessageParser.isPlainText(""));
+        assertFalse(MiniMessageParser.isPlainText("<red>x"));
+        assertFalse(MiniMessageParser.isPlainText("a & b"));
+        assertFalse(MiniMessageParser.isPlainText("back\\slash"));
+        assertFalse(MiniMessageParser.isPlainText("Hi {player}"));
+        assertFalse(MiniMessageParser.isPlainText("%coins% coins"));
+    }
+
+    @Test
+    void plainTextBuildsLikeParsedText() {
+        for (String input : new String[]{"Just text", "100% sure {not a slot}", "a > b"}) {
+            CompiledMessage compiled = TaleMessage.compile(input);
+            assertTrue(compiled.isPlainText(), input);
+            assertEquals(Messages.text(MessageBuilder.build(MiniMessageParser.parseTable(input))),
+                    Messages.text(compiled.build()), input);
+            assertEquals(input, Messages.text(TaleMessage.parse(input)));
+        }
+    }
+
+    @Test
+    void placeholdersInPlainTextAreSubstituted() {
+        CompiledMessage compiled = TaleMessage.compile("Hello PLAYER");
+        assertTrue(compiled.isPlainText());
+        assertEquals("Hello Bob", Messages.text(compiled.build(new Placeholder("PLAYER", "Bob"))));
+    }
+
+    @Test
+    void tokensAreParsedOnRequestOnly() {
+        CompiledMessage compiled = TaleMessage.compile("Just text");
+        TokenTable tokens = compiled.getTokens();
+        assertEquals("Just text", tokens.getSource());
+        assertSame(tokens, compiled.getTokens());
+
+        CompiledMessage markup = TaleMessage.compile("<red>text");
+        assertFalse(markup.isPlainText());
+        assertSame(markup.getTokens(), markup.getTokens());
+    }
+
+}
@@ -0,0 +1,224 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Feeds inputs to {@link StreamingParser} cut at every offset and checks that the events do
+ * not depend on where the chunks end, and that they describe the tree {@link MiniMessageParser} builds.
+ */
+class StreamingParserTest {
+
+    static Stream<String> inputs() {
+        return Stream.of(
+                "Hello",
+                "<red>Hello</red> world",
+                "<red><bold>a</bold>b</red>",
+                "<#55FF55>hex</#55FF55> <RED>upper",
+                "<gradient:red:blue>abcd</gradient> after",
+                "<click: https://example.com >go <gold>now</gold></click>",
+                "<unknown>kept</unknown> <>x",
+                "&aGreen &l&bBold aqua &rReset &kmagic",
+                "&&a not legacy &",
+                "\\<red> literal \\> \\\\ end\\",
+                "Hi {player}, %coins% coins {{player}} {not a slot} %% {}",
+                "<gold>{player}</gold>{player}",
+                "<red>unclosed < bracket",
+                "a < b > c <<red>>d",
+                "<gradient:#FF0000:#00FF00:#0000FF>{player}</gradient>",
+                "</red>close first</>",
+                "");
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void chunkBoundariesDoNotMatter(String input) throws IOException {
+        List<String> whole = events(input);
+        for (int cut = 0; cut <= input.length(); cut++) {
+            assertEquals(whole, events(input.substring(0, cut), input.substring(cut)), "cut at " + cut);
+        }
+        // Cut twice, so a tag or escape can span three chunks
+        for (int first = 0; first <= input.length(); first++) {
+            for (int second = first; second <= input.length(); second++) {
+                assertEquals(whole, events(input.substring(0, first), input.substring(first, second), input.substring(second)),
+                        "cut at " + first + " and " + second);
+            }
+        }
+
+        // One char at a time, and through a Reader
+        String[] chars = new String[input.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = input.substring(i, i + 1);
+        }
+        assertEquals(whole, events(chars));
+        Recorder recorder = new Recorder();
+        StreamingParser.parse(new StringReader(input), recorder);
+        assertEquals(whole, recorder.events());
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void matchesTheTreeParser(String input) {
+        Styled streamed = new Styled();
+        StreamingParser.parse(input, streamed);
+
+        TokenTable tokens = MiniMessageParser.parseTable(input);
+        Styled tree = new Styled();
+        walk(tokens, TokenTable.ROOT, new ArrayList<>(), tree);
+
+        assertEquals(tree.runs, streamed.runs);
+    }
+
+    private static List<String> events(String... chunks) {
+        Recorder recorder = new Recorder();
+        StreamingParser parser = new StreamingParser(recorder);
+        for (String chunk : chunks) {
+            parser.feed(chunk);
+        }
+        parser.end();
+        return recorder.events();
+    }
+
+    /**
+     * The leaves of the tree with the types of the tags around them, like {@link Styled} records them.
+     */
+    private static void walk(TokenTable tokens, int node, List<TagToken.Type> open, Styled out) {
+        TagToken.Type type = tokens.type(node);
+        if (type == TagToken.Type.PLACEHOLDER) {
+            out.onPlaceholder(tokens.content(node));
+            return;
+        }
+
+        boolean tag = type != TagToken.Type.TEXT;
+        if (tag) {
+            open.add(type);
+            out.open = List.copyOf(open);
+        }
+        if (type == TagToken.Type.TEXT && tokens.contentLength(node) > 0) {
+            out.open = List.copyOf(open);
+            out.onText(tokens.content(node));
+        }
+        for (int child = tokens.firstChild(node); child != TokenTable.NONE; child = tokens.nextSibling(child)) {
+            out.open = List.copyOf(open);
+            walk(tokens, child, open, out);
+        }
+        if (tag) {
+            open.remove(open.size() - 1);
+            out.open = List.copyOf(open);
+        }
+    }
+
+    /**
+     * Every event as a string, with consecutive text merged since where text is split is not specified.
+     */
+    private static final class Recorder implements TagVisitor {
+
+        private final List<String> events = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void onText(CharSequence text) {
+            this.text.append(text);
+        }
+
+        @Override
+        public void onPlaceholder(String key) {
+            add("placeholder " + key);
+        }
+
+        @Override
+        public void onOpen(TagToken.Type type, String tag, String[] args) {
+            add("open " + type + " " + tag + " " + Arrays.toString(args));
+        }
+
+        @Override
+        public void onClose(TagToken.Type type) {
+            add("close " + type);
+        }
+
+        @Override
+        public void onLegacyCode(char code, TagToken.Type type, String tag) {
+            add("legacy " + code + " " + type + " " + tag);
+        }
+
+        @Override
+        public void onEnd() {
+            add("end");
+        }
+
+        private void add(String event) {
+            if (!text.isEmpty()) {
+                events.add("text " + text);
+                text.setLength(0);
+            }
+            events.add(event);
+        }
+
+        private List<String> events() {
+            return events;
+        }
+
+    }
+
+    /**
+     * Text and placeholders with the types of the tags open around them, merging neighbours
+     * with the same tags.
+     */
+    private static final class Styled implements TagVisitor {
+
+        private final List<String> runs = new ArrayList<>();
+        private final List<TagToken.Type> stack = new ArrayList<>();
+        private List<TagToken.Type> open = List.of();
+        private List<TagToken.Type> last;
+
+        @Override
+        public void onText(CharSequence text) {
+            append(text.toString());
+        }
+
+        @Override
+        public void onPlaceholder(String key) {
+            append("[" + key + "]");
+        }
+
+        @Override
+        public void onOpen(TagToken.Type type, String tag, String[] args) {
+            stack.add(type);
+            open = List.copyOf(stack);
+        }
+
+        @Override
+        public void onClose(TagToken.Type type) {
+            stack.remove(stack.size() - 1);
+            open = List.copyOf(stack);
+        }
+
+        @Override
+        public void onLegacyCode(char code, TagToken.Type type, String tag) {
+            if (type != TagToken.Type.TEXT) {
+                onOpen(type, tag, null);
+            }
+        }
+
+        private void append(String text) {
+            if (open.equals(last)) {
+                int end = runs.size() - 1;
+                runs.set(end, runs.get(end) + text);
+            } else {
+                runs.add(open + " " + text);
+                last = open;
+            }
+        }
+
+    }
+
+}
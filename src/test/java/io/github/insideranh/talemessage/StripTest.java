@@ -0,0 +1,68 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StripTest {
+
+    @Test
+    void keepsUnclosedBracketAsText() {
+        assertEquals("a < b", Messages.text(TaleMessage.parse("a < b")));
+        assertEquals("a < b", Messages.text(TaleMessage.parse("<red>a < b")));
+        assertEquals("x <red", Messages.text(TaleMessage.parse("x <red")));
+        assertEquals("a<", Messages.text(TaleMessage.parse("<red>a<")));
+
+        assertEquals("a < b", TaleMessage.strip("<red>a < b"));
+        assertEquals("a<", TaleMessage.strip("<red>a<"));
+    }
+
+    @Test
+    void keepsUnknownTags() {
+        assertEquals("<unknown>x", TaleMessage.strip("<unknown>x</unknown>"));
+        assertEquals("<foo bar>x", TaleMessage.strip("<foo bar>x"));
+        assertEquals("<rgb:255,0,0>rgb", TaleMessage.strip("<rgb:255,0,0>rgb"));
+    }
+
+    @Test
+    void removesWhatTheParserTreatsAsMarkup() {
+        assertEquals("Hello World", TaleMessage.strip("<red>Hello <bold>World</bold></red>"));
+        assertEquals("Green Bold", TaleMessage.strip("&aGreen &lBold&r"));
+        assertEquals("<b> literal", TaleMessage.strip("\\<b> literal"));
+        assertEquals("x", TaleMessage.strip("<>x"));
+        assertEquals("go", TaleMessage.strip("<click:https://example.com>go</click>"));
+    }
+
+    @Test
+    void stripMatchesParsedText() {
+        String[] inputs = {
+                "<red>a < b", "2 < 3 > 1", "<b>a</b> < <i>c", "<unknown>x</unknown>", "&&a not legacy",
+                "\\<red> literal", "<gradient:red:blue>abcd</gradient>", "<RED>upper</red>"
+        };
+        for (String input : inputs) {
+            assertEquals(Messages.text(TaleMessage.parse(input)), TaleMessage.strip(input), input);
+        }
+    }
+
+    @Test
+    void returnsInputWithoutMarkup() {
+        String plain = "plain text";
+        assertSame(plain, TaleMessage.strip(plain));
+        String unclosed = "a < b";
+        assertSame(unclosed, TaleMessage.strip(unclosed));
+    }
+
+    @Test
+    void unclosedBracketsAreLinear() {
+        String brackets = "<".repeat(200_000);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertEquals(brackets, TaleMessage.strip(brackets));
+            assertEquals(brackets, Messages.text(TaleMessage.parse(brackets)));
+        });
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.github.insideranh.talemessage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StyleTest {
+
+    private static final int RED = 0xFFFF5555;
+    private static final int BLUE = 0xFF5555FF;
+
+    @Test
+    void equalStylesAreTheSameInstance() {
+        assertSame(Style.of(RED, Style.BOLD), Style.of(RED, Style.BOLD));
+        assertSame(Style.EMPTY, Style.of(ColorRegistry.NO_COLOR, 0));
+        assertSame(Style.EMPTY.withColor(RED).withFlag(Style.BOLD), Style.EMPTY.withFlag(Style.BOLD).withColor(RED));
+        assertSame(Style.of(RED, Style.BOLD | Style.ITALIC), Style.of(RED, Style.ITALIC).withFlag(Style.BOLD));
+    }
+
+    @Test
+    void transitions() {
+        Style style = Style.EMPTY.withColor(RED).withFlag(Style.BOLD).withFlag(Style.UNDERLINE);
+        assertEquals(RED, style.getColor());
+        assertTrue(style.isBold());
+        assertTrue(style.isUnderlined());
+        assertFalse(style.isItalic());
+
+        assertSame(style, style.withFlag(Style.BOLD));
+        assertSame(style, style.withColor(RED));
+        assertEquals(BLUE, style.withColor(BLUE).getColor());
+        assertTrue(style.withColor(BLUE).isBold());
+        assertFalse(style.withColor(ColorRegistry.NO_COLOR).hasColor());
+        assertSame(Style.of(RED, Style.UNDERLINE), style.withoutFlags(Style.BOLD));
+    }
+
+    @Test
+    void manyColorsThroughOneStyle() {
+        // More colors than the transition cache holds, each still correct
+        Style base = Style.EMPTY.withFlag(Style.ITALIC);
+        for (int color = 1; color < 100; color++) {
+            Style style = base.withColor(0xFF000000 | color);
+            assertEquals(0xFF000000 | color, style.getColor());
+            assertTrue(style.isItalic());
+            assertSame(style, base.withColor(0xFF000000 | color));
+        }
+    }
+
+    @Test
+    void underlineRendersAsMonospace() {
+        Style rendered = Style.of(RED, Style.UNDERLINE | Style.BOLD).rendered();
+        assertSame(Style.of(RED, Style.MONOSPACE | Style.BOLD), rendered);
+        assertSame(Style.of(RED, Style.BOLD), Style.of(RED, Style.BOLD).rendered());
+    }
+
+    @Test
+    void nestedTagsKeepOuterStyles() {
+        assertEquals("{{{{{\"a\" #FF5555 B I} {{\"b\" #5555FF B I}} {\"c\" #FF5555 B I}}}}}",
+                Messages.describe(TaleMessage.parse("<bold><italic><red>a<blue>b</blue>c")));
+    }
+
+}
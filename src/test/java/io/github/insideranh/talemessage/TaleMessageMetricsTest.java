@@ -0,0 +1,105 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaleMessageMetricsTest {
+
+    @AfterEach
+    void disable() {
+        TaleMessageMetrics.disable();
+        TaleMessage.disableParseCache();
+    }
+
+    @Test
+    void recordsNothingWhileDisabled() {
+        assertFalse(TaleMessageMetrics.isEnabled());
+        assertNull(TaleMessageMetrics.get());
+        TaleMessage.parse("<red>a");
+        TaleMessageMetrics.recordFallback(new IllegalStateException());
+    }
+
+    @Test
+    void recordsStagesAndNodes() {
+        TaleMessageMetrics metrics = TaleMessageMetrics.enable();
+        assertSame(metrics, TaleMessageMetrics.get());
+
+        TaleMessage.parse("<red>a <bold>b</bold> <gradient:red:blue>abcdef</gradient>");
+        TaleMessage.parse("<red>{{player}}", new Placeholder("{player}", "Bob"));
+
+        // {player} is not a slot inside {{player}}, so that template is parsed again once filled
+        TaleMessageMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.latency(TaleMessageMetrics.Stage.PARSE).getCount());
+        assertEquals(2, snapshot.latency(TaleMessageMetrics.Stage.BUILD).getCount());
+        assertEquals(1, snapshot.latency(TaleMessageMetrics.Stage.REPLACE).getCount());
+        assertEquals(2, snapshot.getNodes().getCount());
+        assertEquals(6, snapshot.getGradientCharacters());
+        assertEquals(0, snapshot.getFallbacks());
+    }
+
+    @Test
+    void countsFallbacksByType() {
+        TaleMessageMetrics metrics = TaleMessageMetrics.enable();
+        TaleMessageMetrics.recordFallback(new IllegalStateException());
+        TaleMessageMetrics.recordFallback(new IllegalStateException());
+        TaleMessageMetrics.recordFallback(new ArithmeticException());
+
+        TaleMessageMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getFallbacks());
+        assertEquals(2L, snapshot.getFallbackTypes().get(IllegalStateException.class.getName()));
+        assertEquals(1L, snapshot.getFallbackTypes().get(ArithmeticException.class.getName()));
+    }
+
+    @Test
+    void cacheCountersStartAtEnable() {
+        TaleMessage.enableParseCache(16);
+        TaleMessage.parse("<red>before");
+        TaleMessage.parse("<red>before");
+
+        TaleMessageMetrics metrics = TaleMessageMetrics.enable();
+        TaleMessage.parse("<red>before");
+        TaleMessage.parse("<red>after");
+
+        TaleMessageMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getParseCacheHits());
+        assertEquals(1, snapshot.getParseCacheMisses());
+        assertEquals(0.5, snapshot.getParseCacheHitRatio());
+    }
+
+    @Test
+    void resetClearsEverything() {
+        TaleMessageMetrics metrics = TaleMessageMetrics.enable();
+        TaleMessage.parse("<red>a");
+        TaleMessageMetrics.recordFallback(new IllegalStateException());
+
+        metrics.reset();
+        TaleMessageMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.latency(TaleMessageMetrics.Stage.PARSE).getCount());
+        assertEquals(0, snapshot.getFallbacks());
+        assertTrue(snapshot.getFallbackTypes().isEmpty());
+    }
+
+    @Test
+    void histogramPercentiles() {
+        TaleMessageMetrics.Histogram histogram = new TaleMessageMetrics.Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        TaleMessageMetrics.Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050, snapshot.getSum());
+        assertEquals(50.5, snapshot.getMean());
+        // Power-of-two buckets: a percentile is the upper bound of its bucket
+        assertTrue(snapshot.percentile(0.5) >= 50 && snapshot.percentile(0.5) < 128, String.valueOf(snapshot.percentile(0.5)));
+        assertTrue(snapshot.percentile(1.0) >= 100, String.valueOf(snapshot.percentile(1.0)));
+    }
+
+}
@@ -0,0 +1,170 @@
+package io.github.insideranh.talemessage;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import io.github.insideranh.talemessage.tools.TemplateArchiveTool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateArchiveTest {
+
+    private static final Map<String, String> TEMPLATES = Map.of(
+            "plain", "Just text",
+            "welcome", "<gold>Welcome back, {player}!",
+            "legacy", "&aGreen &l&bBold aqua &rReset",
+            "gradient", "<gradient:#FF0000:#00FF00:#0000FF>Rainbow {player}</gradient>",
+            "link", "<click:{url}>Open <gold>site</gold></click>",
+            "unicode", "<red>héllo wörld ✓");
+
+    private static final Placeholder[] VALUES = {
+            new Placeholder("{player}", "Bob"), new Placeholder("{url}", "https://example.com")
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tokenTableRoundTrip() throws IOException {
+        for (String source : TEMPLATES.values()) {
+            TokenTable tokens = MiniMessageParser.parseTable(source);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            tokens.write(new DataOutputStream(bytes));
+
+            ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+            TokenTable read = TokenTable.read(in);
+            assertFalse(in.hasRemaining(), source);
+            assertEquals(tokens.getSource(), read.getSource());
+            assertEquals(tokens.size(), read.size());
+            assertEquals(tokens.slotKeys(), read.slotKeys());
+            assertEquals(tokens.hasTagSlots(), read.hasTagSlots());
+            for (int node = 0; node < tokens.size(); node++) {
+                assertEquals(tokens.type(node), read.type(node));
+                assertEquals(tokens.parent(node), read.parent(node));
+                assertEquals(tokens.content(node), read.content(node));
+            }
+            assertEquals(Messages.describe(MessageBuilder.build(tokens, VALUES)),
+                    Messages.describe(MessageBuilder.build(read, VALUES)));
+        }
+    }
+
+    @Test
+    void tokenTableRejectsTruncatedData() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MiniMessageParser.parseTable("<red>a <bold>b").write(new DataOutputStream(bytes));
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 3);
+
+        assertThrows(RuntimeException.class, () -> TokenTable.read(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    void archiveRoundTrip() throws IOException {
+        Path file = directory.resolve("en_us.tmsg");
+        long stamp = TemplateArchive.fingerprint(TEMPLATES);
+        TemplateArchive.write(file, TEMPLATES, stamp);
+
+        TemplateArchive archive = TemplateArchive.open(file);
+        assertEquals(TEMPLATES.size(), archive.size());
+        assertEquals(TEMPLATES.keySet(), archive.keys());
+        assertEquals(stamp, archive.getSourceStamp());
+        for (Map.Entry<String, String> template : TEMPLATES.entrySet()) {
+            CompiledMessage message = archive.get(template.getKey());
+            assertEquals(template.getValue(), message.getSource());
+            assertEquals(Messages.describe(TaleMessage.compile(template.getValue()).build(VALUES)),
+                    Messages.describe(message.build(VALUES)), template.getKey());
+            assertSame(message, archive.get(template.getKey()));
+        }
+        assertNull(archive.get("missing"));
+        assertFalse(archive.contains("missing"));
+    }
+
+    @Test
+    void sameSourcesWriteSameBytes() throws IOException {
+        Path first = directory.resolve("first.tmsg");
+        Path second = directory.resolve("second.tmsg");
+        TemplateArchive.write(first, TEMPLATES, 1);
+        TemplateArchive.write(second, Map.copyOf(TEMPLATES), 1);
+
+        assertEquals(-1, Files.mismatch(first, second));
+    }
+
+    @Test
+    void staleArchiveIsRebuilt() throws IOException {
+        Path file = directory.resolve("lang").resolve("en_us.tmsg");
+        AtomicInteger supplied = new AtomicInteger();
+        long stamp = TemplateArchive.fingerprint(TEMPLATES);
+        assertFalse(TemplateArchive.isCurrent(file, stamp));
+
+        TemplateArchive.load(file, stamp, () -> {
+            supplied.incrementAndGet();
+            return TEMPLATES;
+        });
+        assertTrue(TemplateArchive.isCurrent(file, stamp));
+        assertFalse(TemplateArchive.isCurrent(file, stamp + 1));
+
+        TemplateArchive.load(file, stamp, () -> {
+            supplied.incrementAndGet();
+            return TEMPLATES;
+        });
+        assertEquals(1, supplied.get());
+
+        Map<String, String> changed = Map.of("welcome", "<gold>Hi {player}");
+        long changedStamp = TemplateArchive.fingerprint(changed);
+        TemplateArchive archive = TemplateArchive.load(file, changedStamp, () -> changed);
+        assertEquals(Set.of("welcome"), archive.keys());
+        assertEquals("Hi Bob", Messages.text(archive.get("welcome").build(VALUES)));
+    }
+
+    @Test
+    void fingerprintSeparatesEntries() {
+        assertEquals(TemplateArchive.fingerprint(Map.of("a", "x", "b", "y")),
+                TemplateArchive.fingerprint(Map.of("b", "y", "a", "x")));
+        assertNotEquals(TemplateArchive.fingerprint(Map.of("ab", "c")), TemplateArchive.fingerprint(Map.of("a", "bc")));
+    }
+
+    @Test
+    void toolCompilesPropertiesFiles() throws IOException {
+        Path properties = directory.resolve("en_us.properties");
+        Files.writeString(properties, "welcome=<gold>Welcome back, {player}!\nplain=Just text\n", StandardCharsets.UTF_8);
+        Path file = directory.resolve("en_us.tmsg");
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        assertEquals(0, TemplateArchiveTool.run(new String[]{properties.toString(), file.toString()}, out, out));
+        TemplateArchive archive = TemplateArchive.open(file);
+        assertEquals(Set.of("welcome", "plain"), archive.keys());
+        assertEquals(TemplateArchive.fingerprint(Map.of("welcome", "<gold>Welcome back, {player}!", "plain", "Just text")),
+                archive.getSourceStamp());
+
+        assertEquals(1, TemplateArchiveTool.run(new String[]{directory.resolve("missing").toString(), file.toString()}, out, out));
+        assertEquals(2, TemplateArchiveTool.run(new String[]{properties.toString()}, out, out));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("not-an-archive.tmsg");
+        Files.writeString(file, "welcome=<gold>Hello");
+
+        assertFalse(TemplateArchive.isCurrent(file, 0));
+        assertThrows(IOException.class, () -> TemplateArchive.open(file));
+    }
+
+}
@@ -0,0 +1,111 @@
+package io.github.insideranh.talemessage.codegen;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.tools.MessageCodegenTool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageCodegenTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keysNamedLikeInternalsCompile() throws Exception {
+        Map<String, String> templates = Map.of(
+                "keys", "<gold>Keys: {count}",
+                "sources", "Sources",
+                "templates", "Templates",
+                "init0", "Init",
+                "welcome", "<green>Welcome back, {player}!");
+        Class<?> messages = compile("Messages", MessageCodegen.generate("", "Messages", templates, "messages.properties"));
+
+        assertEquals(5, messages.getField("COUNT").getInt(null));
+        int keys = messages.getField("KEYS").getInt(null);
+        assertEquals("keys", messages.getMethod("key", int.class).invoke(null, keys));
+        assertEquals("<gold>Keys: {count}", messages.getMethod("source", int.class).invoke(null, keys));
+        assertEquals("Init", messages.getMethod("source", int.class)
+                .invoke(null, messages.getField("INIT0").getInt(null)));
+        messages.getMethod("init0").invoke(null);
+        messages.getMethod("welcome", String.class).invoke(null, "Bob");
+    }
+
+    @Test
+    void rejectsClashingKeys() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageCodegen.generate("", "Messages", Map.of("count", "x"), "messages.properties"));
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageCodegen.generate("", "Messages", Map.of("a.b", "x", "a-b", "y"), "messages.properties"));
+    }
+
+    @Test
+    void slotFormsOfOneNameShareAParameter() throws Exception {
+        Class<?> messages = compile("Greetings", MessageCodegen.generate("", "Greetings",
+                Map.of("greet", "Hi {player}, %player% and {{player}}: {player_count}"), "messages.properties"));
+
+        assertEquals(2, messages.getMethod("greet", String.class, String.class).getParameterCount());
+    }
+
+    @Test
+    void rejectsSlotsMappingToOneParameter() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> MessageCodegen.generate("",
+                "Messages", Map.of("join", "{player_name} is {playerName}"), "messages.properties"));
+        assertTrue(e.getMessage().contains("player_name") && e.getMessage().contains("playerName"), e.getMessage());
+    }
+
+    @Test
+    void toolWritesTheClassOrReportsErrors() throws Exception {
+        Path properties = directory.resolve("messages.properties");
+        Files.writeString(properties, "welcome=<gold>Welcome back, {player}!\n", StandardCharsets.UTF_8);
+        Path output = directory.resolve("generated");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        assertEquals(0, MessageCodegenTool.run(new String[]{"com.example", "Messages", output.toString(), properties.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8)));
+        assertTrue(Files.readString(output.resolve("com/example/Messages.java")).contains("public static Message welcome(String player)"));
+
+        Files.writeString(properties, "broken=<redd>x\n", StandardCharsets.UTF_8);
+        assertEquals(1, MessageCodegenTool.run(new String[]{"com.example", "Messages", output.toString(), properties.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8)));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("broken: error"), err.toString(StandardCharsets.UTF_8));
+
+        assertEquals(2, MessageCodegenTool.run(new String[]{"com.example"},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8)));
+    }
+
+    private Class<?> compile(String className, String source) throws Exception {
+        Path file = directory.resolve(className + ".java");
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, "-d", directory.toString(),
+                "-cp", location(MessageCodegen.class) + File.pathSeparator + location(Message.class), file.toString());
+        assertEquals(0, result, () -> errors.toString(StandardCharsets.UTF_8) + "\n" + source);
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader());
+        return loader.loadClass(className);
+    }
+
+    private static String location(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+}
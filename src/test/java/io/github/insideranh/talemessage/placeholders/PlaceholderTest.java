@@ -0,0 +1,47 @@
+package io.github.insideranh.talemessage.placeholders;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaceholderTest {
+
+    @Test
+    void typedPlaceholdersHaveValues() {
+        assertTrue(Placeholder.number("{n}", 5).hasValue());
+        assertTrue(Placeholder.grouped("{n}", 1234567).hasValue());
+        assertTrue(Placeholder.compact("{n}", 1500).hasValue());
+        assertTrue(Placeholder.duration("{d}", Duration.ofSeconds(90)).hasValue());
+        assertEquals("1,234,567", Placeholder.grouped("{n}", 1234567).getValue());
+    }
+
+    @Test
+    void plainPlaceholders() {
+        assertTrue(new Placeholder("{a}", "x").hasValue());
+        assertFalse(new Placeholder("{a}", null).hasValue());
+
+        StringBuilder out = new StringBuilder("v=");
+        assertFalse(new Placeholder("{a}", null).appendTo(out));
+        assertTrue(new Placeholder("{a}", "x").appendTo(out));
+        assertEquals("v=x", out.toString());
+    }
+
+    @Test
+    void lazyPlaceholdersResolveToAnswer() {
+        AtomicInteger calls = new AtomicInteger();
+        Placeholder lazy = Placeholder.lazy("{a}", () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+
+        assertTrue(lazy.isLazy());
+        assertFalse(lazy.hasValue());
+        assertEquals(1, calls.get());
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.github.insideranh.talemessage.render;
+
+import io.github.insideranh.talemessage.TaleMessage;
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderersTest {
+
+    private static final String STYLED = "<red>Hi <bold>{player}</bold></red> plain";
+    private static final String LINKED = "<click:{url}>Open</click> x";
+
+    private static final Placeholder[] VALUES = {
+            new Placeholder("{player}", "Bob"), new Placeholder("{url}", "https://example.com")
+    };
+
+    // Clears the screen, rings the bell, opens a CSI with the single-byte C1 form, and
+    // tries to close the hyperlink early and open another one
+    private static final Placeholder[] HOSTILE = {
+            new Placeholder("{player}", "\u001B[2J\u0007x\u009B31m\ny"),
+            new Placeholder("{url}", "https://example.com\u001B\\\u001B]8;;https://evil.example")
+    };
+
+    @Test
+    void plain() {
+        assertEquals("Hi Bob plain", Renderers.render(STYLED, Renderers.PLAIN, VALUES));
+        assertEquals("Open x", Renderers.render(LINKED, Renderers.PLAIN, VALUES));
+    }
+
+    @Test
+    void ansi256() {
+        assertEquals("\u001B[0;38;5;203mHi \u001B[0;1;38;5;203mBob\u001B[0m plain",
+                Renderers.render(STYLED, Renderers.ANSI_256, VALUES));
+        assertEquals("\u001B[0;38;5;208mo\u001B[0m", Renderers.render("<#FF8000>o", Renderers.ANSI_256));
+        assertEquals(16, AnsiRenderer.toAnsi256(0xFF000000));
+        assertEquals(231, AnsiRenderer.toAnsi256(0xFFFFFFFF));
+        assertEquals(244, AnsiRenderer.toAnsi256(0xFF808080));
+    }
+
+    @Test
+    void ansiTrueColor() {
+        assertEquals("\u001B[0;38;2;255;85;85mHi \u001B[0;1;38;2;255;85;85mBob\u001B[0m plain",
+                Renderers.render(STYLED, Renderers.ANSI_TRUECOLOR, VALUES));
+        // Without hyperlinks only the text of a link is shown
+        assertEquals("Open x", Renderers.render(LINKED, Renderers.ANSI_TRUECOLOR, VALUES));
+    }
+
+    @Test
+    void ansiHyperlinks() {
+        assertEquals("\u001B]8;;https://example.com\u001B\\Open\u001B]8;;\u001B\\ x",
+                Renderers.render(LINKED, new AnsiRenderer(true, true), VALUES));
+    }
+
+    @Test
+    void json() {
+        assertEquals("[{\"text\":\"Hi \",\"color\":\"#FF5555\"},{\"text\":\"Bob\",\"color\":\"#FF5555\",\"bold\":true},"
+                + "{\"text\":\" plain\"}]", Renderers.render(STYLED, Renderers.JSON, VALUES));
+        assertEquals("[{\"text\":\"Open\",\"link\":\"https://example.com\"},{\"text\":\" x\"}]",
+                Renderers.render(LINKED, Renderers.JSON, VALUES));
+        assertEquals("[]", Renderers.render("", Renderers.JSON));
+        assertEquals("[{\"text\":\"\\\"q\\\" \\\\ \\u0001\"}]",
+                Renderers.render("{v}", Renderers.JSON, new Placeholder("{v}", "\"q\" \\ \u0001")));
+    }
+
+    @Test
+    void ansiNeverWritesControlCharactersOfValues() {
+        String out = Renderers.render("<click:{url}>{player}</click>", new AnsiRenderer(true, true), HOSTILE);
+
+        assertEquals("\u001B]8;;https://example.com\\]8;;https://evil.example\u001B\\"
+                + "\uFFFD[2J\uFFFDx\uFFFD31m\ny\u001B]8;;\u001B\\", out);
+        // Only the renderer's own link start and end, two escapes each
+        assertEquals(4, out.chars().filter(c -> c == 0x1B).count());
+        assertFalse(out.contains("\u0007"));
+        assertFalse(out.contains("\u009B"));
+    }
+
+    @Test
+    void jsonEscapesControlCharactersOfValues() {
+        String out = Renderers.render("<click:{url}>{player}</click>", Renderers.JSON, HOSTILE);
+
+        assertTrue(out.startsWith("[{\"text\":\"\\u001B[2J\\u0007x\u009B31m\\ny\""), out);
+        assertFalse(out.contains("\u001B"));
+    }
+
+    @Test
+    void severalOutputsAtOnce() throws IOException {
+        StringBuilder plain = new StringBuilder();
+        StringBuilder json = new StringBuilder();
+        Renderers.render(TaleMessage.compile(STYLED), VALUES, Renderers.PLAIN.open(plain), Renderers.JSON.open(json));
+
+        assertEquals(Renderers.render(STYLED, Renderers.PLAIN, VALUES), plain.toString());
+        assertEquals(Renderers.render(STYLED, Renderers.JSON, VALUES), json.toString());
+    }
+
+    @Test
+    void utf8ByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        Renderers.render(TaleMessage.compile("<red>héllo ✓ {player}"), Renderers.PLAIN, buffer, VALUES);
+
+        assertEquals("héllo ✓ Bob", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.insideranh.talemessage.utils;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LanguageUtilsTest {
+
+    @Test
+    void replacesEveryKey() {
+        assertEquals("Bob has 3 coins, Bob!", LanguageUtils.replacePlaceholders("{player} has %coins% coins, {player}!",
+                new Placeholder("{player}", "Bob"), new Placeholder("%coins%", "3")));
+    }
+
+    @Test
+    void returnsTheInputIfNothingMatches() {
+        String message = "Nothing to replace here";
+        assertSame(message, LanguageUtils.replacePlaceholders(message, new Placeholder("{player}", "Bob")));
+        assertEquals(null, LanguageUtils.replacePlaceholders((String) null, new Placeholder("{player}", "Bob")));
+        assertEquals("", LanguageUtils.replacePlaceholders("", new Placeholder("{player}", "Bob")));
+    }
+
+    @Test
+    void keysAndValuesAreLiteral() {
+        // Nothing is a regex or a replacement pattern
+        assertEquals("cost: $1 \\o/", LanguageUtils.replacePlaceholders("cost: [price] (.*)",
+                new Placeholder("[price]", "$1"), new Placeholder("(.*)", "\\o/")));
+    }
+
+    @Test
+    void longestKeyWins() {
+        assertEquals("short long", LanguageUtils.replacePlaceholders("{a} {ab}",
+                new Placeholder("{a", "never"), new Placeholder("{a}", "short"), new Placeholder("{ab}", "long")));
+        assertEquals("XY", LanguageUtils.replacePlaceholders("ab", new Placeholder("a", "X"), new Placeholder("b", "Y")));
+    }
+
+    @Test
+    void valuesAreNotScannedAgain() {
+        assertEquals("{b} B", LanguageUtils.replacePlaceholders("{a} {b}",
+                new Placeholder("{a}", "{b}"), new Placeholder("{b}", "B")));
+    }
+
+    @Test
+    void lastDuplicateWins() {
+        assertEquals("second", LanguageUtils.replacePlaceholders("{x}",
+                new Placeholder("{x}", "first"), new Placeholder("{x}", "second")));
+    }
+
+    @Test
+    void nullValueKeepsTheKey() {
+        assertEquals("{x} Y", LanguageUtils.replacePlaceholders("{x} {y}",
+                new Placeholder("{x}", null), new Placeholder("{y}", "Y")));
+    }
+
+    @Test
+    void nonAsciiKeys() {
+        assertEquals("héllo wörld", LanguageUtils.replacePlaceholders("héllo «name»", new Placeholder("«name»", "wörld")));
+    }
+
+    @Test
+    void sameKeysInAnotherOrderUseTheirOwnValues() {
+        Placeholder a = new Placeholder("{a}", "A");
+        Placeholder b = new Placeholder("{b}", "B");
+        assertEquals("A B", LanguageUtils.replacePlaceholders("{a} {b}", a, b));
+        assertEquals("A B", LanguageUtils.replacePlaceholders("{a} {b}", b, a));
+        assertEquals("1 B", LanguageUtils.replacePlaceholders("{a} {b}", new Placeholder("{a}", "1"), b));
+    }
+
+    @Test
+    void listMatchesSingleReplacement() {
+        List<String> messages = new ArrayList<>(Arrays.asList("{player} joined", "", null, "no keys", "%coins% for {player}"));
+        Placeholder[] values = {new Placeholder("{player}", "Bob"), new Placeholder("%coins%", "3")};
+
+        List<String> replaced = LanguageUtils.replacePlaceholders(messages, values);
+        assertEquals(messages.size(), replaced.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(LanguageUtils.replacePlaceholders(messages.get(i), values), replaced.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package io.github.insideranh.talemessage.utils;
+
+import io.github.insideranh.talemessage.placeholders.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyValuesTest {
+
+    @Test
+    void nothingLazy() {
+        assertNull(LazyValues.of(new Placeholder[]{new Placeholder("{a}", "x"), null}));
+    }
+
+    @Test
+    void resolvesOnceAcrossThreads() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LazyValues values = LazyValues.of(new Placeholder[]{
+                new Placeholder("{a}", "x"),
+                Placeholder.lazy("{b}", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "B";
+                })
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = pool.submit(() -> values.resolve(1));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<?> future : futures) {
+                assertEquals("B", future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertNull(values.resolve(0));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void slowResolverDoesNotBlockOtherKeys() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LazyValues values = LazyValues.of(new Placeholder[]{
+                Placeholder.lazy("{slow}", () -> {
+                    started.countDown();
+                    await(release);
+                    return "slow";
+                }),
+                Placeholder.lazy("{fast}", () -> "fast")
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = pool.submit(() -> values.resolve(0));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            assertEquals("fast", values.resolve(1));
+            release.countDown();
+            assertEquals("slow", slow.get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void resolvedNullIsKept() {
+        AtomicInteger calls = new AtomicInteger();
+        LazyValues values = LazyValues.of(new Placeholder[]{Placeholder.lazy("{a}", () -> {
+            calls.incrementAndGet();
+            return null;
+        })});
+
+        assertNull(values.resolve(0));
+        assertNull(values.resolve(0));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failureReachesWaitingThreads() throws Exception {
+        IllegalStateException failure = new IllegalStateException("down");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LazyValues values = LazyValues.of(new Placeholder[]{Placeholder.lazy("{a}", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        })});
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = pool.submit(() -> values.resolve(0));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            release.countDown();
+
+            // Either waits on the resolve in progress or finds it failed; both see the same exception
+            assertSame(failure, assertThrows(IllegalStateException.class, () -> values.resolve(0)));
+            Exception e = assertThrows(Exception.class, () -> first.get(10, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
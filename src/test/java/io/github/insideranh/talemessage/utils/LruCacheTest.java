@@ -0,0 +1,130 @@
+package io.github.insideranh.talemessage.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruCache<String, String> cache = new LruCache<>(3);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        // Touch a, so b is now the eldest
+        assertEquals("A", cache.getIfPresent("a"));
+
+        cache.get("d", String::toUpperCase);
+        assertEquals(3, cache.size());
+        assertNull(cache.getIfPresent("b"));
+        assertEquals("A", cache.getIfPresent("a"));
+        assertEquals("D", cache.getIfPresent("d"));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        LruCache<String, String> cache = new LruCache<>(8);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("x!", cache.get("x", key -> {
+                loads.incrementAndGet();
+                return key + "!";
+            }));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        // Does not count
+        cache.getIfPresent("x");
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void nullValuesAreNotCached() {
+        LruCache<String, String> cache = new LruCache<>(8);
+        assertNull(cache.get("x", key -> null));
+        assertEquals(0, cache.size());
+        assertEquals("y", cache.get("x", key -> "y"));
+    }
+
+    @Test
+    void clear() {
+        LruCache<Integer, Integer> cache = new LruCache<>(8);
+        cache.get(1, key -> key);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent(1));
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<>(0));
+    }
+
+    @Test
+    void staysWithinMaxSize() {
+        for (int maxSize : new int[]{1, 7, 16, 100, 257, 1000}) {
+            LruCache<Integer, Integer> cache = new LruCache<>(maxSize);
+            for (int i = 0; i < maxSize * 10; i++) {
+                cache.get(i, key -> key);
+            }
+            assertTrue(cache.size() <= maxSize, "size " + cache.size() + " > " + maxSize);
+            assertEquals(maxSize, cache.getMaxSize());
+        }
+    }
+
+    @Test
+    void keepsRecentlyUsedKeysOfALargeCache() {
+        LruCache<Integer, Integer> cache = new LruCache<>(1024);
+        for (int i = 0; i < 512; i++) {
+            cache.get(i, key -> key);
+        }
+        // Half the capacity of fresh keys must not push out any of the first ones
+        for (int i = 10_000; i < 10_000 + 256; i++) {
+            cache.get(i, key -> key);
+        }
+        for (int i = 0; i < 512; i++) {
+            assertEquals(i, cache.getIfPresent(i));
+        }
+    }
+
+    @Test
+    void concurrentLookups() throws Exception {
+        LruCache<Integer, String> cache = new LruCache<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        int key = random.nextInt(512);
+                        assertEquals("v" + key, cache.get(key, k -> "v" + k));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(cache.size() <= 256);
+        assertEquals(8 * 20_000, cache.getHits() + cache.getMisses());
+    }
+
+}
@@ -0,0 +1,166 @@
+package io.github.insideranh.talemessage.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NumberWriterTest {
+
+    @Test
+    void grouped() {
+        assertEquals("0", grouped(0));
+        assertEquals("999", grouped(999));
+        assertEquals("1,000", grouped(1000));
+        assertEquals("-1,000", grouped(-1000));
+        assertEquals("123,456", grouped(123456));
+        assertEquals("1,234,567", grouped(1234567));
+        assertEquals("9,223,372,036,854,775,807", grouped(Long.MAX_VALUE));
+        assertEquals("-9,223,372,036,854,775,808", grouped(Long.MIN_VALUE));
+        assertEquals("1.234.567", NumberWriter.appendGrouped(new StringBuilder(), 1234567, '.').toString());
+    }
+
+    @Test
+    void compact() {
+        assertEquals("0", compact(0));
+        assertEquals("999", compact(999));
+        assertEquals("1k", compact(1000));
+        assertEquals("1k", compact(1049));
+        assertEquals("1.1k", compact(1050));
+        assertEquals("-1.2k", compact(-1234));
+        assertEquals("1.5M", compact(1_500_000));
+        assertEquals("9.2Qi", compact(Long.MAX_VALUE));
+        assertEquals("-9.2Qi", compact(Long.MIN_VALUE));
+    }
+
+    @Test
+    void compactCarriesIntoNextUnit() {
+        assertEquals("999.9k", compact(999_949));
+        assertEquals("1M", compact(999_950));
+        assertEquals("-1M", compact(-999_950));
+        assertEquals("999.9M", compact(999_949_999));
+        assertEquals("1B", compact(999_950_000));
+        // No unit after Qi to carry into
+        assertEquals("1Qi", compact(999_999_999_999_999_999L));
+    }
+
+    @Test
+    void fixed() {
+        assertEquals("3.14", fixed(3.14159, 2));
+        assertEquals("1", fixed(0.5, 0));
+        assertEquals("-2", fixed(-1.5, 0));
+        assertEquals("123", fixed(123.456, 0));
+        assertEquals("1.00", fixed(0.99999, 2));
+        assertEquals("10.000000000", fixed(9.9999999999, 9));
+        assertEquals("0.000000002", fixed(1.5e-9, 9));
+        assertEquals("100000000000000000000.00", fixed(1e20, 2));
+        assertEquals("NaN", fixed(Double.NaN, 2));
+        assertEquals("Infinity", fixed(Double.POSITIVE_INFINITY, 2));
+    }
+
+    @Test
+    void fixedHasNoNegativeZero() {
+        assertEquals("0.00", fixed(-0.001, 2));
+        assertEquals("0", fixed(-0.4, 0));
+        assertEquals("0.0", fixed(-0.0, 1));
+    }
+
+    @Test
+    void fixedRoundsTheBinaryValueHalfUp() {
+        // 2.675 and 1.005 are stored just below the half
+        assertEquals("2.67", fixed(2.675, 2));
+        assertEquals("1.00", fixed(1.005, 2));
+        assertEquals("0.13", fixed(0.125, 2));
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(16));
+            int decimals = random.nextInt(NumberWriter.MAX_DECIMALS + 1);
+            String expected = new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+            if (expected.startsWith("-") && expected.matches("-[0.]+")) {
+                expected = expected.substring(1);
+            }
+            assertEquals(expected, fixed(value, decimals), value + " with " + decimals + " decimals");
+        }
+    }
+
+    @Test
+    void rejectsInvalidDecimals() {
+        assertThrows(IllegalArgumentException.class, () -> fixed(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> fixed(1, NumberWriter.MAX_DECIMALS + 1));
+    }
+
+    @Test
+    void duration() {
+        assertEquals("0s", duration(0));
+        assertEquals("0s", duration(999));
+        assertEquals("1s", duration(1000));
+        assertEquals("1m", duration(60_000));
+        assertEquals("1m 1s", duration(61_000));
+        assertEquals("1h", duration(3_600_000));
+        assertEquals("1h 1m 1s", duration(3_661_000));
+        assertEquals("1d", duration(86_400_000));
+        assertEquals("1d 1h 1m 1s", duration(90_061_000));
+    }
+
+    @Test
+    void negativeDuration() {
+        assertEquals("0s", duration(-999));
+        assertEquals("-1m 1s", duration(-61_000));
+        assertEquals("-1d 1h 1m 1s", duration(-90_061_000));
+        assertEquals("-106751991167d 7h 12m 55s", duration(Long.MIN_VALUE));
+    }
+
+    @Test
+    void clock() {
+        assertEquals("0:00", clock(0));
+        assertEquals("0:00", clock(999));
+        assertEquals("0:01", clock(1000));
+        assertEquals("1:01", clock(61_000));
+        assertEquals("1:00:00", clock(3_600_000));
+        assertEquals("1:01:01", clock(3_661_000));
+        // Hours are not wrapped into days
+        assertEquals("25:01:01", clock(90_061_000));
+        assertEquals("99:59:59", clock(359_999_000));
+    }
+
+    @Test
+    void negativeClock() {
+        assertEquals("0:00", clock(-999));
+        assertEquals("-1:01", clock(-61_000));
+        assertEquals("-1:01:01", clock(-3_661_000));
+        assertEquals("-2562047788015:12:55", clock(Long.MIN_VALUE));
+    }
+
+    @Test
+    void appendsToExistingText() {
+        assertEquals("x=1.5k", NumberWriter.appendCompact(new StringBuilder("x="), 1500).toString());
+        assertEquals("t=1m 1s", NumberWriter.appendDuration(new StringBuilder("t="), 61_000).toString());
+        assertEquals("t=-1m 1s", NumberWriter.appendDuration(new StringBuilder("t="), -61_000).toString());
+    }
+
+    private static String grouped(long value) {
+        return NumberWriter.appendGrouped(new StringBuilder(), value, ',').toString();
+    }
+
+    private static String compact(long value) {
+        return NumberWriter.appendCompact(new StringBuilder(), value).toString();
+    }
+
+    private static String fixed(double value, int decimals) {
+        return NumberWriter.appendFixed(new StringBuilder(), value, decimals).toString();
+    }
+
+    private static String duration(long millis) {
+        return NumberWriter.appendDuration(new StringBuilder(), millis).toString();
+    }
+
+    private static String clock(long millis) {
+        return NumberWriter.appendClock(new StringBuilder(), millis).toString();
+    }
+
+}